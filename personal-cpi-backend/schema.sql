@@ -43,11 +43,12 @@ CREATE TABLE public.receipts (
   receipt_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   user_id BIGINT NOT NULL,
   store_name VARCHAR(255),
-  purchase_date DATE DEFAULT CURRENT_DATE,
+  purchase_date DATE NOT NULL DEFAULT CURRENT_DATE,
   category_id BIGINT,
   amount NUMERIC(10, 2) NOT NULL,
   created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
   image_key VARCHAR(500),
+  updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT NOW(),
   CONSTRAINT receipts_pkey PRIMARY KEY (receipt_id),
   CONSTRAINT receipts_receipt_id_key UNIQUE (receipt_id),
   CONSTRAINT receipts_category_id_fkey FOREIGN KEY (category_id) 
@@ -57,15 +58,27 @@ CREATE TABLE public.receipts (
 ) TABLESPACE pg_default;
 
 -- Indexes for receipts
-CREATE INDEX IF NOT EXISTS idx_receipts_user_date 
-  ON public.receipts USING btree (user_id, purchase_date DESC) TABLESPACE pg_default;
-
 CREATE INDEX IF NOT EXISTS idx_receipts_user_category 
   ON public.receipts USING btree (user_id, category_id) TABLESPACE pg_default;
 
 CREATE INDEX IF NOT EXISTS idx_receipts_user_created 
   ON public.receipts USING btree (user_id, created_at DESC) TABLESPACE pg_default;
 
+-- Keyset pagination (purchase_date, receipt_id) cursors. Also serves plain (user_id, purchase_date)
+-- lookups; cursors assume purchase_date is never NULL. Existing databases need:
+--   UPDATE public.receipts SET purchase_date = COALESCE(created_at::date, CURRENT_DATE) WHERE purchase_date IS NULL;
+--   ALTER TABLE public.receipts ALTER COLUMN purchase_date SET NOT NULL;
+--   DROP INDEX IF EXISTS public.idx_receipts_user_date;
+CREATE INDEX IF NOT EXISTS idx_receipts_user_date_id 
+  ON public.receipts USING btree (user_id, purchase_date DESC, receipt_id DESC) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_receipts_user_category_date 
+  ON public.receipts USING btree (user_id, category_id, purchase_date DESC, receipt_id DESC) TABLESPACE pg_default;
+
+-- Delta sync (GET /api/receipts/changes)
+CREATE INDEX IF NOT EXISTS idx_receipts_user_updated 
+  ON public.receipts USING btree (user_id, updated_at, receipt_id) TABLESPACE pg_default;
+
 -- ============================================
 -- 4. RECEIPT ITEMS TABLE
 -- ============================================
@@ -76,6 +89,7 @@ CREATE TABLE public.receipt_items (
   item_name VARCHAR(255) NOT NULL,
   quantity INTEGER DEFAULT 1,
   unit_price NUMERIC(10, 2),
+  updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT NOW(),
   CONSTRAINT receipt_items_pkey PRIMARY KEY (receipt_item_id),
   CONSTRAINT receipt_items_receipt_id_fkey FOREIGN KEY (receipt_id) 
     REFERENCES receipts (receipt_id) ON UPDATE CASCADE ON DELETE CASCADE
@@ -85,6 +99,25 @@ CREATE TABLE public.receipt_items (
 CREATE INDEX IF NOT EXISTS idx_receipt_items_receipt_id 
   ON public.receipt_items USING btree (receipt_id) TABLESPACE pg_default;
 
+-- ============================================
+-- FULL-TEXT SEARCH (GET /api/receipts/search)
+-- ============================================
+-- Expressions must match PostgresReceiptSearchRepository exactly to be used
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_receipts_store_fts 
+  ON public.receipts USING gin (to_tsvector('english', coalesce(store_name, ''))) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_receipts_store_trgm 
+  ON public.receipts USING gin (store_name gin_trgm_ops) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_receipt_items_name_fts 
+  ON public.receipt_items USING gin (to_tsvector('english', item_name)) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_receipt_items_name_trgm 
+  ON public.receipt_items USING gin (item_name gin_trgm_ops) TABLESPACE pg_default;
+
 -- ============================================
 -- 5. PERSONAL CPI MONTHLY TABLE
 -- ============================================
@@ -143,4 +176,122 @@ CREATE INDEX IF NOT EXISTS idx_official_cpi_date
   ON public.official_cpi_data USING btree (year, month) TABLESPACE pg_default;
 
 CREATE INDEX IF NOT EXISTS idx_official_cpi_category 
-  ON public.official_cpi_data USING btree (category_id, year, month) TABLESPACE pg_default;
\ No newline at end of file
+  ON public.official_cpi_data USING btree (category_id, year, month) TABLESPACE pg_default;
+
+-- ============================================
+-- 7. USER SPENDING STATS TABLE
+-- ============================================
+-- Running per-user totals, updated with deltas in the same transaction
+-- as each receipt write. Rebuild with POST /api/admin/stats/reconcile.
+
+CREATE TABLE public.user_spending_stats (
+  user_id BIGINT NOT NULL,
+  receipt_count BIGINT NOT NULL DEFAULT 0,
+  total_amount NUMERIC(14, 2) NOT NULL DEFAULT 0,
+  first_purchase_date DATE,
+  last_purchase_date DATE,
+  updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT NOW(),
+  CONSTRAINT user_spending_stats_pkey PRIMARY KEY (user_id),
+  CONSTRAINT user_spending_stats_user_id_fkey FOREIGN KEY (user_id) 
+    REFERENCES users (id) ON UPDATE CASCADE ON DELETE CASCADE
+) TABLESPACE pg_default;
+
+-- ============================================
+-- 8. RECEIPT TOMBSTONES TABLE
+-- ============================================
+-- Deleted receipt IDs for delta sync, purged after 90 days.
+-- Existing databases also need the updated_at columns. Add them without a default first, so existing
+-- rows stay NULL and can be backfilled from created_at instead of all looking changed at migration time:
+--   ALTER TABLE public.receipts ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITHOUT TIME ZONE;
+--   ALTER TABLE public.receipt_items ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITHOUT TIME ZONE;
+--   UPDATE public.receipts SET updated_at = created_at WHERE updated_at IS NULL;
+--   UPDATE public.receipt_items i SET updated_at = r.created_at
+--     FROM public.receipts r WHERE r.receipt_id = i.receipt_id AND i.updated_at IS NULL;
+--   ALTER TABLE public.receipts ALTER COLUMN updated_at SET DEFAULT NOW();
+--   ALTER TABLE public.receipt_items ALTER COLUMN updated_at SET DEFAULT NOW();
+
+CREATE TABLE public.receipt_tombstones (
+  tombstone_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  user_id BIGINT NOT NULL,
+  receipt_id BIGINT NOT NULL,
+  deleted_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+  CONSTRAINT receipt_tombstones_pkey PRIMARY KEY (tombstone_id),
+  CONSTRAINT receipt_tombstones_user_id_fkey FOREIGN KEY (user_id) 
+    REFERENCES users (id) ON UPDATE CASCADE ON DELETE CASCADE
+) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_receipt_tombstones_user_deleted 
+  ON public.receipt_tombstones USING btree (user_id, deleted_at) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_receipt_tombstones_deleted 
+  ON public.receipt_tombstones USING btree (deleted_at) TABLESPACE pg_default;
+
+-- ============================================
+-- 9. S3 DELETION OUTBOX TABLE
+-- ============================================
+-- S3 objects orphaned by receipt deletes, written in the deleting transaction
+-- and removed by S3DeletionOutboxService once S3 confirms. Rows that reach
+-- 10 attempts stay for inspection (see last_error).
+
+CREATE TABLE public.s3_deletion_outbox (
+  outbox_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  object_key VARCHAR(500) NOT NULL,
+  attempts INTEGER NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+  last_error VARCHAR(1000),
+  created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+  CONSTRAINT s3_deletion_outbox_pkey PRIMARY KEY (outbox_id)
+) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_s3_deletion_outbox_due 
+  ON public.s3_deletion_outbox USING btree (next_attempt_at) TABLESPACE pg_default WHERE attempts < 10;
+
+-- ============================================
+-- 10. EMAIL OUTBOX TABLE
+-- ============================================
+-- Verification emails, written in the signup/resend transaction and removed
+-- by EmailOutboxService once the SMTP server accepts them. Rows that reach
+-- 6 attempts (about 5 minutes of retries) stay for inspection (see last_error).
+
+CREATE TABLE public.email_outbox (
+  email_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  recipient VARCHAR(320) NOT NULL,
+  subject VARCHAR(255) NOT NULL,
+  html_body TEXT NOT NULL,
+  attempts INTEGER NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+  last_error VARCHAR(1000),
+  created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+  CONSTRAINT email_outbox_pkey PRIMARY KEY (email_id)
+) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due 
+  ON public.email_outbox USING btree (next_attempt_at) TABLESPACE pg_default WHERE attempts < 6;
+
+-- ============================================
+-- 11. RATE LIMIT BUCKETS TABLE
+-- ============================================
+-- Token buckets shared by all replicas when rate-limit.store=jdbc. Keyed by
+-- user_id * 8 + limit type; state is bucket4j's serialized bucket. One small
+-- row per user and limit type that has ever been used.
+
+CREATE TABLE public.rate_limit_buckets (
+  bucket_id BIGINT NOT NULL,
+  state BYTEA,
+  CONSTRAINT rate_limit_buckets_pkey PRIMARY KEY (bucket_id)
+) TABLESPACE pg_default;
+
+-- ============================================
+-- 12. USER DATA VERSIONS TABLE
+-- ============================================
+-- One counter per user, incremented in the same transaction as every write
+-- to their receipts, items or personal CPI. ETags and the spending summary
+-- cache are keyed on it, so every replica sees a write at the same moment.
+
+CREATE TABLE public.user_data_versions (
+  user_id BIGINT NOT NULL,
+  data_version BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT user_data_versions_pkey PRIMARY KEY (user_id),
+  CONSTRAINT user_data_versions_user_id_fkey FOREIGN KEY (user_id) 
+    REFERENCES users (id) ON UPDATE CASCADE ON DELETE CASCADE
+) TABLESPACE pg_default;
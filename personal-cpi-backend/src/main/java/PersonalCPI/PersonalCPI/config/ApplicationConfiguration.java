@@ -3,6 +3,10 @@ package PersonalCPI.PersonalCPI.config;
 
 import PersonalCPI.PersonalCPI.model.User;
 import PersonalCPI.PersonalCPI.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,19 +16,28 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @Configuration
 public class ApplicationConfiguration {
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationConfiguration.class);
+
     private final UserRepository userRepository;
     public ApplicationConfiguration(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
 
-    @Bean // encoding passwords
-    BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean // encoding passwords, on a pool sized to the cores so hashing can't occupy every request thread
+    BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${security.password-hashing.threads:0}") int threads,
+                                           @Value("${security.password-hashing.queue-capacity:32}") int queueCapacity,
+                                           @Value("${security.password-hashing.max-wait-ms:5000}") long maxWaitMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity,
+                Duration.ofMillis(maxWaitMillis), meterRegistry);
     }
 
     @Bean
@@ -33,11 +46,11 @@ public class ApplicationConfiguration {
     }
 
     @Bean
-    AuthenticationProvider authenticationProvider() {
+    AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(); // Depreciated function
 
         authProvider.setUserDetailsService(userDetailsService()); // depreciated function
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
 
         return authProvider;
     }
@@ -46,8 +59,6 @@ public class ApplicationConfiguration {
     @Bean
     UserDetailsService userDetailsService() {
         return identifier -> {
-            System.out.println("UserDetailsService called with: '" + identifier + "'");
-
             // try by username
             Optional<User> user = userRepository.findByUsername(identifier);
 
@@ -56,11 +67,7 @@ public class ApplicationConfiguration {
                 user = userRepository.findByEmail(identifier);
             }
 
-            if (user.isPresent()) {
-                System.out.println("Found user: " + user.get().getUsername());
-            } else {
-                System.out.println("No user found with identifier: " + identifier);
-            }
+            logger.debug("Loaded user details identifier={} found={}", identifier, user.isPresent());
             return user.orElseThrow(() -> new UsernameNotFoundException("User not found"));
         };
     }
@@ -1,5 +1,6 @@
 package PersonalCPI.PersonalCPI.config;
 
+import PersonalCPI.PersonalCPI.service.SpendingSummaryCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -24,6 +25,7 @@ public class CacheConfig {
                 .expireAfterWrite(15, TimeUnit.MINUTES)
                 .maximumSize(1000)
                 .recordStats());
+        cacheManager.registerCustomCache(SpendingSummaryCache.CACHE_NAME, SpendingSummaryCache.newNativeCache());
         return cacheManager;
     }
 }
@@ -29,6 +29,10 @@ public class EmailConfiguration {
         properties.put("mail.smtp.auth", "true");
         properties.put("mail.smtp.starttls.enable", "true");
         properties.put("mail.debug", "true");
+        // the outbox worker sends a whole batch over one connection; don't let a stalled server hold it
+        properties.put("mail.smtp.connectiontimeout", "10000");
+        properties.put("mail.smtp.timeout", "10000");
+        properties.put("mail.smtp.writetimeout", "10000");
 
         return mailSender;
     }
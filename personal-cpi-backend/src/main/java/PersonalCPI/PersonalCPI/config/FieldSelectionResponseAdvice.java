@@ -0,0 +1,83 @@
+package PersonalCPI.PersonalCPI.config;
+
+import PersonalCPI.PersonalCPI.controller.CPIController;
+import PersonalCPI.PersonalCPI.controller.ReceiptController;
+import PersonalCPI.PersonalCPI.dto.CursorSlice;
+import PersonalCPI.PersonalCPI.dto.ReceiptChangesDto;
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Applies the {@code fields} query parameter to JSON responses from the receipt and CPI endpoints.
+ * Only DTOs carrying the field selection filter are narrowed; page and slice wrappers, error maps
+ * and nested items are written as usual. Names that aren't properties of the filtered DTO turn the
+ * response into a 400; list endpoints reject them before doing any work, this catches the rest.
+ */
+@ControllerAdvice(assignableTypes = {ReceiptController.class, CPIController.class})
+public class FieldSelectionResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+
+        FieldSelection selection = FieldSelection.parse(servletRequest.getServletRequest().getParameter("fields"));
+        if (selection.isAll()) {
+            return;
+        }
+
+        Class<?> filteredType = filteredType(bodyContainer.getValue());
+        if (filteredType != null) {
+            try {
+                selection.requireKnown(filteredType);
+            } catch (IllegalArgumentException e) {
+                response.setStatusCode(HttpStatus.BAD_REQUEST);
+                bodyContainer.setValue(Map.of("error", e.getMessage()));
+                return;
+            }
+        }
+
+        bodyContainer.setFilters(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(selection.getFields()))
+                .setFailOnUnknownId(false));
+    }
+
+    // The DTO type the filter narrows, found through the list and slice wrappers the endpoints return
+    private static Class<?> filteredType(Object body) {
+        if (body == null) {
+            return null;
+        }
+        JsonFilter filter = body.getClass().getAnnotation(JsonFilter.class);
+        if (filter != null && FieldSelection.FILTER_ID.equals(filter.value())) {
+            return body.getClass();
+        }
+        if (body instanceof CursorSlice<?> slice) {
+            return filteredType(slice.getContent());
+        }
+        if (body instanceof ReceiptChangesDto changes) {
+            return filteredType(changes.getChanged());
+        }
+        if (body instanceof Iterable<?> iterable) {
+            Iterator<?> iterator = iterable.iterator();
+            return iterator.hasNext() ? filteredType(iterator.next()) : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package PersonalCPI.PersonalCPI.config;
+
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson configuration shared by all JSON responses
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * DTOs annotated with the field selection filter serialize every property unless
+     * {@link FieldSelectionResponseAdvice} narrows them for a request.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.serializeAll())
+                .setFailOnUnknownId(false));
+    }
+}
@@ -1,17 +1,21 @@
 // extract token from http header, and authenticates token
 package PersonalCPI.PersonalCPI.config;
 
+import PersonalCPI.PersonalCPI.model.User;
 import PersonalCPI.PersonalCPI.service.JwtService;
+import PersonalCPI.PersonalCPI.service.UserSnapshotCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,20 +26,28 @@ import java.io.IOException;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter  {
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final HandlerExceptionResolver handlerExceptionResolver;
 
     private final JwtService jwtService;
 
-    private final UserDetailsService userDetailsService;
+    private final UserSnapshotCache userSnapshotCache;
+
+    // build the principal from signed claims instead of loading the user on every request; the account is
+    // then not re-checked until the token expires, so revoking access takes up to security.jwt.expiration-time
+    private final boolean statelessPrincipal;
 
     public JwtAuthenticationFilter(
             JwtService jwtService,
-            UserDetailsService userDetailsService,
-            HandlerExceptionResolver handlerExceptionResolver
+            UserSnapshotCache userSnapshotCache,
+            HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${security.jwt.stateless-principal:true}") boolean statelessPrincipal
     ) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.userSnapshotCache = userSnapshotCache;
         this.handlerExceptionResolver = handlerExceptionResolver;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -47,22 +59,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter  {
         final String authHeader = request.getHeader("Authorization");
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("No Bearer token found, continuing without auth");
+            logger.debug("No Bearer token found, continuing without auth path={}", request.getRequestURI());
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userName = jwtService.extractUsername(jwt); // extract username
+            // one signature check per token; repeat requests with it are served from the cache
+            final JwtService.VerifiedToken token = jwtService.verify(jwt);
+            final String userName = token.subject(); // extract username
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
             if (userName != null && authentication == null) { // if no authentication
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userName);
+                UserDetails userDetails = statelessPrincipal && token.hasPrincipalClaims()
+                        ? principalFromClaims(token)
+                        : userSnapshotCache.get(userName);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    System.out.println("Token is VALID");
+                if (jwtService.isTokenValid(token, userDetails)) {
+                    logger.debug("Token is valid user={}", userName);
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -100,4 +116,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter  {
             response.getWriter().write("{\"error\": \"Authentication failed\"}");
         }
     }
+
+    // detached user carrying only what the token vouches for; never passed to a repository
+    private static User principalFromClaims(JwtService.VerifiedToken token) {
+        User user = new User(token.subject(), token.email(), null);
+        user.setId(token.userId());
+        user.setEnabled(true);
+        return user;
+    }
 }
@@ -2,27 +2,47 @@ package PersonalCPI.PersonalCPI.config;
 
 import PersonalCPI.PersonalCPI.exception.RateLimitExceededException;
 import PersonalCPI.PersonalCPI.model.User;
+import PersonalCPI.PersonalCPI.service.EndpointCostTracker;
 import PersonalCPI.PersonalCPI.service.RateLimitService;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Charges each request its endpoint's weight from {@link EndpointCostTracker} and feeds the
+ * request's server time back into it. Async requests (exports) are charged once, on the
+ * original dispatch, and not measured: their time depends on how fast the client reads.
+ */
 @Component
-public class RateLimitInterceptor implements HandlerInterceptor {
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final String ENDPOINT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".endpoint";
+    private static final String START_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".start";
     
     private final RateLimitService rateLimitService;
+    private final EndpointCostTracker endpointCostTracker;
     
     @Autowired
-    public RateLimitInterceptor(RateLimitService rateLimitService) {
+    public RateLimitInterceptor(RateLimitService rateLimitService, EndpointCostTracker endpointCostTracker) {
         this.rateLimitService = rateLimitService;
+        this.endpointCostTracker = endpointCostTracker;
     }
     
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true; // already charged on the original dispatch
+        }
+        
         // Skip rate limiting for auth endpoints
         String requestURI = request.getRequestURI();
         if (requestURI.startsWith("/auth/")) {
@@ -42,32 +62,59 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         // Determine rate limit type based on endpoint
         RateLimitType limitType = determineRateLimitType(requestURI);
         
-        // Check rate limit
-        if (!rateLimitService.tryConsume(userId, limitType)) {
-            long retryAfter = rateLimitService.getSecondsUntilRefill(userId, limitType);
-            
-            // Add rate limit headers
-            response.setHeader("X-RateLimit-Limit", String.valueOf(rateLimitService.getLimit(limitType)));
-            response.setHeader("X-RateLimit-Remaining", "0");
-            response.setHeader("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + retryAfter));
-            
+        // Expensive endpoints take more than one token, never more than the bucket holds
+        EndpointCostTracker.Endpoint endpoint = endpointCostTracker.endpoint(
+                request.getMethod(), mappingPattern(request), limitType);
+        long limit = rateLimitService.getLimit(limitType);
+        long tokens = Math.min(endpoint.weight(), limit);
+        
+        // One call takes the tokens and reports what the headers need
+        ConsumptionProbe probe = rateLimitService.tryConsume(userId, limitType, tokens);
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        endpoint.recordCharge(tokens, probe.isConsumed());
+        
+        response.setHeader("X-RateLimit-Limit", String.valueOf(limit));
+        response.setHeader("X-RateLimit-Cost", String.valueOf(tokens));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(nowSeconds + toSeconds(probe.getNanosToWaitForReset())));
+        
+        if (!probe.isConsumed()) {
             throw new RateLimitExceededException(
                     "Too many requests. Please try again later.",
-                    retryAfter
+                    Math.max(1, toSeconds(probe.getNanosToWaitForRefill()))
             );
         }
         
-        // Add rate limit headers to successful requests
-        long remaining = rateLimitService.getAvailableTokens(userId, limitType);
-        long resetTime = System.currentTimeMillis() / 1000 + 60; // Reset in 1 minute
-        
-        response.setHeader("X-RateLimit-Limit", String.valueOf(rateLimitService.getLimit(limitType)));
-        response.setHeader("X-RateLimit-Remaining", String.valueOf(remaining));
-        response.setHeader("X-RateLimit-Reset", String.valueOf(resetTime));
-        
+        request.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
         return true;
     }
     
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ENDPOINT_ATTRIBUTE) instanceof EndpointCostTracker.Endpoint endpoint) {
+            endpoint.markAsync();
+            request.removeAttribute(START_ATTRIBUTE);
+        }
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ENDPOINT_ATTRIBUTE) instanceof EndpointCostTracker.Endpoint endpoint
+                && request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            endpoint.recordLatency(System.nanoTime() - start);
+        }
+    }
+    
+    private static String mappingPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "unmapped";
+    }
+    
+    private static long toSeconds(long nanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1); // round up
+    }
+    
     private RateLimitType determineRateLimitType(String requestURI) {
         if (requestURI.contains("/upload")) {
             return RateLimitType.UPLOAD;
@@ -0,0 +1,31 @@
+package PersonalCPI.PersonalCPI.config;
+
+import io.github.bucket4j.distributed.jdbc.BucketTableSettings;
+import io.github.bucket4j.distributed.jdbc.SQLProxyConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Shared rate-limit store, enabled with {@code rate-limit.store=jdbc}. Bucket state is kept in the
+ * {@code rate_limit_buckets} table (see schema.sql) and updated under {@code SELECT ... FOR UPDATE}, so
+ * concurrent replicas serialize on a user's row rather than on a global lock. A user's row is created
+ * on their first request (see {@link SelectForUpdateProxyManager}).
+ */
+@Configuration
+public class RateLimitStoreConfiguration {
+
+    public static final String TABLE_NAME = "rate_limit_buckets";
+
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "jdbc")
+    public ProxyManager<Long> rateLimitProxyManager(DataSource dataSource) {
+        var configuration = SQLProxyConfiguration.builder()
+                .withTableSettings(BucketTableSettings.customSettings(TABLE_NAME, "bucket_id", "state"))
+                .build(dataSource);
+        return new SelectForUpdateProxyManager<>(configuration);
+    }
+}
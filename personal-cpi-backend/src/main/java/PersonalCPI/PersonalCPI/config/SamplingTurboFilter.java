@@ -0,0 +1,59 @@
+package PersonalCPI.PersonalCPI.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in every {@code rate} events from a logger (and its children) at or below {@code level},
+ * so per-request debug logging can stay on under load. WARN and above are never sampled by default.
+ * Declared once per sampled logger in logback-spring.xml. Applies to parameterized calls
+ * ({@code logger.debug("... user={}", user)}), which is how the sampled hot paths log.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String loggerName;
+    private Level level = Level.INFO;
+    private int rate = 1;
+    private final AtomicLong seen = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level eventLevel, String format, Object[] params,
+                              Throwable t) {
+        // isXxxEnabled() checks arrive without a format; only count events actually being logged
+        if (!isStarted() || format == null || rate <= 1 || eventLevel.toInt() > level.toInt()
+                || !eventLevel.isGreaterOrEqual(logger.getEffectiveLevel()) || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return seen.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        return name.equals(loggerName) || name.startsWith(loggerName + ".");
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null) {
+            addError("No loggerName set for SamplingTurboFilter " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,139 @@
+package PersonalCPI.PersonalCPI.config;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.distributed.jdbc.SQLProxyConfiguration;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractSelectForUpdateBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockAndGetResult;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.SelectForUpdateBasedTransaction;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Bucket4j's {@code SELECT ... FOR UPDATE} store, with the same statements as its PostgreSQL proxy manager
+ * except that the first-use insert is a bare {@code ON CONFLICT DO NOTHING}. The bucket ID is the table's
+ * only unique key, so PostgreSQL behaves the same, and the statement also runs on H2 in PostgreSQL mode,
+ * which lets tests cover bucket creation instead of pre-inserting rows.
+ */
+public class SelectForUpdateProxyManager<K> extends AbstractSelectForUpdateBasedProxyManager<K> {
+
+    private final SQLProxyConfiguration<K> configuration;
+    private final DataSource dataSource;
+    private final String selectSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String removeSql;
+
+    public SelectForUpdateProxyManager(SQLProxyConfiguration<K> configuration) {
+        super(configuration.getClientSideConfig());
+        this.configuration = configuration;
+        this.dataSource = configuration.getDataSource();
+        String table = configuration.getTableName();
+        String id = configuration.getIdName();
+        String state = configuration.getStateName();
+        this.selectSql = "SELECT " + state + " FROM " + table + " WHERE " + id + " = ? FOR UPDATE";
+        this.insertSql = "INSERT INTO " + table + " (" + id + ", " + state + ") VALUES (?, NULL) ON CONFLICT DO NOTHING";
+        this.updateSql = "UPDATE " + table + " SET " + state + " = ? WHERE " + id + " = ?";
+        this.removeSql = "DELETE FROM " + table + " WHERE " + id + " = ?";
+    }
+
+    @Override
+    protected SelectForUpdateBasedTransaction allocateTransaction(K key, Optional<Long> requestTimeoutNanos) {
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new BucketExceptions.BucketExecutionException(e);
+        }
+
+        return new SelectForUpdateBasedTransaction() {
+            @Override
+            public void begin(Optional<Long> requestTimeoutNanos) {
+                try {
+                    connection.setAutoCommit(false);
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public LockAndGetResult tryLockAndGet(Optional<Long> requestTimeoutNanos) {
+                try (PreparedStatement statement = connection.prepareStatement(selectSql)) {
+                    configuration.getPrimaryKeyMapper().set(statement, 1, key);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return rs.next() ? LockAndGetResult.locked(rs.getBytes(1)) : LockAndGetResult.notLocked();
+                    }
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public boolean tryInsertEmptyData(Optional<Long> requestTimeoutNanos) {
+                try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                    configuration.getPrimaryKeyMapper().set(statement, 1, key);
+                    return statement.executeUpdate() > 0;
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void update(byte[] data, RemoteBucketState newState, Optional<Long> requestTimeoutNanos) {
+                try (PreparedStatement statement = connection.prepareStatement(updateSql)) {
+                    statement.setBytes(1, data);
+                    configuration.getPrimaryKeyMapper().set(statement, 2, key);
+                    statement.executeUpdate();
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void commit(Optional<Long> requestTimeoutNanos) {
+                try {
+                    connection.commit();
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void rollback() {
+                try {
+                    connection.rollback();
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void release() {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void removeProxy(K key) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(removeSql)) {
+            configuration.getPrimaryKeyMapper().set(statement, 1, key);
+            statement.executeUpdate();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            throw new BucketExceptions.BucketExecutionException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package PersonalCPI.PersonalCPI.controller;
+
+import PersonalCPI.PersonalCPI.model.User;
+import PersonalCPI.PersonalCPI.model.UserSpendingStats;
+import PersonalCPI.PersonalCPI.service.UserSpendingStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Rebuilds the caller's spending stats from their receipts. There are no admin roles, so rebuilding
+ * every user's stats is not exposed here; it runs on a schedule (stats.reconcile.cron).
+ */
+@RestController
+@RequestMapping("/api/admin/stats")
+public class AdminStatsController {
+
+    private final UserSpendingStatsService userSpendingStatsService;
+
+    @Autowired
+    public AdminStatsController(UserSpendingStatsService userSpendingStatsService) {
+        this.userSpendingStatsService = userSpendingStatsService;
+    }
+
+    /**
+     * Reconcile the authenticated user's stats
+     * POST /api/admin/stats/reconcile
+     */
+    @PostMapping("/reconcile")
+    public ResponseEntity<?> reconcile(@RequestParam(required = false) Long userId) {
+        Long currentUserId = getCurrentUserId();
+        if (userId != null && !userId.equals(currentUserId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                "error", "You can only reconcile your own spending stats"
+            ));
+        }
+        try {
+            UserSpendingStats stats = userSpendingStatsService.reconcile(currentUserId);
+            return ResponseEntity.ok(Map.of(
+                "userId", currentUserId,
+                "receiptCount", stats.getReceiptCount(),
+                "totalAmount", stats.getTotalAmount()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of(
+                "error", "Failed to reconcile spending stats: " + e.getMessage()
+            ));
+        }
+    }
+
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User user = (User) authentication.getPrincipal();
+        return user.getId();
+    }
+}
@@ -1,6 +1,7 @@
 package PersonalCPI.PersonalCPI.controller;
 
 import PersonalCPI.PersonalCPI.dto.*;
+import PersonalCPI.PersonalCPI.exception.ServiceOverloadedException;
 import PersonalCPI.PersonalCPI.model.User;
 import PersonalCPI.PersonalCPI.responses.LoginResponse;
 import PersonalCPI.PersonalCPI.service.AuthenticationService;
@@ -27,6 +28,9 @@ public class AuthenticationController {
             UserResponseDto registeredUser = authenticationService.signup(registerUserDto); // Service returns User
             return ResponseEntity.ok(registeredUser);
         }
+        catch (ServiceOverloadedException e) {
+            throw e; // 503 with Retry-After from GlobalExceptionHandler
+        }
         catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT) // handle resend on frontend
                     .body(Map.of("error", "User already exists", "message", e.getMessage()));
@@ -45,6 +49,9 @@ public class AuthenticationController {
             LoginResponse loginResponse = new LoginResponse(jwtService.getExpirationTime(), jwtToken);
             return ResponseEntity.ok(loginResponse);
         }
+        catch (ServiceOverloadedException e) {
+            throw e; // 503 with Retry-After from GlobalExceptionHandler
+        }
         catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -3,16 +3,19 @@ package PersonalCPI.PersonalCPI.controller;
 import PersonalCPI.PersonalCPI.dto.CategoryCpiDto;
 import PersonalCPI.PersonalCPI.dto.OfficialCpiDto;
 import PersonalCPI.PersonalCPI.dto.PersonalCpiDto;
-import PersonalCPI.PersonalCPI.model.Category;
 import PersonalCPI.PersonalCPI.model.OfficialCpiData;
 import PersonalCPI.PersonalCPI.model.PersonalCpiMonthly;
 import PersonalCPI.PersonalCPI.model.User;
-import PersonalCPI.PersonalCPI.repository.CategoryRepository;
 import PersonalCPI.PersonalCPI.service.CPIComparisonService;
+import PersonalCPI.PersonalCPI.service.CategoryRegistry;
 import PersonalCPI.PersonalCPI.service.OfficialCPIService;
 import PersonalCPI.PersonalCPI.service.PersonalCPIService;
+import PersonalCPI.PersonalCPI.service.UserDataVersionService;
+import PersonalCPI.PersonalCPI.util.FieldSelection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -27,7 +30,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * REST Controller for Personal CPI endpoints
@@ -39,36 +41,50 @@ public class CPIController {
     private final PersonalCPIService personalCPIService;
     private final OfficialCPIService officialCPIService;
     private final CPIComparisonService cpiComparisonService;
-    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final UserDataVersionService userDataVersionService;
     
     @Autowired
     public CPIController(
             PersonalCPIService personalCPIService,
             OfficialCPIService officialCPIService,
             CPIComparisonService cpiComparisonService,
-            CategoryRepository categoryRepository) {
+            CategoryRegistry categoryRegistry,
+            UserDataVersionService userDataVersionService) {
         this.personalCPIService = personalCPIService;
         this.officialCPIService = officialCPIService;
         this.cpiComparisonService = cpiComparisonService;
-        this.categoryRepository = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.userDataVersionService = userDataVersionService;
     }
     
     /**
      * Get authenticated user's personal CPI for a specific month
      * GET /api/cpi/personal?year=2024&month=12
+     * Category breakdowns are only built when fields is absent or names "categories".
+     * Answers If-None-Match with 304 while the user's data version is unchanged.
      */
     @GetMapping("/personal")
     public ResponseEntity<?> getPersonalCPI(
             @RequestParam(required = false) Integer year,
-            @RequestParam(required = false) Integer month) {
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Long userId = getAuthenticatedUserId();
+            FieldSelection selection = FieldSelection.parse(fields, PersonalCpiDto.class);
             
             // Default to current month if not specified
             YearMonth targetMonth = (year != null && month != null) 
                     ? YearMonth.of(year, month) 
                     : YearMonth.now();
             
+            // The month is part of the tag because the default target month moves with the calendar
+            String etag = userDataVersionService.etagFor(userId, targetMonth.toString());
+            if (UserDataVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            
             List<PersonalCpiMonthly> data = personalCPIService.getPersonalCPISummary(
                     userId, targetMonth.getYear(), targetMonth.getMonthValue());
             
@@ -77,8 +93,13 @@ public class CPIController {
                         .body(Map.of("error", "No personal CPI data found for " + targetMonth));
             }
             
-            PersonalCpiDto dto = convertToPersonalCpiDto(data);
-            return ResponseEntity.ok(dto);
+            PersonalCpiDto dto = convertToPersonalCpiDto(data, selection);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(dto);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve personal CPI: " + e.getMessage()));
@@ -207,9 +228,9 @@ public class CPIController {
     }
     
     /**
-     * Convert PersonalCpiMonthly list to DTO
+     * Convert PersonalCpiMonthly list to DTO, skipping the category breakdown when it isn't selected
      */
-    private PersonalCpiDto convertToPersonalCpiDto(List<PersonalCpiMonthly> data) {
+    private PersonalCpiDto convertToPersonalCpiDto(List<PersonalCpiMonthly> data, FieldSelection fields) {
         // Find overall data (categoryId is null)
         PersonalCpiMonthly overall = data.stream()
                 .filter(d -> d.getCategoryId() == null)
@@ -220,14 +241,20 @@ public class CPIController {
             throw new IllegalStateException("No overall CPI data found");
         }
         
+        if (!fields.includes("categories")) {
+            return new PersonalCpiDto(
+                    overall.getTotalSpending(),
+                    overall.getMomChangePercent(),
+                    overall.getYoyChangePercent(),
+                    null);
+        }
+        
         // Get category data
         List<CategoryCpiDto> categories = new ArrayList<>();
-        Map<Long, String> categoryNames = categoryRepository.findAll().stream()
-                .collect(Collectors.toMap(Category::getCategoryId, Category::getName));
         
         for (PersonalCpiMonthly categoryData : data) {
             if (categoryData.getCategoryId() != null) {
-                String categoryName = categoryNames.get(categoryData.getCategoryId());
+                String categoryName = categoryRegistry.getName(categoryData.getCategoryId());
                 
                 // Calculate weight percent
                 BigDecimal weightPercent = categoryData.getTotalSpending()
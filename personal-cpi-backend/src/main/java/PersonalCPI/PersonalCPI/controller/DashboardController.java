@@ -0,0 +1,59 @@
+package PersonalCPI.PersonalCPI.controller;
+
+import PersonalCPI.PersonalCPI.dto.DashboardDto;
+import PersonalCPI.PersonalCPI.model.User;
+import PersonalCPI.PersonalCPI.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST Controller for the dashboard, replacing five separate page-load requests
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @Autowired
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    /**
+     * Current month spending, monthly summary, total, recent receipts and CPI comparison in one payload
+     * GET /api/dashboard
+     * Sections that fail, or find no free connection permit in time, are null and listed in "errors";
+     * the response is still 200.
+     */
+    @GetMapping
+    public ResponseEntity<?> getDashboard() {
+        try {
+            Long userId = getAuthenticatedUserId();
+            DashboardDto dashboard = dashboardService.getDashboard(userId);
+            return ResponseEntity.ok(dashboard);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to load dashboard: " + e.getMessage()));
+        }
+    }
+
+    private Long getAuthenticatedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new IllegalStateException("User is not authenticated");
+        }
+
+        User user = (User) authentication.getPrincipal();
+        return user.getId();
+    }
+}
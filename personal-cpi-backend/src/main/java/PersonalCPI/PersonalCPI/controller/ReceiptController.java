@@ -1,15 +1,27 @@
 package PersonalCPI.PersonalCPI.controller;
 
+import PersonalCPI.PersonalCPI.dto.BulkOperationResultDto;
+import PersonalCPI.PersonalCPI.dto.BulkReceiptRequestDto;
+import PersonalCPI.PersonalCPI.dto.BulkReceiptResultDto;
+import PersonalCPI.PersonalCPI.dto.CursorSlice;
+import PersonalCPI.PersonalCPI.dto.ReceiptChangesDto;
 import PersonalCPI.PersonalCPI.dto.MonthlySpendingDto;
 import PersonalCPI.PersonalCPI.dto.ReceiptCreateDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptFilter;
 import PersonalCPI.PersonalCPI.dto.ReceiptResponseDto;
 import PersonalCPI.PersonalCPI.dto.SpendingSummaryDto;
 import PersonalCPI.PersonalCPI.dto.UpdateCategoryDto;
+import PersonalCPI.PersonalCPI.exception.ConflictException;
 import PersonalCPI.PersonalCPI.model.Receipt;
 import PersonalCPI.PersonalCPI.model.User;
 import PersonalCPI.PersonalCPI.service.JwtService;
+import PersonalCPI.PersonalCPI.service.ReceiptBulkService;
+import PersonalCPI.PersonalCPI.service.ReceiptExportService;
 import PersonalCPI.PersonalCPI.service.ReceiptService;
 import PersonalCPI.PersonalCPI.service.S3Service;
+import PersonalCPI.PersonalCPI.service.UserDataVersionService;
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import PersonalCPI.PersonalCPI.util.ReceiptCursor;
 import PersonalCPI.PersonalCPI.validation.FileUploadValidator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -19,8 +31,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -28,9 +43,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -42,12 +59,21 @@ public class ReceiptController {
     private final ReceiptService receiptService;
     private final JwtService jwtService;
     private final S3Service s3Service;
+    private final ReceiptExportService receiptExportService;
+    private final UserDataVersionService userDataVersionService;
+    private final ReceiptBulkService receiptBulkService;
 
     @Autowired
-    public ReceiptController(ReceiptService receiptService, JwtService jwtService, S3Service s3Service) {
+    public ReceiptController(ReceiptService receiptService, JwtService jwtService, S3Service s3Service,
+                             ReceiptExportService receiptExportService,
+                             UserDataVersionService userDataVersionService,
+                             ReceiptBulkService receiptBulkService) {
         this.jwtService = jwtService;
         this.receiptService = receiptService;
         this.s3Service = s3Service;
+        this.receiptExportService = receiptExportService;
+        this.userDataVersionService = userDataVersionService;
+        this.receiptBulkService = receiptBulkService;
     }
 
     // get user id from jwt token
@@ -83,29 +109,113 @@ public class ReceiptController {
         }
     }
 
+    /**
+     * Create up to 500 receipts, with their items, in one request
+     * POST /api/receipts/bulk
+     * Rows are validated individually: valid rows are created and rejected rows are listed by index
+     * in "errors". 201 when every row was created, 200 when some were rejected, 400 when none were created.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createReceipts(@RequestBody List<ReceiptCreateDto> receipts) {
+        try {
+            Long userId = getAuthenticatedUserId();
+            BulkReceiptResultDto result = receiptBulkService.createReceipts(userId, receipts);
+            HttpStatus status = result.getErrors().isEmpty() ? HttpStatus.CREATED
+                    : result.getCreated().isEmpty() ? HttpStatus.BAD_REQUEST
+                    : HttpStatus.OK;
+            return ResponseEntity.status(status).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to bulk create receipts", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to create receipts"));
+        }
+    }
+
+    /**
+     * Delete up to 1000 receipts, with their items and images
+     * POST /api/receipts/bulk/delete  {"receiptIds": [1, 2, 3]}
+     * IDs that do not exist or belong to another user are returned in notFoundReceiptIds.
+     * 409 if another request deleted some of the receipts at the same time; nothing is deleted and it can be retried.
+     */
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<?> deleteReceipts(@RequestBody BulkReceiptRequestDto request) {
+        try {
+            Long userId = getAuthenticatedUserId();
+            BulkOperationResultDto result = receiptBulkService.deleteReceipts(userId, request.getReceiptIds());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to bulk delete receipts", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to delete receipts"));
+        }
+    }
+
+    /**
+     * Move up to 1000 receipts to one category
+     * PATCH /api/receipts/bulk/category  {"receiptIds": [1, 2, 3], "categoryId": 4}
+     * IDs that do not exist or belong to another user are returned in notFoundReceiptIds.
+     */
+    @PatchMapping("/bulk/category")
+    public ResponseEntity<?> updateReceiptCategories(@RequestBody BulkReceiptRequestDto request) {
+        try {
+            Long userId = getAuthenticatedUserId();
+            BulkOperationResultDto result = receiptBulkService.updateCategory(
+                    userId, request.getReceiptIds(), request.getCategoryId());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to bulk update receipt categories", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to update categories"));
+        }
+    }
+
      /**
       * Get all receipts for the authenticated user
       * Supports pagination with optional query parameters:
+      * offset mode (page, size, sortBy, sortDir) or keyset mode (pagination=cursor or cursor, size).
+      * Keyset mode always orders by purchase date then receipt ID, newest first.
+      * Image URLs are omitted unless includeImageUrls=true or fields names imageUrl.
+      * fields (e.g. receiptId,storeName,amount) limits both the response and the work done to build it.
       */
     @GetMapping("/all")
     public ResponseEntity<?> getUserReceipts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "purchaseDate") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "offset") String pagination,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeImageUrls,
+            @RequestParam(required = false) String fields) {
         try {
             Long userId = getAuthenticatedUserId();
+            FieldSelection selection = listSelection(fields, includeImageUrls);
+
+            if (isCursorPagination(pagination, cursor)) {
+                CursorSlice<ReceiptResponseDto> slice =
+                        receiptService.getUserReceiptsAfter(userId, decodeCursor(cursor), size, selection);
+                return ResponseEntity.ok(slice);
+            }
             
             // Create pageable object
             Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
             
             // Get paginated receipts
-            Page<ReceiptResponseDto> receipts = receiptService.getUserReceipts(userId, pageable);
+            Page<ReceiptResponseDto> receipts = receiptService.getUserReceipts(userId, pageable, selection);
             return ResponseEntity.ok(receipts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.out.println("Controller error: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Failed to retrieve receipts", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve receipts"));
         }
@@ -119,12 +229,26 @@ public class ReceiptController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "offset") String pagination,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeImageUrls,
+            @RequestParam(required = false) String fields) {
         try {
             Long userId = getAuthenticatedUserId();
+            FieldSelection selection = listSelection(fields, includeImageUrls);
+
+            if (isCursorPagination(pagination, cursor)) {
+                CursorSlice<ReceiptResponseDto> slice = receiptService.getUserReceiptsByDateRangeAfter(
+                        userId, startDate, endDate, decodeCursor(cursor), size, selection);
+                return ResponseEntity.ok(slice);
+            }
+
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "purchaseDate"));
-            Page<ReceiptResponseDto> receipts = receiptService.getUserReceiptsByDateRange(userId, startDate, endDate, pageable);
+            Page<ReceiptResponseDto> receipts = receiptService.getUserReceiptsByDateRange(userId, startDate, endDate, pageable, selection);
             return ResponseEntity.ok(receipts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve receipts"));
@@ -138,18 +262,162 @@ public class ReceiptController {
     public ResponseEntity<?> getUserReceiptsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "offset") String pagination,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeImageUrls,
+            @RequestParam(required = false) String fields) {
         try {
             Long userId = getAuthenticatedUserId();
+            FieldSelection selection = listSelection(fields, includeImageUrls);
+
+            if (isCursorPagination(pagination, cursor)) {
+                CursorSlice<ReceiptResponseDto> slice = receiptService.getUserReceiptsByCategoryAfter(
+                        userId, categoryId, decodeCursor(cursor), size, selection);
+                return ResponseEntity.ok(slice);
+            }
+
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "purchaseDate"));
-            Page<ReceiptResponseDto> receipts = receiptService.getUserReceiptsByCategory(userId, categoryId, pageable);
+            Page<ReceiptResponseDto> receipts = receiptService.getUserReceiptsByCategory(userId, categoryId, pageable, selection);
             return ResponseEntity.ok(receipts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve receipts"));
         }
     }
 
+    /**
+     * Filter receipts by any combination of criteria (keyset slices, newest first)
+     * GET /api/receipts/filter?categoryIds=1,4&startDate=2025-01-01&endDate=2025-06-30&minAmount=20&storePrefix=cost&hasImage=true
+     * Pass the returned nextCursor as cursor for the next slice.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterReceipts(
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String storePrefix,
+            @RequestParam(required = false) Boolean hasImage,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeImageUrls,
+            @RequestParam(required = false) String fields) {
+        try {
+            Long userId = getAuthenticatedUserId();
+            ReceiptFilter filter = new ReceiptFilter();
+            filter.setCategoryIds(categoryIds);
+            filter.setStartDate(startDate);
+            filter.setEndDate(endDate);
+            filter.setMinAmount(minAmount);
+            filter.setMaxAmount(maxAmount);
+            filter.setStorePrefix(storePrefix);
+            filter.setHasImage(hasImage);
+
+            CursorSlice<ReceiptResponseDto> slice = receiptService.filterReceipts(
+                    userId, filter, decodeCursor(cursor), size, listSelection(fields, includeImageUrls));
+            return ResponseEntity.ok(slice);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Receipt filter failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to filter receipts"));
+        }
+    }
+
+    /**
+     * Search store names and item names
+     * GET /api/receipts/search?q=costco&page=0&size=20
+     * Results are ranked best match first and returned as a slice (no total count).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchReceipts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeImageUrls,
+            @RequestParam(required = false) String fields) {
+        try {
+            Long userId = getAuthenticatedUserId();
+            Slice<ReceiptResponseDto> results = receiptService.searchReceipts(
+                    userId, q, PageRequest.of(page, size), listSelection(fields, includeImageUrls));
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Receipt search failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to search receipts"));
+        }
+    }
+
+    /**
+     * Receipts changed or deleted since the client's last sync
+     * GET /api/receipts/changes?since=<nextToken from the previous call>
+     * Omit "since" on first sync; when resetRequired is true the client reloads all receipts
+     * and continues from nextToken.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "false") boolean includeImageUrls,
+            @RequestParam(required = false) String fields) {
+        try {
+            Long userId = getAuthenticatedUserId();
+            ReceiptChangesDto changes = receiptService.getChangesSince(
+                    userId, since, listSelection(fields, includeImageUrls));
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Receipt sync failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to load receipt changes"));
+        }
+    }
+
+    /**
+     * Export the authenticated user's full receipt history
+     * GET /api/receipts/export?format=ndjson|csv
+     * The body is written a chunk at a time, so memory use does not grow with the history size.
+     * An unsupported format is rejected with 400 by the global exception handler.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReceipts(@RequestParam(defaultValue = "ndjson") String format) {
+        Long userId = getAuthenticatedUserId();
+        ReceiptExportService.Format exportFormat = ReceiptExportService.Format.from(format);
+
+        StreamingResponseBody body = out -> receiptExportService.export(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"receipts." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    // Keyset mode is selected explicitly or implied by a cursor; offset mode stays the default
+    private boolean isCursorPagination(String pagination, String cursor) {
+        return "cursor".equalsIgnoreCase(pagination) || (cursor != null && !cursor.isBlank());
+    }
+
+    // Presigning is opt-in on list endpoints, so imageUrl is dropped unless it was asked for
+    private FieldSelection listSelection(String fields, boolean includeImageUrls) {
+        FieldSelection selection = FieldSelection.parse(fields, ReceiptResponseDto.class);
+        if (includeImageUrls || selection.isExplicitlyRequested("imageUrl")) {
+            return selection;
+        }
+        return selection.without("imageUrl");
+    }
+
+    // A missing cursor means the first slice
+    private ReceiptCursor decodeCursor(String cursor) {
+        return (cursor == null || cursor.isBlank()) ? null : ReceiptCursor.decode(cursor);
+    }
+
     // Get a specific receipt by ID
     @GetMapping("/{receiptId}")
     public ResponseEntity<?> getReceiptById(@PathVariable Long receiptId) {
@@ -226,13 +494,19 @@ public class ReceiptController {
 
     /**
      * Get current month spending by category
+     * The ETag also carries the month, since the same data answers differently once the month rolls over.
      */
     @GetMapping("/summary/current-month")
-    public ResponseEntity<?> getCurrentMonthSpending() {
+    public ResponseEntity<?> getCurrentMonthSpending(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Long userId = getAuthenticatedUserId();
+            String etag = userDataVersionService.etagFor(userId, YearMonth.now().toString());
+            if (UserDataVersionService.matches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
             List<SpendingSummaryDto> summary = receiptService.getCurrentMonthSpendingByCategory(userId);
-            return ResponseEntity.ok(summary);
+            return tagged(etag, summary);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve spending summary"));
@@ -260,11 +534,16 @@ public class ReceiptController {
      * Get monthly spending summary
      */
     @GetMapping("/summary/monthly")
-    public ResponseEntity<?> getMonthlySpending() {
+    public ResponseEntity<?> getMonthlySpending(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Long userId = getAuthenticatedUserId();
+            String etag = userDataVersionService.etagFor(userId);
+            if (UserDataVersionService.matches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
             List<MonthlySpendingDto> summary = receiptService.getMonthlySpendingSummary(userId);
-            return ResponseEntity.ok(summary);
+            return tagged(etag, summary);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve monthly spending summary"));
@@ -273,11 +552,16 @@ public class ReceiptController {
 
     // Get total spending for the user
     @GetMapping("/total")
-    public ResponseEntity<?> getTotalSpending() {
+    public ResponseEntity<?> getTotalSpending(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Long userId = getAuthenticatedUserId();
+            String etag = userDataVersionService.etagFor(userId);
+            if (UserDataVersionService.matches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
             BigDecimal total = receiptService.getTotalSpending(userId);
-            return ResponseEntity.ok(Map.of("totalSpending", total));
+            return tagged(etag, Map.of("totalSpending", total));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve total spending"));
@@ -285,18 +569,45 @@ public class ReceiptController {
     }
 
      // Get recent receipts
+     // Responses with presigned image URLs are not tagged: a 304 would keep serving URLs that have expired
     @GetMapping("/recent")
-    public ResponseEntity<?> getRecentReceipts() {
+    public ResponseEntity<?> getRecentReceipts(@RequestParam(defaultValue = "false") boolean includeImageUrls,
+                                               @RequestParam(required = false) String fields,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Long userId = getAuthenticatedUserId();
-            List<ReceiptResponseDto> receipts = receiptService.getRecentReceipts(userId);
-            return ResponseEntity.ok(receipts);
+            FieldSelection selection = listSelection(fields, includeImageUrls);
+            if (selection.includes("imageUrl")) {
+                return ResponseEntity.ok(receiptService.getRecentReceipts(userId, selection));
+            }
+
+            String etag = userDataVersionService.etagFor(userId);
+            if (UserDataVersionService.matches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            List<ReceiptResponseDto> receipts = receiptService.getRecentReceipts(userId, selection);
+            return tagged(etag, receipts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve recent receipts"));
         }
     }
 
+    // Cached only by the user's own browser and revalidated with If-None-Match on every use
+    private ResponseEntity<?> tagged(String etag, Object body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
+    }
+
+    // 304 answered from the user's data version alone, before any query runs
+    private ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
     public Long getAuthenticatedUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
@@ -305,7 +616,6 @@ public class ReceiptController {
         }
 
         User user = (User) authentication.getPrincipal();
-        System.out.println("User ID: " + user.getId());
         return user.getId();
     }
 
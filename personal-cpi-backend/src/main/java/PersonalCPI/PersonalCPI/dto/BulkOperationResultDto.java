@@ -0,0 +1,20 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk delete or re-categorize. IDs that do not exist or belong to another user
+ * are reported together in notFoundReceiptIds.
+ */
+@Getter
+public class BulkOperationResultDto {
+    private final List<Long> affectedReceiptIds;
+    private final List<Long> notFoundReceiptIds;
+
+    public BulkOperationResultDto(List<Long> affectedReceiptIds, List<Long> notFoundReceiptIds) {
+        this.affectedReceiptIds = affectedReceiptIds;
+        this.notFoundReceiptIds = notFoundReceiptIds;
+    }
+}
@@ -0,0 +1,16 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Receipts targeted by a bulk delete or re-categorize; categoryId is only used by the latter.
+ */
+@Getter
+@Setter
+public class BulkReceiptRequestDto {
+    private List<Long> receiptIds;
+    private Long categoryId;
+}
@@ -0,0 +1,24 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk receipt request. Rows are identified by their index in the request;
+ * valid rows are created even when others are rejected.
+ */
+@Getter
+public class BulkReceiptResultDto {
+    private final List<Created> created;
+    private final List<RowError> errors;
+
+    public BulkReceiptResultDto(List<Created> created, List<RowError> errors) {
+        this.created = created;
+        this.errors = errors;
+    }
+
+    public record Created(int index, Long receiptId) {}
+
+    public record RowError(int index, List<String> errors) {}
+}
@@ -0,0 +1,24 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing.
+ * Unlike a Page it carries no total count; clients follow nextCursor until hasNext is false.
+ */
+@Getter
+public class CursorSlice<T> {
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+}
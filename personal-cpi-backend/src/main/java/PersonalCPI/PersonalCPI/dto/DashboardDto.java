@@ -0,0 +1,25 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import PersonalCPI.PersonalCPI.service.CPIComparisonService;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combined payload for the dashboard. A section that failed is left null and its
+ * message is reported under the section name in errors; the other sections are unaffected.
+ */
+@Getter
+@Setter
+public class DashboardDto {
+    private List<SpendingSummaryDto> currentMonthSpending;
+    private List<MonthlySpendingDto> monthlySpending;
+    private BigDecimal totalSpending;
+    private List<ReceiptResponseDto> recentReceipts;
+    private CPIComparisonService.ComparisonResult cpiComparison;
+    private Map<String, String> errors = new LinkedHashMap<>();
+}
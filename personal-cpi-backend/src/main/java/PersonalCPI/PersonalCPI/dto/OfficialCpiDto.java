@@ -1,10 +1,14 @@
 package PersonalCPI.PersonalCPI.dto;
 
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.math.BigDecimal;
 
 /**
  * DTO for Official CPI response
  */
+@JsonFilter(FieldSelection.FILTER_ID)
 public class OfficialCpiDto {
     private BigDecimal indexValue;
     private BigDecimal momChangePercent;
@@ -1,11 +1,15 @@
 package PersonalCPI.PersonalCPI.dto;
 
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.math.BigDecimal;
 import java.util.List;
 
 /**
  * DTO for Personal CPI response
  */
+@JsonFilter(FieldSelection.FILTER_ID)
 public class PersonalCpiDto {
     private BigDecimal totalSpending;
     private BigDecimal momChangePercent;
@@ -0,0 +1,9 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * ID, amount and image key of a receipt selected for a bulk operation.
+ */
+public record ReceiptBulkTarget(Long receiptId, BigDecimal amount, String imageKey) {
+}
@@ -0,0 +1,31 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Receipts changed or deleted since a client's last sync token.
+ * Changed receipts carry their full item list, so clients replace them wholesale.
+ * When resetRequired is true the lists are empty and the client must discard its cache,
+ * reload all receipts, then continue from nextToken.
+ */
+@Getter
+public class ReceiptChangesDto {
+    private final List<ReceiptResponseDto> changed;
+    private final List<Long> deletedReceiptIds;
+    private final String nextToken;
+    private final boolean resetRequired;
+
+    public ReceiptChangesDto(List<ReceiptResponseDto> changed, List<Long> deletedReceiptIds, String nextToken,
+                             boolean resetRequired) {
+        this.changed = changed;
+        this.deletedReceiptIds = deletedReceiptIds;
+        this.nextToken = nextToken;
+        this.resetRequired = resetRequired;
+    }
+
+    public static ReceiptChangesDto reset(String nextToken) {
+        return new ReceiptChangesDto(List.of(), List.of(), nextToken, true);
+    }
+}
@@ -0,0 +1,51 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Combination of receipt filters; null fields are not applied.
+ * Results are always ordered by purchase date then receipt ID, newest first, which is the column order of
+ * idx_receipts_user_date_id and idx_receipts_user_category_date, so either index serves the keyset directly.
+ */
+@Getter
+@Setter
+public class ReceiptFilter {
+    private List<Long> categoryIds;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String storePrefix;
+    private Boolean hasImage;
+
+    /**
+     * A single category is an equality on the category index; several fall back to the date index.
+     */
+    public boolean isSingleCategory() {
+        return categoryIds != null && categoryIds.size() == 1;
+    }
+
+    public boolean hasDateRange() {
+        return startDate != null && endDate != null;
+    }
+
+    /**
+     * Whether any filter is checked row by row during the index scan rather than bounding it.
+     */
+    public boolean hasResidualPredicates() {
+        return minAmount != null || maxAmount != null || storePrefix != null || hasImage != null
+                || (categoryIds != null && categoryIds.size() > 1);
+    }
+
+    /**
+     * Index whose leading columns match this filter.
+     */
+    public String drivingIndex() {
+        return isSingleCategory() ? "idx_receipts_user_category_date" : "idx_receipts_user_date_id";
+    }
+}
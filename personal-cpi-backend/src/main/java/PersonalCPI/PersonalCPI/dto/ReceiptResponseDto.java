@@ -1,5 +1,7 @@
 package PersonalCPI.PersonalCPI.dto;
 
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -8,6 +10,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+@JsonFilter(FieldSelection.FILTER_ID)
 @Getter
 @Setter
 public class ReceiptResponseDto {
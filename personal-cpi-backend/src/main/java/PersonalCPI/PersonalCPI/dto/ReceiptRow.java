@@ -0,0 +1,33 @@
+package PersonalCPI.PersonalCPI.dto;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only receipt row produced by JPQL constructor expressions.
+ * Never attached to a persistence context, so list endpoints skip entity hydration and dirty-check snapshots.
+ */
+@Getter
+public class ReceiptRow {
+    private final Long receiptId;
+    private final String storeName;
+    private final LocalDate purchaseDate;
+    private final Long categoryId;
+    private final BigDecimal amount;
+    private final LocalDateTime createdAt;
+    private final String imageKey;
+
+    public ReceiptRow(Long receiptId, String storeName, LocalDate purchaseDate, Long categoryId,
+                      BigDecimal amount, LocalDateTime createdAt, String imageKey) {
+        this.receiptId = receiptId;
+        this.storeName = storeName;
+        this.purchaseDate = purchaseDate;
+        this.categoryId = categoryId;
+        this.amount = amount;
+        this.createdAt = createdAt;
+        this.imageKey = imageKey;
+    }
+}
@@ -0,0 +1,7 @@
+package PersonalCPI.PersonalCPI.dto;
+
+/**
+ * A receipt matching a search query, with its relevance score (higher is better).
+ */
+public record ReceiptSearchHit(Long receiptId, double rank) {
+}
@@ -0,0 +1,10 @@
+package PersonalCPI.PersonalCPI.exception;
+
+/**
+ * Thrown when a write lost a race with another request and should be retried; answered with 409.
+ */
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package PersonalCPI.PersonalCPI.exception;
+
+/**
+ * Thrown when a bounded resource can't take more work right now; answered with 503 and Retry-After.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
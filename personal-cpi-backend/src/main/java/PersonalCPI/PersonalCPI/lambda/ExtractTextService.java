@@ -162,8 +162,10 @@ public class ExtractTextService {
         // Parse price
         BigDecimal price = ReceiptDataParser.parseAmount(extractedItem.getPrice())
             .orElse(BigDecimal.ZERO);
-        logger.info("Parsed price for '{}': raw='{}' -> parsed={}", 
-            extractedItem.getName(), extractedItem.getPrice(), price);
+        logger.atDebug().addKeyValue("item", extractedItem.getName())
+            .addKeyValue("rawPrice", extractedItem.getPrice())
+            .addKeyValue("price", price)
+            .log("Parsed item price");
         item.setUnitPrice(price);
 
         return item;
@@ -191,7 +193,8 @@ public class ExtractTextService {
             confidenceMap.put(type, confidence);
             
             // Log all fields for debugging (DEBUG level for production)
-            logger.debug("Textract field: {} = '{}' (confidence: {}%)", type, value, String.format("%.2f", confidence));
+            logger.atDebug().addKeyValue("field", type).addKeyValue("value", value)
+                .addKeyValue("confidence", confidence).log("Textract field");
             
             // Map fields based on type
             if (isConfidenceAcceptable(confidence)) {
@@ -209,7 +212,8 @@ public class ExtractTextService {
                 }
             } else {
                 requiresReview = true;
-                logger.warn("Low confidence for field: {} (confidence: {}%)", type, String.format("%.2f", confidence));
+                logger.atWarn().addKeyValue("field", type).addKeyValue("confidence", confidence)
+                    .log("Low confidence for field");
             }
         }
 
@@ -255,8 +259,8 @@ public class ExtractTextService {
                             case "ITEM" -> item.setName(value);
                             case "QUANTITY" -> item.setQuantity(value);
                             case "PRICE" -> {
-                                logger.info("Raw Textract PRICE value: '{}' (confidence: {}%)", 
-                                    value, String.format("%.2f", confidence));
+                                logger.atDebug().addKeyValue("value", value).addKeyValue("confidence", confidence)
+                                    .log("Raw Textract PRICE value");
                                 item.setPrice(value);
                             }
                         }
@@ -271,8 +275,8 @@ public class ExtractTextService {
                 if (avgConfidence >= mediumConfidence && item.getName() != null) {
                     items.add(item);
                 } else {
-                    logger.debug("Skipping line item due to low confidence or missing name: {}%", 
-                        String.format("%.2f", avgConfidence));
+                    logger.atDebug().addKeyValue("confidence", avgConfidence)
+                        .log("Skipping line item due to low confidence or missing name");
                 }
             }
         }
@@ -8,6 +8,7 @@ import java.io.Serializable;
 
 @Entity
 @Table(name="categories")
+@EntityListeners(CategoryEntityListener.class)
 @Setter
 @Getter
 public class Category implements Serializable {
@@ -0,0 +1,29 @@
+package PersonalCPI.PersonalCPI.model;
+
+import PersonalCPI.PersonalCPI.service.CategoryRegistry;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Signals the CategoryRegistry to reload whenever a category is written through JPA.
+ * Instantiated by Hibernate through Spring's bean container, so constructor injection works.
+ */
+public class CategoryEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public CategoryEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCategoryChanged(Category category) {
+        eventPublisher.publishEvent(new CategoryRegistry.CategoriesChangedEvent());
+    }
+}
@@ -0,0 +1,60 @@
+package PersonalCPI.PersonalCPI.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email to send, written in the same transaction as the signup or resend that produced it.
+ * Drained by EmailOutboxService; the row is removed once the SMTP server accepts the message.
+ */
+@Entity
+@Table(name = "email_outbox")
+@Getter
+@Setter
+public class EmailOutboxEntry implements OutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "email_id")
+    private Long emailId;
+
+    @Column(name = "recipient", nullable = false, length = 320)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false, length = 255)
+    private String subject;
+
+    @Column(name = "html_body", nullable = false, columnDefinition = "TEXT")
+    private String htmlBody;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public EmailOutboxEntry() {
+    }
+
+    public EmailOutboxEntry(String recipient, String subject, String htmlBody, LocalDateTime now) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.htmlBody = htmlBody;
+        this.nextAttemptAt = now;
+        this.createdAt = now;
+    }
+
+    @Override
+    public Long getId() {
+        return emailId;
+    }
+}
@@ -0,0 +1,24 @@
+package PersonalCPI.PersonalCPI.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of a transactional outbox table: the attempt count, when it is next due and why it last failed.
+ * Claimed, retried and removed by OutboxDrainer.
+ */
+public interface OutboxEntry {
+
+    Long getId();
+
+    int getAttempts();
+
+    void setAttempts(int attempts);
+
+    LocalDateTime getNextAttemptAt();
+
+    void setNextAttemptAt(LocalDateTime nextAttemptAt);
+
+    String getLastError();
+
+    void setLastError(String lastError);
+}
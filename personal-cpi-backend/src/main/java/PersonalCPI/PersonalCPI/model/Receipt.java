@@ -29,7 +29,7 @@ public class Receipt {
     @Column(name = "store_name")
     private String storeName = "";
 
-    @Column(name = "purchase_date")
+    @Column(name = "purchase_date", nullable = false)
     private LocalDate purchaseDate = LocalDate.now();
 
     @Column(name = "category_id")
@@ -45,6 +45,10 @@ public class Receipt {
     @Column(name = "image_key", length = 500)
     private String imageKey;
 
+    // Last change to the receipt or any of its items; drives delta sync
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     // Foreign key relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
@@ -143,6 +147,12 @@ public class Receipt {
         if (storeName == null) {
             storeName = "";
         }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
 
@@ -0,0 +1,41 @@
+package PersonalCPI.PersonalCPI.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted receipt, kept so syncing clients can drop it from their offline cache.
+ * Tombstones older than the sync retention window are purged; clients that last synced
+ * before then must resynchronise from scratch.
+ */
+@Entity
+@Table(name = "receipt_tombstones")
+@Getter
+@Setter
+public class ReceiptTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "tombstone_id")
+    private Long tombstoneId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "receipt_id", nullable = false)
+    private Long receiptId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public ReceiptTombstone() {}
+
+    public ReceiptTombstone(Long userId, Long receiptId, LocalDateTime deletedAt) {
+        this.userId = userId;
+        this.receiptId = receiptId;
+        this.deletedAt = deletedAt;
+    }
+}
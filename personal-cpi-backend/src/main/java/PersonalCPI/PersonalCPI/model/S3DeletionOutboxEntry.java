@@ -0,0 +1,43 @@
+package PersonalCPI.PersonalCPI.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An S3 object to delete, written in the same transaction as the receipt delete that orphaned it.
+ * Drained by S3DeletionOutboxService; the row is removed once S3 confirms the deletion.
+ */
+@Entity
+@Table(name = "s3_deletion_outbox")
+@Getter
+@Setter
+public class S3DeletionOutboxEntry implements OutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @Column(name = "object_key", nullable = false, length = 500)
+    private String objectKey;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public Long getId() {
+        return outboxId;
+    }
+}
@@ -0,0 +1,24 @@
+package PersonalCPI.PersonalCPI.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Per-user data version behind ETags and the spending summary cache.
+ * Incremented in the same transaction as every write to the user's receipts, items or personal CPI,
+ * so all replicas see the new version exactly when they see the new data.
+ */
+@Entity
+@Table(name = "user_data_versions")
+@Getter
+@Setter
+public class UserDataVersion {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "data_version", nullable = false)
+    private Long dataVersion = 0L;
+}
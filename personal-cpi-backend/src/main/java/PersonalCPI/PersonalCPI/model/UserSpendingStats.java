@@ -0,0 +1,40 @@
+package PersonalCPI.PersonalCPI.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user running totals over the receipts table.
+ * Maintained with deltas in the same transaction as each receipt write, so totals, counts
+ * and the purchase date range can be read without aggregating the user's receipts.
+ */
+@Entity
+@Table(name = "user_spending_stats")
+@Getter
+@Setter
+public class UserSpendingStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "receipt_count", nullable = false)
+    private Long receiptCount = 0L;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "first_purchase_date")
+    private LocalDate firstPurchaseDate;
+
+    @Column(name = "last_purchase_date")
+    private LocalDate lastPurchaseDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,56 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.model.EmailOutboxEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntry, Long> {
+
+    /**
+     * Lock emails that are due and have attempts left, oldest first, skipping rows another instance holds.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutboxEntry e " +
+           "WHERE e.nextAttemptAt <= :now AND e.attempts < :maxAttempts " +
+           "ORDER BY e.nextAttemptAt")
+    List<EmailOutboxEntry> findDueForUpdate(@Param("now") LocalDateTime now,
+                                            @Param("maxAttempts") int maxAttempts,
+                                            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutboxEntry e WHERE e.emailId IN :emailIds")
+    int deleteByEmailIdIn(@Param("emailIds") Collection<Long> emailIds);
+
+    // Drop unsent emails that a newer one replaces, e.g. an older verification code
+    @Modifying
+    @Query("DELETE FROM EmailOutboxEntry e WHERE e.recipient = :recipient AND e.subject = :subject")
+    int deleteByRecipientAndSubject(@Param("recipient") String recipient, @Param("subject") String subject);
+
+    /**
+     * Push a failed email back for retry. An update rather than a merge, so an email deleted while it
+     * was being sent (superseded by a newer one) stays deleted instead of being inserted again.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxEntry e SET e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError " +
+           "WHERE e.emailId = :emailId")
+    int reschedule(@Param("emailId") Long emailId,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    // Emails still waiting to be sent, for the backlog gauge
+    long countByAttemptsLessThan(int maxAttempts);
+}
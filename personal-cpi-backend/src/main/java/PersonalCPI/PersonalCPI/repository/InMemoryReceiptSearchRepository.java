@@ -0,0 +1,127 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.dto.ReceiptSearchHit;
+import PersonalCPI.PersonalCPI.service.UserDataVersionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-process inverted index for databases without full-text search (H2 in tests, local runs).
+ * Each user's index is built from their receipts on first search and dropped when their data changes.
+ * Query terms are ANDed; a term matches an indexed word exactly or as a prefix, the latter at half weight.
+ */
+@Repository
+@ConditionalOnProperty(name = "receipts.search.backend", havingValue = "memory")
+public class InMemoryReceiptSearchRepository implements ReceiptSearchRepository {
+
+    static final double STORE_WEIGHT = 2.0;
+    static final double ITEM_WEIGHT = 1.0;
+    static final double PREFIX_FACTOR = 0.5;
+
+    private final ReceiptRowRepository receiptRowRepository;
+    private final Cache<Long, NavigableMap<String, Map<Long, Double>>> indexes = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    @Autowired
+    public InMemoryReceiptSearchRepository(ReceiptRowRepository receiptRowRepository) {
+        this.receiptRowRepository = receiptRowRepository;
+    }
+
+    @Override
+    public List<ReceiptSearchHit> search(Long userId, String query, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        NavigableMap<String, Map<Long, Double>> index = indexes.get(userId, this::buildIndex);
+
+        Map<Long, Double> scores = null;
+        for (String term : terms) {
+            Map<Long, Double> termScores = scoreTerm(index, term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((receiptId, score) -> score + termScores.get(receiptId));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return scores.entrySet().stream()
+                .map(entry -> new ReceiptSearchHit(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(ReceiptSearchHit::rank).reversed()
+                        .thenComparing(ReceiptSearchHit::receiptId, Comparator.reverseOrder()))
+                .skip(offset)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Drop a user's index once their receipts or items change; the next search rebuilds it.
+     */
+    @EventListener
+    public void onUserDataChanged(UserDataVersionService.UserDataChangedEvent event) {
+        indexes.invalidate(event.userId());
+    }
+
+    // Best weight per receipt among the indexed words the term equals or prefixes
+    private Map<Long, Double> scoreTerm(NavigableMap<String, Map<Long, Double>> index, String term) {
+        Map<Long, Double> termScores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Double>> word : index.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            double factor = word.getKey().equals(term) ? 1.0 : PREFIX_FACTOR;
+            word.getValue().forEach((receiptId, weight) -> termScores.merge(receiptId, weight * factor, Math::max));
+        }
+        return termScores;
+    }
+
+    private NavigableMap<String, Map<Long, Double>> buildIndex(Long userId) {
+        NavigableMap<String, Map<Long, Double>> index = new TreeMap<>();
+        for (ReceiptRow row : receiptRowRepository.findRowsByUserId(userId)) {
+            addPostings(index, row.getReceiptId(), row.getStoreName(), STORE_WEIGHT);
+        }
+        for (ReceiptItemDto item : receiptRowRepository.findItemRowsByUserId(userId)) {
+            addPostings(index, item.getReceiptId(), item.getItemName(), ITEM_WEIGHT);
+        }
+        return index;
+    }
+
+    private static void addPostings(NavigableMap<String, Map<Long, Double>> index, Long receiptId, String text,
+                                    double weight) {
+        for (String word : tokenize(text)) {
+            index.computeIfAbsent(word, w -> new HashMap<>()).merge(receiptId, weight, Math::max);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,59 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptSearchHit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Search backed by the GIN indexes in schema.sql: to_tsvector('english', ...) for stemmed word matches
+ * ("diaper" finds "Diapers") and pg_trgm for partial or misspelled names ("costc" finds "COSTCO WHOLESALE").
+ * Store and item matches are ranked together and collapsed to one hit per receipt; store names weigh double.
+ */
+@Repository
+@ConditionalOnProperty(name = "receipts.search.backend", havingValue = "postgres", matchIfMissing = true)
+public class PostgresReceiptSearchRepository implements ReceiptSearchRepository {
+
+    private static final String SEARCH_SQL =
+            "SELECT hits.receipt_id, MAX(hits.rank) AS rank FROM (" +
+            "  SELECT r.receipt_id, " +
+            "         2 * ts_rank(to_tsvector('english', coalesce(r.store_name, '')), q.query) " +
+            "           + word_similarity(:text, coalesce(r.store_name, '')) AS rank " +
+            "  FROM receipts r, websearch_to_tsquery('english', :text) q(query) " +
+            "  WHERE r.user_id = :userId " +
+            "    AND (to_tsvector('english', coalesce(r.store_name, '')) @@ q.query OR :text <% r.store_name) " +
+            "  UNION ALL " +
+            "  SELECT i.receipt_id, " +
+            "         ts_rank(to_tsvector('english', i.item_name), q.query) " +
+            "           + word_similarity(:text, i.item_name) AS rank " +
+            "  FROM receipt_items i JOIN receipts r ON r.receipt_id = i.receipt_id, " +
+            "       websearch_to_tsquery('english', :text) q(query) " +
+            "  WHERE r.user_id = :userId " +
+            "    AND (to_tsvector('english', i.item_name) @@ q.query OR :text <% i.item_name) " +
+            ") hits " +
+            "GROUP BY hits.receipt_id " +
+            "ORDER BY rank DESC, hits.receipt_id DESC " +
+            "LIMIT :limit OFFSET :offset";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PostgresReceiptSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<ReceiptSearchHit> search(Long userId, String query, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("text", query)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+        return jdbcTemplate.query(SEARCH_SQL, params,
+                (rs, rowNum) -> new ReceiptSearchHit(rs.getLong("receipt_id"), rs.getDouble("rank")));
+    }
+}
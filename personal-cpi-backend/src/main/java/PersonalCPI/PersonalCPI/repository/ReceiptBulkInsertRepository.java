@@ -0,0 +1,136 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptCreateDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch inserts for bulk receipt operations.
+ * Receipts, items, tombstones and S3 deletion outbox rows all use IDENTITY keys, which stops Hibernate
+ * from batching their inserts, so bulk writes bypass the entity layer: receipts go out as one batch that
+ * returns the generated IDs, the rest as batches of {@link #ITEM_BATCH_SIZE}. The datasource sets the
+ * PostgreSQL driver's reWriteBatchedInserts (application.properties), which sends each batch as multi-row
+ * INSERTs instead of one statement per row.
+ */
+@Repository
+public class ReceiptBulkInsertRepository {
+
+    static final int ITEM_BATCH_SIZE = 500;
+
+    private static final String INSERT_RECEIPT_SQL =
+            "INSERT INTO receipts (user_id, store_name, purchase_date, category_id, amount, created_at, image_key, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TOMBSTONE_SQL =
+            "INSERT INTO receipt_tombstones (user_id, receipt_id, deleted_at) VALUES (?, ?, ?)";
+
+    private static final String INSERT_S3_DELETION_SQL =
+            "INSERT INTO s3_deletion_outbox (object_key, attempts, next_attempt_at, created_at) VALUES (?, 0, ?, ?)";
+
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO receipt_items (receipt_id, item_name, quantity, unit_price, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ReceiptBulkInsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert receipts for one user in a single batch. Defaults match the Receipt entity.
+     * @return generated receipt IDs, in the order of the given receipts
+     */
+    public List<Long> insertReceipts(Long userId, List<ReceiptCreateDto> receipts, LocalDateTime now) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_RECEIPT_SQL, new String[] {"receipt_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ReceiptCreateDto receipt = receipts.get(i);
+                        ps.setLong(1, userId);
+                        ps.setString(2, receipt.getStoreName() != null ? receipt.getStoreName() : "");
+                        ps.setObject(3, receipt.getPurchaseDate() != null ? receipt.getPurchaseDate() : now.toLocalDate());
+                        ps.setObject(4, receipt.getCategoryId(), Types.BIGINT);
+                        ps.setBigDecimal(5, receipt.getAmount());
+                        ps.setObject(6, now);
+                        ps.setString(7, receipt.getImageKey());
+                        ps.setObject(8, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return receipts.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != receipts.size()) {
+            throw new IllegalStateException("Expected " + receipts.size() + " generated receipt IDs, got " + keys.size());
+        }
+        List<Long> receiptIds = new ArrayList<>(keys.size());
+        for (Map<String, Object> row : keys) {
+            receiptIds.add(((Number) row.values().iterator().next()).longValue());
+        }
+        return receiptIds;
+    }
+
+    /**
+     * Insert items whose receiptId is already set, in batches of {@link #ITEM_BATCH_SIZE}.
+     */
+    public void insertItems(List<ReceiptItemDto> items, LocalDateTime now) {
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items, ITEM_BATCH_SIZE, (ps, item) -> {
+            ps.setLong(1, item.getReceiptId());
+            ps.setString(2, item.getItemName());
+            ps.setObject(3, item.getQuantity(), Types.INTEGER);
+            ps.setBigDecimal(4, item.getUnitPrice());
+            ps.setObject(5, now);
+        });
+    }
+
+    /**
+     * Record deleted receipts for delta sync, in batches of {@link #ITEM_BATCH_SIZE}.
+     */
+    public void insertTombstones(Long userId, List<Long> receiptIds, LocalDateTime deletedAt) {
+        if (receiptIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TOMBSTONE_SQL, receiptIds, ITEM_BATCH_SIZE, (ps, receiptId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, receiptId);
+            ps.setObject(3, deletedAt);
+        });
+    }
+
+    /**
+     * Queue S3 objects for the deletion outbox, due immediately, in batches of {@link #ITEM_BATCH_SIZE}.
+     */
+    public void insertS3Deletions(List<String> objectKeys, LocalDateTime now) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_S3_DELETION_SQL, objectKeys, ITEM_BATCH_SIZE, (ps, objectKey) -> {
+            ps.setString(1, objectKey);
+            ps.setObject(2, now);
+            ps.setObject(3, now);
+        });
+    }
+}
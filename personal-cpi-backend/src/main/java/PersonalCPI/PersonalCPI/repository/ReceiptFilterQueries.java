@@ -0,0 +1,20 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptFilter;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria-built receipt filtering, mixed into {@link ReceiptRowRepository}.
+ */
+public interface ReceiptFilterQueries {
+
+    /**
+     * Keyset slice of a user's receipts matching the filter, strictly after the cursor position,
+     * as one SQL statement.
+     */
+    Slice<ReceiptRow> findSliceByFilter(Long userId, ReceiptFilter filter,
+                                        LocalDate afterPurchaseDate, Long afterReceiptId, int size);
+}
@@ -0,0 +1,93 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptFilter;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.model.Receipt;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the filter query with the Criteria API. The user and category equalities and the date
+ * bounds come first, matching the leading index columns; everything else is a residual predicate.
+ */
+public class ReceiptFilterQueriesImpl implements ReceiptFilterQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<ReceiptRow> findSliceByFilter(Long userId, ReceiptFilter filter,
+                                               LocalDate afterPurchaseDate, Long afterReceiptId, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReceiptRow> query = cb.createQuery(ReceiptRow.class);
+        Root<Receipt> r = query.from(Receipt.class);
+        Path<LocalDate> purchaseDate = r.get("purchaseDate");
+        Path<Long> receiptId = r.get("receiptId");
+        Path<BigDecimal> amount = r.get("amount");
+        Path<String> imageKey = r.get("imageKey");
+
+        query.select(cb.construct(ReceiptRow.class,
+                receiptId, r.get("storeName"), purchaseDate, r.get("categoryId"), amount, r.get("createdAt"), imageKey));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(r.get("userId"), userId));
+        if (filter.isSingleCategory()) {
+            predicates.add(cb.equal(r.get("categoryId"), filter.getCategoryIds().get(0)));
+        } else if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+            predicates.add(r.get("categoryId").in(filter.getCategoryIds()));
+        }
+        if (filter.getStartDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(purchaseDate, filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            predicates.add(cb.lessThanOrEqualTo(purchaseDate, filter.getEndDate()));
+        }
+        predicates.add(cb.or(
+                cb.lessThan(purchaseDate, afterPurchaseDate),
+                cb.and(cb.equal(purchaseDate, afterPurchaseDate), cb.lessThan(receiptId, afterReceiptId))));
+
+        if (filter.getMinAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(amount, filter.getMinAmount()));
+        }
+        if (filter.getMaxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(amount, filter.getMaxAmount()));
+        }
+        if (filter.getStorePrefix() != null) {
+            predicates.add(cb.like(cb.lower(r.get("storeName")),
+                    escapeLike(filter.getStorePrefix().toLowerCase(Locale.ROOT)) + "%", '\\'));
+        }
+        if (filter.getHasImage() != null) {
+            predicates.add(filter.getHasImage()
+                    ? cb.and(cb.isNotNull(imageKey), cb.notEqual(imageKey, ""))
+                    : cb.or(cb.isNull(imageKey), cb.equal(imageKey, "")));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.desc(purchaseDate), cb.desc(receiptId));
+
+        // One extra row tells whether another slice follows, without a COUNT
+        List<ReceiptRow> rows = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -2,8 +2,12 @@ package PersonalCPI.PersonalCPI.repository;
 
 import PersonalCPI.PersonalCPI.model.ReceiptItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,4 +21,9 @@ public interface ReceiptItemRepository extends JpaRepository<ReceiptItem, Long>
     void deleteByReceiptId(Long receiptId);
 
     long countByReceiptId(Long receiptId);
+
+    // One statement for all items of a batch of receipts, instead of a load-then-delete per receipt
+    @Modifying
+    @Query("DELETE FROM ReceiptItem i WHERE i.receiptId IN :receiptIds")
+    int deleteByReceiptIdIn(@Param("receiptIds") Collection<Long> receiptIds);
 }
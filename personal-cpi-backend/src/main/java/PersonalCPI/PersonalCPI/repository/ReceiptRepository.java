@@ -1,14 +1,18 @@
 package PersonalCPI.PersonalCPI.repository;
 
+import PersonalCPI.PersonalCPI.dto.ReceiptBulkTarget;
 import PersonalCPI.PersonalCPI.model.Receipt;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -102,6 +106,35 @@ public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
            "ORDER BY r.purchaseDate DESC")
     Page<Receipt> findByUserIdOrderByPurchaseDateDesc(Long userId, Pageable pageable);
 
+    /**
+     * ID, amount and image key of the given receipts that belong to the user, for bulk operations.
+     */
+    @Query("SELECT new PersonalCPI.PersonalCPI.dto.ReceiptBulkTarget(r.receiptId, r.amount, r.imageKey) " +
+           "FROM Receipt r WHERE r.userId = :userId AND r.receiptId IN :receiptIds")
+    List<ReceiptBulkTarget> findBulkTargets(@Param("userId") Long userId,
+                                   @Param("receiptIds") Collection<Long> receiptIds);
+
+    /**
+     * Delete the given receipts in one statement; receipts of other users are left alone.
+     * @return number of receipts deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Receipt r WHERE r.userId = :userId AND r.receiptId IN :receiptIds")
+    int deleteByUserIdAndReceiptIdIn(@Param("userId") Long userId,
+                                     @Param("receiptIds") Collection<Long> receiptIds);
+
+    /**
+     * Move the given receipts to a category in one statement; receipts of other users are left alone.
+     * @return number of receipts updated
+     */
+    @Modifying
+    @Query("UPDATE Receipt r SET r.categoryId = :categoryId, r.updatedAt = :updatedAt " +
+           "WHERE r.userId = :userId AND r.receiptId IN :receiptIds")
+    int updateCategoryByUserIdAndReceiptIdIn(@Param("userId") Long userId,
+                                             @Param("receiptIds") Collection<Long> receiptIds,
+                                             @Param("categoryId") Long categoryId,
+                                             @Param("updatedAt") LocalDateTime updatedAt);
+
     /**
      * Paginated date range query
      */
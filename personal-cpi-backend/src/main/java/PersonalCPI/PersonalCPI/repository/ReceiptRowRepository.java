@@ -0,0 +1,180 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.model.Receipt;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only query layer for receipt listings.
+ * Every query is a JPQL constructor expression, so results are plain DTOs rather than managed entities.
+ */
+@org.springframework.stereotype.Repository
+public interface ReceiptRowRepository extends Repository<Receipt, Long>, ReceiptFilterQueries {
+
+    // Category names are resolved from CategoryRegistry, so no join is needed
+    String ROW_SELECT = "SELECT new PersonalCPI.PersonalCPI.dto.ReceiptRow(" +
+            "r.receiptId, r.storeName, r.purchaseDate, r.categoryId, r.amount, r.createdAt, r.imageKey) " +
+            "FROM Receipt r ";
+
+    // All receipts for a user, newest first
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId " +
+           "ORDER BY r.purchaseDate DESC, r.receiptId DESC")
+    List<ReceiptRow> findRowsByUserId(@Param("userId") Long userId);
+
+    // Paginated receipts for a user
+    @Query(value = ROW_SELECT +
+                   "WHERE r.userId = :userId " +
+                   "ORDER BY r.purchaseDate DESC",
+           countQuery = "SELECT COUNT(r) FROM Receipt r WHERE r.userId = :userId")
+    Page<ReceiptRow> findRowPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // One page of receipts without the COUNT query; the total comes from user_spending_stats
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId " +
+           "ORDER BY r.purchaseDate DESC")
+    List<ReceiptRow> findRowsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Receipts in a date range
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId " +
+           "AND r.purchaseDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY r.purchaseDate DESC, r.receiptId DESC")
+    List<ReceiptRow> findRowsByUserIdAndPurchaseDateBetween(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    // Paginated receipts in a date range
+    @Query(value = ROW_SELECT +
+                   "WHERE r.userId = :userId " +
+                   "AND r.purchaseDate BETWEEN :startDate AND :endDate " +
+                   "ORDER BY r.purchaseDate DESC",
+           countQuery = "SELECT COUNT(r) FROM Receipt r WHERE r.userId = :userId " +
+                        "AND r.purchaseDate BETWEEN :startDate AND :endDate")
+    Page<ReceiptRow> findRowPageByUserIdAndPurchaseDateBetween(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable);
+
+    // Receipts in a category
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId " +
+           "AND r.categoryId = :categoryId " +
+           "ORDER BY r.purchaseDate DESC, r.receiptId DESC")
+    List<ReceiptRow> findRowsByUserIdAndCategoryId(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId);
+
+    // Paginated receipts in a category
+    @Query(value = ROW_SELECT +
+                   "WHERE r.userId = :userId " +
+                   "AND r.categoryId = :categoryId " +
+                   "ORDER BY r.purchaseDate DESC",
+           countQuery = "SELECT COUNT(r) FROM Receipt r WHERE r.userId = :userId " +
+                        "AND r.categoryId = :categoryId")
+    Page<ReceiptRow> findRowPageByUserIdAndCategoryId(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            Pageable pageable);
+
+    // Most recently created receipts; the Pageable carries the limit
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId " +
+           "ORDER BY r.createdAt DESC")
+    List<ReceiptRow> findRecentRowsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset (seek) pagination: no OFFSET scan and no COUNT query.
+    // The (purchaseDate, receiptId) predicate lets idx_receipts_user_date_id start at the cursor.
+    // purchase_date is NOT NULL, so the comparisons never drop rows.
+    /**
+     * Slice of a user's receipts strictly after the given cursor position.
+     */
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId " +
+           "AND (r.purchaseDate < :purchaseDate " +
+           "OR (r.purchaseDate = :purchaseDate AND r.receiptId < :receiptId)) " +
+           "ORDER BY r.purchaseDate DESC, r.receiptId DESC")
+    Slice<ReceiptRow> findSliceByUserIdAfter(
+            @Param("userId") Long userId,
+            @Param("purchaseDate") LocalDate purchaseDate,
+            @Param("receiptId") Long receiptId,
+            Pageable pageable);
+
+    /**
+     * Keyset date range query
+     */
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId " +
+           "AND r.purchaseDate BETWEEN :startDate AND :endDate " +
+           "AND (r.purchaseDate < :purchaseDate " +
+           "OR (r.purchaseDate = :purchaseDate AND r.receiptId < :receiptId)) " +
+           "ORDER BY r.purchaseDate DESC, r.receiptId DESC")
+    Slice<ReceiptRow> findSliceByUserIdAndPurchaseDateBetweenAfter(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("purchaseDate") LocalDate purchaseDate,
+            @Param("receiptId") Long receiptId,
+            Pageable pageable);
+
+    /**
+     * Keyset category query
+     */
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId " +
+           "AND r.categoryId = :categoryId " +
+           "AND (r.purchaseDate < :purchaseDate " +
+           "OR (r.purchaseDate = :purchaseDate AND r.receiptId < :receiptId)) " +
+           "ORDER BY r.purchaseDate DESC, r.receiptId DESC")
+    Slice<ReceiptRow> findSliceByUserIdAndCategoryIdAfter(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("purchaseDate") LocalDate purchaseDate,
+            @Param("receiptId") Long receiptId,
+            Pageable pageable);
+
+    /**
+     * Item rows for a set of receipts, grouped by receipt so callers can assemble in one pass.
+     */
+    @Query("SELECT new PersonalCPI.PersonalCPI.dto.ReceiptItemDto(" +
+           "i.receiptItemId, i.receiptId, i.itemName, i.quantity, i.unitPrice) " +
+           "FROM ReceiptItem i " +
+           "WHERE i.receiptId IN :receiptIds " +
+           "ORDER BY i.receiptId, i.receiptItemId")
+    List<ReceiptItemDto> findItemRowsByReceiptIdIn(@Param("receiptIds") Collection<Long> receiptIds);
+
+    // Every item on a user's receipts, for building the in-memory search index
+    @Query("SELECT new PersonalCPI.PersonalCPI.dto.ReceiptItemDto(" +
+           "i.receiptItemId, i.receiptId, i.itemName, i.quantity, i.unitPrice) " +
+           "FROM ReceiptItem i, Receipt r " +
+           "WHERE r.receiptId = i.receiptId AND r.userId = :userId")
+    List<ReceiptItemDto> findItemRowsByUserId(@Param("userId") Long userId);
+
+    // Specific receipts of a user, e.g. search hits; callers restore their own order
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId AND r.receiptId IN :receiptIds")
+    List<ReceiptRow> findRowsByUserIdAndReceiptIdIn(@Param("userId") Long userId,
+                                                    @Param("receiptIds") Collection<Long> receiptIds);
+
+    // Receipts written in (since, upTo], oldest change first, served from idx_receipts_user_updated
+    @Query(ROW_SELECT +
+           "WHERE r.userId = :userId AND r.updatedAt > :since AND r.updatedAt <= :upTo " +
+           "ORDER BY r.updatedAt, r.receiptId")
+    List<ReceiptRow> findRowsChangedBetween(@Param("userId") Long userId,
+                                            @Param("since") LocalDateTime since,
+                                            @Param("upTo") LocalDateTime upTo,
+                                            Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptSearchHit;
+
+import java.util.List;
+
+/**
+ * Full-text search over a user's store names and line-item names.
+ * Postgres uses tsvector and trigram indexes; {@code receipts.search.backend=memory} swaps in an
+ * in-process inverted index for databases without them, such as H2.
+ */
+public interface ReceiptSearchRepository {
+
+    /**
+     * Receipts matching the query, best match first (ties newest receipt first).
+     */
+    List<ReceiptSearchHit> search(Long userId, String query, int offset, int limit);
+}
@@ -0,0 +1,33 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.model.ReceiptTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReceiptTombstoneRepository extends JpaRepository<ReceiptTombstone, Long> {
+
+    // Receipts deleted in (since, upTo], served from idx_receipt_tombstones_user_deleted
+    @Query("SELECT t.receiptId FROM ReceiptTombstone t " +
+           "WHERE t.userId = :userId AND t.deletedAt > :since AND t.deletedAt <= :upTo " +
+           "ORDER BY t.deletedAt, t.receiptId")
+    List<Long> findDeletedReceiptIds(@Param("userId") Long userId,
+                                     @Param("since") LocalDateTime since,
+                                     @Param("upTo") LocalDateTime upTo,
+                                     Pageable pageable);
+
+    /**
+     * Drop tombstones past the sync retention window.
+     * @return number of tombstones removed
+     */
+    @Modifying
+    @Query("DELETE FROM ReceiptTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteByDeletedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,41 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.model.S3DeletionOutboxEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface S3DeletionOutboxRepository extends JpaRepository<S3DeletionOutboxEntry, Long> {
+
+    /**
+     * Lock entries that are due and have attempts left, oldest first.
+     * SKIP LOCKED (lock timeout -2) lets several instances drain the outbox without waiting on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM S3DeletionOutboxEntry e " +
+           "WHERE e.nextAttemptAt <= :now AND e.attempts < :maxAttempts " +
+           "ORDER BY e.nextAttemptAt")
+    List<S3DeletionOutboxEntry> findDueForUpdate(@Param("now") LocalDateTime now,
+                                                 @Param("maxAttempts") int maxAttempts,
+                                                 Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM S3DeletionOutboxEntry e WHERE e.outboxId IN :outboxIds")
+    int deleteByOutboxIdIn(@Param("outboxIds") Collection<Long> outboxIds);
+
+    // Entries still waiting to be deleted, for the backlog gauge
+    long countByAttemptsLessThan(int maxAttempts);
+}
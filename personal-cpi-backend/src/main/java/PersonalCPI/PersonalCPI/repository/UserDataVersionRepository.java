@@ -0,0 +1,37 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.model.UserDataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, Long> {
+
+    @Query("SELECT v.dataVersion FROM UserDataVersion v WHERE v.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") Long userId);
+
+    /**
+     * Increment the user's version, joining the caller's transaction if there is one.
+     * @return number of rows updated; 0 when the user has no version row yet
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserDataVersion v SET v.dataVersion = v.dataVersion + 1 WHERE v.userId = :userId")
+    int increment(@Param("userId") Long userId);
+
+    /**
+     * Create the user's row at version 0 unless another transaction already did.
+     * Conflict target omitted so the statement also runs on H2.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_data_versions (user_id, data_version) VALUES (:userId, 0) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+}
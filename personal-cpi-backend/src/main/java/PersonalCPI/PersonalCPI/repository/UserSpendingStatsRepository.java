@@ -0,0 +1,92 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.model.UserSpendingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserSpendingStatsRepository extends JpaRepository<UserSpendingStats, Long> {
+
+    /**
+     * Apply count and amount deltas for added receipts and widen the purchase date range to cover
+     * {@code firstDate..lastDate}. Concurrent writers each widen the stored value under the row lock,
+     * so none of them depends on seeing the others' uncommitted receipts.
+     * @return number of rows updated; 0 when the user has no stats row yet
+     */
+    @Modifying
+    @Query("UPDATE UserSpendingStats s SET " +
+           "s.receiptCount = s.receiptCount + :countDelta, " +
+           "s.totalAmount = s.totalAmount + :amountDelta, " +
+           "s.firstPurchaseDate = LEAST(COALESCE(s.firstPurchaseDate, :firstDate), :firstDate), " +
+           "s.lastPurchaseDate = GREATEST(COALESCE(s.lastPurchaseDate, :lastDate), :lastDate), " +
+           "s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.userId = :userId")
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("countDelta") long countDelta,
+                   @Param("amountDelta") BigDecimal amountDelta,
+                   @Param("firstDate") LocalDate firstDate,
+                   @Param("lastDate") LocalDate lastDate);
+
+    /**
+     * Apply count and amount deltas for deleted or re-dated receipts. The purchase date range is re-read
+     * through idx_receipts_user_date_id (two index probes), since the receipt that held the first or last
+     * date may be gone. Flushes pending receipt changes first so the subqueries see them.
+     * @return number of rows updated; 0 when the user has no stats row yet
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserSpendingStats s SET " +
+           "s.receiptCount = s.receiptCount + :countDelta, " +
+           "s.totalAmount = s.totalAmount + :amountDelta, " +
+           "s.firstPurchaseDate = (SELECT MIN(r.purchaseDate) FROM Receipt r WHERE r.userId = :userId), " +
+           "s.lastPurchaseDate = (SELECT MAX(r.purchaseDate) FROM Receipt r WHERE r.userId = :userId), " +
+           "s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.userId = :userId")
+    int applyDeltaRereadingDates(@Param("userId") Long userId,
+                                 @Param("countDelta") long countDelta,
+                                 @Param("amountDelta") BigDecimal amountDelta);
+
+    /**
+     * Create a user's stats row from their receipts, unless another transaction already created it.
+     * The aggregate sees this transaction's own uncommitted receipt changes. The conflict has no target
+     * column: user_id is the only unique key, and the bare form also runs on H2 in PostgreSQL mode.
+     * @return 1 if the row was created, 0 if it already existed
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_spending_stats " +
+                   "(user_id, receipt_count, total_amount, first_purchase_date, last_purchase_date, updated_at) " +
+                   "SELECT :userId, COUNT(*), COALESCE(SUM(r.amount), 0), MIN(r.purchase_date), MAX(r.purchase_date), CURRENT_TIMESTAMP " +
+                   "FROM receipts r WHERE r.user_id = :userId " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertFromReceipts(@Param("userId") Long userId);
+
+    /**
+     * Lock a stats row for reconciliation; concurrent delta updates wait until the rebuild commits.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserSpendingStats s WHERE s.userId = :userId")
+    Optional<UserSpendingStats> findForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Count, total and purchase date range recomputed from a user's receipts (single row).
+     */
+    @Query("SELECT COUNT(r), COALESCE(SUM(r.amount), 0), MIN(r.purchaseDate), MAX(r.purchaseDate) " +
+           "FROM Receipt r WHERE r.userId = :userId")
+    List<Object[]> aggregateReceipts(@Param("userId") Long userId);
+
+    @Query("SELECT DISTINCT r.userId FROM Receipt r")
+    List<Long> findUserIdsWithReceipts();
+
+    @Query("SELECT s.userId FROM UserSpendingStats s")
+    List<Long> findAllUserIds();
+}
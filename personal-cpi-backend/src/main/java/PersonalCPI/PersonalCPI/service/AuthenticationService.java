@@ -7,33 +7,45 @@ import PersonalCPI.PersonalCPI.dto.UserResponseDto;
 import PersonalCPI.PersonalCPI.dto.VerifyUserDto;
 import PersonalCPI.PersonalCPI.model.User;
 import PersonalCPI.PersonalCPI.repository.UserRepository;
-import jakarta.mail.MessagingException;
+import PersonalCPI.PersonalCPI.util.EmailTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
 @Service
 public class AuthenticationService {
+    private static final EmailTemplate VERIFICATION_EMAIL =
+            EmailTemplate.fromClasspath("templates/email/verification.html");
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final UserSnapshotCache userSnapshotCache;
+    private final TransactionTemplate transactionTemplate;
 
     public AuthenticationService(
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             AuthenticationManager authenticationManager,
-            EmailService emailService
+            EmailOutboxService emailOutboxService,
+            UserSnapshotCache userSnapshotCache,
+            PlatformTransactionManager transactionManager
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
+        this.userSnapshotCache = userSnapshotCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /*
@@ -71,13 +83,16 @@ public class AuthenticationService {
                 throw new IllegalArgumentException("User with this email already exists. Please login instead.");
             }
         }
-        // User doesn't exist, create a new user
+        // User doesn't exist, create a new user; the password is hashed before any transaction opens
         User user = new User(input.getUsername(), input.getEmail(), passwordEncoder.encode(input.getPassword()));
         user.setVerificationCode(generateVerificationCode());
         user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(15));
         user.setEnabled(false);
-        userRepository.save(user);
-        sendVerificationEmail(user);
+        // user and verification email commit together; the outbox worker sends it
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(user);
+            sendVerificationEmail(user);
+        });
 
         // Return DTO without sensitive information
         return UserResponseDto.fromUser(user);
@@ -113,6 +128,7 @@ public class AuthenticationService {
                 user.setVerificationCode(null);
                 user.setVerificationCodeExpiresAt(null);
                 userRepository.save(user); // valid user, and no longer needs verification code
+                userSnapshotCache.evict(user); // requests must see the user as enabled from now on
             } else {
                 throw new RuntimeException("Invalid verification code");
             }
@@ -131,49 +147,20 @@ public class AuthenticationService {
             }
             user.setVerificationCode(generateVerificationCode());
             user.setVerificationCodeExpiresAt(LocalDateTime.now().plusHours(1));
-            userRepository.save(user);
-            sendVerificationEmail(user);
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(user);
+                sendVerificationEmail(user);
+            });
         } else {
             throw new RuntimeException("User not found");
         }
     }
 
-    // send verification email
-    public  void sendVerificationEmail(User user) {
-        String subject = "Account Verification";
-        String verificationCode = user.getVerificationCode();
-        String htmlMessage =
-                "<!DOCTYPE html>" +
-                        "<html lang='en'>" +
-                        "<head>" +
-                        "  <meta charset='UTF-8'>" +
-                        "  <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
-                        "  <style>" +
-                        "    body { font-family: Arial, sans-serif; background-color: #f7f7f7; padding: 20px; }" +
-                        "    .container { max-width: 600px; margin: auto; background: #ffffff; padding: 20px; border-radius: 8px; }" +
-                        "    h2 { color: #333333; }" +
-                        "    .code-box { display: inline-block; padding: 12px 20px; margin-top: 20px;" +
-                        "                background-color: #4CAF50; color: #ffffff; font-size: 18px;" +
-                        "                border-radius: 4px; letter-spacing: 2px; }" +
-                        "    .footer { margin-top: 30px; font-size: 12px; color: #777777; }" +
-                        "  </style>" +
-                        "</head>" +
-                        "<body>" +
-                        "  <div class='container'>" +
-                        "    <h2>Account Verification</h2>" +
-                        "    <p>Please use the following code to verify your account:</p>" +
-                        "    <div class='code-box'>" + verificationCode + "</div>" +
-                        "    <p class='footer'>If you didn’t request this code, you can ignore this email.</p>" +
-                        "  </div>" +
-                        "</body>" +
-                        "</html>";
-        try {
-            emailService.sendVerificationEmail(user.getEmail(), subject, htmlMessage);
-        } catch(MessagingException e) {
-           e.printStackTrace();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    // queue the verification email; call inside the transaction that saved the code
+    public void sendVerificationEmail(User user) {
+        String htmlMessage = VERIFICATION_EMAIL.render(Map.of("code", user.getVerificationCode()));
+        // Replaces a pending email with an earlier code, which would fail verification if it arrived last
+        emailOutboxService.replace(user.getEmail(), "Account Verification", htmlMessage);
     }
 
     // generates random 6 digit verification code
@@ -2,6 +2,8 @@ package PersonalCPI.PersonalCPI.service;
 
 import PersonalCPI.PersonalCPI.model.OfficialCpiData;
 import PersonalCPI.PersonalCPI.model.PersonalCpiMonthly;
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -144,6 +146,7 @@ public class CPIComparisonService {
     /**
      * Inner class to hold comparison results
      */
+    @JsonFilter(FieldSelection.FILTER_ID)
     public static class ComparisonResult {
         private Long userId;
         private Integer year;
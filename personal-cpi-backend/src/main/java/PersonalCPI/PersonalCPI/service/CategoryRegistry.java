@@ -0,0 +1,177 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.Category;
+import PersonalCPI.PersonalCPI.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory registry of categories and their BLS series mappings.
+ * Loaded once at startup and swapped atomically when categories change, so lookups never hit the database.
+ */
+@Service
+public class CategoryRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRegistry.class);
+
+    private final CategoryRepository categoryRepository;
+
+    // Replaced wholesale on reload; readers always see a complete, immutable snapshot
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CategoryRegistry(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Published by {@link PersonalCPI.PersonalCPI.model.CategoryEntityListener} when a category is written.
+     */
+    public record CategoriesChangedEvent() {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    // Runs after the writing transaction commits so the reload sees the new rows
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Re-read all categories and replace the current snapshot.
+     */
+    public synchronized void reload() {
+        Snapshot loaded = new Snapshot(categoryRepository.findAll());
+        snapshot = loaded;
+        logger.info("Loaded {} categories into registry", loaded.categoryIds.size());
+    }
+
+    public boolean exists(Long categoryId) {
+        return current().indexOf(categoryId) >= 0;
+    }
+
+    /**
+     * Category name, or null if the category is unknown.
+     */
+    public String getName(Long categoryId) {
+        Snapshot current = current();
+        int index = current.indexOf(categoryId);
+        return index >= 0 ? current.names[index] : null;
+    }
+
+    /**
+     * BLS series ID mapped to the category, or null if unknown or unmapped.
+     */
+    public String getBlsSeriesId(Long categoryId) {
+        Snapshot current = current();
+        int index = current.indexOf(categoryId);
+        return index >= 0 ? current.blsSeriesIds[index] : null;
+    }
+
+    /**
+     * Category mapped to a BLS series, or null if no category uses it.
+     */
+    public Long getCategoryIdForSeries(String seriesId) {
+        return seriesId == null ? null : current().categoryIdsBySeries.get(seriesId);
+    }
+
+    /**
+     * All category IDs in ascending order.
+     */
+    public List<Long> getCategoryIds() {
+        return current().categoryIds;
+    }
+
+    /**
+     * BLS series IDs of all mapped categories, in category ID order.
+     */
+    public List<String> getBlsSeriesIds() {
+        return current().seriesIds;
+    }
+
+    // Falls back to a lazy load if a lookup arrives before ApplicationReadyEvent
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Category IDs sorted into a dense array, with names and series at the same index, so a lookup is a
+     * binary search over a few dozen longs regardless of how large or sparse the IDs are.
+     */
+    private static final class Snapshot {
+        private final long[] ids;
+        private final String[] names;
+        private final String[] blsSeriesIds;
+        private final List<Long> categoryIds;
+        private final List<String> seriesIds;
+        private final Map<String, Long> categoryIdsBySeries;
+
+        Snapshot(List<Category> categories) {
+            List<Category> sorted = new ArrayList<>(categories.size());
+            for (Category category : categories) {
+                if (category.getCategoryId() != null) {
+                    sorted.add(category);
+                }
+            }
+            sorted.sort(Comparator.comparing(Category::getCategoryId));
+
+            ids = new long[sorted.size()];
+            names = new String[sorted.size()];
+            blsSeriesIds = new String[sorted.size()];
+            List<Long> idList = new ArrayList<>(sorted.size());
+            List<String> series = new ArrayList<>();
+            Map<String, Long> bySeries = new HashMap<>();
+
+            for (int i = 0; i < sorted.size(); i++) {
+                Category category = sorted.get(i);
+                Long id = category.getCategoryId();
+                ids[i] = id;
+                names[i] = category.getName();
+                idList.add(id);
+
+                String seriesId = category.getBlsSeriesId();
+                if (seriesId != null && !seriesId.isEmpty()) {
+                    blsSeriesIds[i] = seriesId;
+                    series.add(seriesId);
+                    bySeries.put(seriesId, id);
+                }
+            }
+
+            categoryIds = List.copyOf(idList);
+            seriesIds = List.copyOf(series);
+            categoryIdsBySeries = Map.copyOf(bySeries);
+        }
+
+        int indexOf(Long categoryId) {
+            if (categoryId == null) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(ids, categoryId);
+            return index >= 0 ? index : -1;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.dto.DashboardDto;
+import PersonalCPI.PersonalCPI.exception.ServiceOverloadedException;
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the dashboard by running its five queries concurrently on virtual threads.
+ * Each query gets its own short read-only transaction, so a connection is held only while
+ * that query runs, and a failed or slow section is reported without failing the others.
+ * <p>
+ * Each section takes one permit from a connection budget shared by all dashboards for as long as its
+ * query runs, so concurrent dashboards interleave their sections instead of waiting for each other to
+ * finish. A section that gets no permit before the timeout is reported as busy.
+ */
+@Service
+public class DashboardService {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    // Recent receipts are shown without presigned URLs; the UI signs images on demand
+    private static final FieldSelection RECENT_FIELDS = FieldSelection.ALL.without("imageUrl");
+
+    static final int SECTIONS = 5;
+
+    private final ReceiptService receiptService;
+    private final CPIComparisonService cpiComparisonService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore connectionPermits;
+    private final long timeoutMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public DashboardService(ReceiptService receiptService, CPIComparisonService cpiComparisonService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${dashboard.max-concurrent-queries:5}") int maxConcurrentQueries,
+                            @Value("${dashboard.timeout-ms:5000}") long timeoutMillis) {
+        this.receiptService = receiptService;
+        this.cpiComparisonService = cpiComparisonService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        if (maxConcurrentQueries < 1) {
+            throw new IllegalArgumentException("dashboard.max-concurrent-queries must be positive");
+        }
+        // Shared by all dashboard requests and kept below the Hikari pool size, so concurrent
+        // dashboards queue here instead of taking every connection from the rest of the API
+        this.connectionPermits = new Semaphore(maxConcurrentQueries, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Load every dashboard section for a user. Latency is that of the slowest section; waiting for
+     * permits and running the queries share the configured timeout.
+     */
+    public DashboardDto getDashboard(Long userId) {
+        YearMonth month = YearMonth.now();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        return loadSections(userId, month, deadline);
+    }
+
+    /**
+     * Sections waiting for a connection permit; used by tests to observe queueing.
+     */
+    int queuedSections() {
+        return connectionPermits.getQueueLength();
+    }
+
+    private DashboardDto loadSections(Long userId, YearMonth month, long deadline) {
+        var currentMonth = submit(() -> receiptService.getCurrentMonthSpendingByCategory(userId), deadline);
+        var monthly = submit(() -> receiptService.getMonthlySpendingSummary(userId), deadline);
+        var total = submit(() -> receiptService.getTotalSpending(userId), deadline);
+        var recent = submit(() -> receiptService.getRecentReceipts(userId, RECENT_FIELDS), deadline);
+        var comparison = submit(() -> cpiComparisonService.compareToOfficialCPI(
+                userId, month.getYear(), month.getMonthValue()), deadline);
+
+        DashboardDto dashboard = new DashboardDto();
+        dashboard.setCurrentMonthSpending(await("currentMonthSpending", currentMonth, deadline, dashboard));
+        dashboard.setMonthlySpending(await("monthlySpending", monthly, deadline, dashboard));
+        dashboard.setTotalSpending(await("totalSpending", total, deadline, dashboard));
+        dashboard.setRecentReceipts(await("recentReceipts", recent, deadline, dashboard));
+        dashboard.setCpiComparison(await("cpiComparison", comparison, deadline, dashboard));
+        return dashboard;
+    }
+
+    // The permit is held only while the section's transaction runs; a cancelled section that is still
+    // waiting for one gives up, and one that is mid-query keeps its permit until the query returns
+    private <T> Future<T> submit(Supplier<T> query, long deadline) {
+        return executor.submit(() -> {
+            if (!connectionPermits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new ServiceOverloadedException("Too many dashboards loading", 1);
+            }
+            try {
+                return readOnlyTransaction.execute(status -> query.get());
+            } finally {
+                connectionPermits.release();
+            }
+        });
+    }
+
+    // Returns the section's value, or records why it is missing and returns null
+    private <T> T await(String section, Future<T> future, long deadline, DashboardDto dashboard) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Dashboard section {} timed out after {} ms", section, timeoutMillis);
+            dashboard.getErrors().put(section, "Timed out");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ServiceOverloadedException) {
+                dashboard.getErrors().put(section, "Busy, please retry shortly");
+            } else if (cause instanceof IllegalArgumentException) {
+                // Expected gaps, such as no CPI data for the month yet
+                dashboard.getErrors().put(section, cause.getMessage());
+            } else {
+                logger.error("Dashboard section {} failed: {}", section, cause.getMessage(), cause);
+                dashboard.getErrors().put(section, "Failed to load " + section);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            dashboard.getErrors().put(section, "Interrupted");
+        }
+        return null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,103 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.EmailOutboxEntry;
+import PersonalCPI.PersonalCPI.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for outgoing email.
+ * Signup and resend only insert a row, so the HTTP request never waits on SMTP and a failed send is
+ * retried instead of lost. A scheduled {@link OutboxDrainer} claims due rows and sends each batch over
+ * one SMTP connection, retrying rejected messages with backoff.
+ */
+@Service
+public class EmailOutboxService {
+
+    // 50 messages per SMTP connection, well under Gmail's per-connection limits. Verification codes
+    // expire after 15 minutes; six attempts backing off from 10 seconds span about five.
+    static final OutboxDrainer.Settings SETTINGS = new OutboxDrainer.Settings(
+            "email.outbox", "sent", 50, 6,
+            Duration.ofMinutes(2), Duration.ofSeconds(10), Duration.ofMinutes(5));
+
+    private final EmailOutboxRepository outboxRepository;
+    private final OutboxDrainer<EmailOutboxEntry> drainer;
+
+    @Autowired
+    public EmailOutboxService(EmailOutboxRepository outboxRepository, EmailService emailService,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.drainer = new OutboxDrainer<>(SETTINGS, new OutboxDrainer.Outbox<>() {
+            @Override
+            public List<EmailOutboxEntry> findDueForUpdate(LocalDateTime now, int maxAttempts, int limit) {
+                return outboxRepository.findDueForUpdate(now, maxAttempts, PageRequest.of(0, limit));
+            }
+
+            @Override
+            public void deleteDelivered(List<Long> ids) {
+                outboxRepository.deleteByEmailIdIn(ids);
+            }
+
+            @Override
+            public void save(EmailOutboxEntry entry) {
+                outboxRepository.reschedule(entry.getEmailId(), entry.getNextAttemptAt(), entry.getLastError());
+            }
+
+            @Override
+            public long countPending(int maxAttempts) {
+                return outboxRepository.countByAttemptsLessThan(maxAttempts);
+            }
+
+            @Override
+            public Map<Integer, String> deliver(List<EmailOutboxEntry> batch) {
+                return emailService.sendAll(batch.stream()
+                        .map(entry -> new EmailService.Email(entry.getRecipient(), entry.getSubject(), entry.getHtmlBody()))
+                        .toList());
+            }
+
+            @Override
+            public String describe(EmailOutboxEntry entry) {
+                return "email " + entry.getEmailId();
+            }
+        }, transactionManager, meterRegistry);
+    }
+
+    /**
+     * Queue an email. Must run inside the transaction that creates the state it describes,
+     * so it is only sent if that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String recipient, String subject, String htmlBody) {
+        outboxRepository.save(new EmailOutboxEntry(recipient, subject, htmlBody, LocalDateTime.now()));
+    }
+
+    /**
+     * Queue an email in place of any unsent one with the same recipient and subject, so a retrying
+     * older message (such as a stale verification code) cannot arrive after this one. A message
+     * already handed to SMTP cannot be recalled, but it is no longer retried if that send fails.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void replace(String recipient, String subject, String htmlBody) {
+        outboxRepository.deleteByRecipientAndSubject(recipient, subject);
+        enqueue(recipient, subject, htmlBody);
+    }
+
+    /**
+     * Send every due email, one batch at a time.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:2000}")
+    public void drain() {
+        drainer.drain();
+    }
+}
@@ -1,25 +1,87 @@
 // email service to send our emails for verification
 package PersonalCPI.PersonalCPI.service;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class EmailService {
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     private final JavaMailSender emailSender;
-    
+
     public EmailService(JavaMailSender emailSender) {
         this.emailSender = emailSender;
     }
 
-    public void sendVerificationEmail(String to, String subject, String text) throws Exception {
+    public record Email(String to, String subject, String html) {
+    }
+
+    /**
+     * Send the emails over a single SMTP connection.
+     * Returns the failure reason for each email the server didn't accept, keyed by its position in the list.
+     */
+    public Map<Integer, String> sendAll(List<Email> emails) {
+        Map<Integer, String> failures = new HashMap<>();
+        List<MimeMessage> messages = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            try {
+                messages.add(toMessage(emails.get(i)));
+                positions.add(i);
+            } catch (MessagingException e) {
+                failures.put(i, describe(e));
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            emailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            // Keyed by the MimeMessage instances passed in; empty when only closing the connection failed
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                logger.warn("SMTP connection did not close cleanly after sending: {}", e.getMessage());
+            }
+            for (int j = 0; j < messages.size(); j++) {
+                Exception cause = failed.get(messages.get(j));
+                if (cause != null) {
+                    failures.put(positions.get(j), describe(cause));
+                }
+            }
+        } catch (MailException e) {
+            // Authentication or connection failure: nothing was sent
+            for (Integer position : positions) {
+                failures.put(position, describe(e));
+            }
+        }
+        return failures;
+    }
+
+    private MimeMessage toMessage(Email email) throws MessagingException {
         MimeMessage message = emailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true );
 
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(text, true);
-        emailSender.send(message);
+        helper.setTo(email.to());
+        helper.setSubject(email.subject());
+        helper.setText(email.html(), true);
+        return message;
+    }
+
+    private static String describe(Exception e) {
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
     }
 }
@@ -0,0 +1,165 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.config.RateLimitType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How many rate-limit tokens a request to each endpoint costs.
+ * <p>
+ * An endpoint is a method plus its mapping pattern ({@code GET /api/cpi/comparison/timeseries}). Its
+ * weight is either fixed in {@code rate-limit.weights.fixed} or derived from a moving average of its
+ * measured server time: one token per {@code unit-ms}, at least 1 and at most {@code max}. Endpoints
+ * start at 1 token until they have {@link #MIN_SAMPLES} measurements. A sample counts as at most
+ * {@code max} tokens' worth of time and, after the first, moves the average by at most one token's worth,
+ * so a single stalled request can't spike the weight.
+ * <p>
+ * Only {@link RateLimitType#API} requests are weighted; uploads and admin calls have small buckets of
+ * their own and always cost 1. Async endpoints (streamed exports) are timed until the client finishes
+ * reading, which says more about the client than the server, so they are never derived and cost their
+ * fixed weight or 1.
+ * <p>
+ * Published per endpoint: {@code rate.limit.endpoint.weight}, {@code rate.limit.endpoint.cost} (average
+ * ms), and {@code rate.limit.tokens.consumed} / {@code rate.limit.rejected} counters tagged with the type.
+ */
+@Component
+public class EndpointCostTracker {
+
+    static final double SMOOTHING = 0.2;
+    static final int MIN_SAMPLES = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Integer> fixedWeights;
+    private final boolean autoWeights;
+    private final double unitMillis;
+    private final int maxWeight;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EndpointCostTracker(
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.weights.fixed:}") String fixedWeights,
+            @Value("${rate-limit.weights.auto:true}") boolean autoWeights,
+            @Value("${rate-limit.weights.unit-ms:50}") long unitMillis,
+            @Value("${rate-limit.weights.max:20}") int maxWeight) {
+        if (unitMillis <= 0 || maxWeight < 1) {
+            throw new IllegalArgumentException("rate-limit.weights.unit-ms and max must be positive");
+        }
+        this.meterRegistry = meterRegistry;
+        this.fixedWeights = parseFixedWeights(fixedWeights);
+        this.autoWeights = autoWeights;
+        this.unitMillis = unitMillis;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * The tracked endpoint for a method and mapping pattern, registered with its meters on first use.
+     */
+    public Endpoint endpoint(String method, String pattern, RateLimitType type) {
+        String key = method + " " + pattern;
+        Endpoint endpoint = endpoints.get(key);
+        return endpoint != null ? endpoint : endpoints.computeIfAbsent(key, k -> new Endpoint(k, type));
+    }
+
+    static Map<String, Integer> parseFixedWeights(String spec) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected 'METHOD /pattern=weight' in rate-limit.weights.fixed: " + entry);
+            }
+            int weight = Integer.parseInt(entry.substring(separator + 1).trim());
+            if (weight < 1) {
+                throw new IllegalArgumentException("Weights must be at least 1: " + entry);
+            }
+            weights.put(entry.substring(0, separator).trim().replaceAll("\\s+", " "), weight);
+        }
+        return Map.copyOf(weights);
+    }
+
+    public final class Endpoint {
+
+        private final Integer fixedWeight;
+        private final boolean weighted;
+        private final Counter consumed;
+        private final Counter rejected;
+        private boolean async;
+        private long samples;
+        private double averageMillis;
+        private volatile int weight;
+
+        private Endpoint(String key, RateLimitType type) {
+            this.weighted = type == RateLimitType.API;
+            this.fixedWeight = weighted ? fixedWeights.get(key) : null;
+            this.weight = fixedWeight != null ? fixedWeight : 1;
+            String typeTag = type.name().toLowerCase(Locale.ROOT);
+            this.consumed = Counter.builder("rate.limit.tokens.consumed")
+                    .tag("endpoint", key).tag("type", typeTag).register(meterRegistry);
+            this.rejected = Counter.builder("rate.limit.rejected")
+                    .tag("endpoint", key).tag("type", typeTag).register(meterRegistry);
+            Gauge.builder("rate.limit.endpoint.weight", this, Endpoint::weight)
+                    .tag("endpoint", key).register(meterRegistry);
+            Gauge.builder("rate.limit.endpoint.cost", this, Endpoint::averageMillis)
+                    .tag("endpoint", key).baseUnit("milliseconds").register(meterRegistry);
+        }
+
+        public int weight() {
+            return weight;
+        }
+
+        public synchronized double averageMillis() {
+            return averageMillis;
+        }
+
+        /**
+         * Count a charge of {@code tokens} against the bucket, granted or not.
+         */
+        public void recordCharge(long tokens, boolean granted) {
+            if (granted) {
+                consumed.increment(tokens);
+            } else {
+                rejected.increment();
+            }
+        }
+
+        /**
+         * Stop deriving this endpoint's weight because its requests complete asynchronously; it goes
+         * back to its fixed weight or 1.
+         */
+        public synchronized void markAsync() {
+            async = true;
+            weight = fixedWeight != null ? fixedWeight : 1;
+        }
+
+        /**
+         * Fold one request's server time into the average and, unless the weight is fixed or not derived
+         * for this endpoint, re-derive it.
+         */
+        public synchronized void recordLatency(long nanos) {
+            double millis = Math.min(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1), maxWeight * unitMillis);
+            if (samples == 0) {
+                averageMillis = millis;
+            } else {
+                double step = SMOOTHING * (millis - averageMillis);
+                averageMillis += Math.max(-unitMillis, Math.min(unitMillis, step));
+            }
+            samples++;
+            if (fixedWeight == null && weighted && !async && autoWeights && samples >= MIN_SAMPLES) {
+                weight = (int) Math.max(1, Math.min(maxWeight, Math.round(averageMillis / unitMillis)));
+            }
+        }
+    }
+}
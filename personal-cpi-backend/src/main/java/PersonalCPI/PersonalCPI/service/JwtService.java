@@ -2,42 +2,125 @@
 package PersonalCPI.PersonalCPI.service;
 
 import PersonalCPI.PersonalCPI.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import io.jsonwebtoken.Claims;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service // marked as spring service to be discovered
 public class JwtService {
-    @Value("${security.jwt.secret-key}")
-    private String secretKey;
-    @Value("${security.jwt.expiration-time}")
-    private long jwtExpiration;
+    // Bounds memory to roughly one entry per active session
+    static final int MAX_VERIFIED_TOKENS = 10_000;
+
+    private final long jwtExpiration;
+    // Decoded once; building a Key and parser per call showed up on every request
+    private final Key signInKey;
+    private final JwtParser parser;
+    // Verified tokens by SHA-256 of the token, each dropped when its token expires
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(MAX_VERIFIED_TOKENS)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, VerifiedToken token, long currentTime,
+                                              long currentDuration) {
+                    return expireAfterCreate(key, token, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, VerifiedToken token, long currentTime,
+                                            long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    @Autowired
+    public JwtService(@Value("${security.jwt.secret-key}") String secretKey,
+                      @Value("${security.jwt.expiration-time}") long jwtExpiration) {
+        this(secretKey, jwtExpiration, key -> Jwts.parserBuilder().setSigningKey(key).build());
+    }
+
+    // The parser factory lets tests observe how often tokens are actually parsed
+    JwtService(String secretKey, long jwtExpiration, Function<Key, JwtParser> parserFactory) {
+        this.jwtExpiration = jwtExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)); // change algorithm to hs256 to properly work
+        this.parser = parserFactory.apply(signInKey);
+    }
+
+    /**
+     * The claims the API relies on, read from a token whose signature and expiry were checked once.
+     * Tokens issued before email and enabled were added carry null for them.
+     */
+    public record VerifiedToken(String subject, Long userId, String email, Boolean enabled, Instant expiresAt) {
+        public boolean isExpired() {
+            return !expiresAt.isAfter(Instant.now());
+        }
+
+        // Enough to authenticate a request without loading the user
+        public boolean hasPrincipalClaims() {
+            return userId != null && email != null && Boolean.TRUE.equals(enabled);
+        }
+    }
+
+    /**
+     * Parse and verify a token, or return the earlier verification of the same token.
+     * Throws the parser's JwtException subtypes for malformed, forged or expired tokens.
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+        Claims claims = extractAllClaims(token);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), toUserId(claims.get("userId")),
+                claims.get("email", String.class), claims.get("enabled", Boolean.class),
+                claims.getExpiration().toInstant());
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
 
     // Returns Email Instead
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
-    // create a token for the user after auth
+    // create a token for the user after auth; the claims let requests authenticate without a user lookup
     public String generateToken(User user) {
-        return generateToken(Map.of("userId", user.getId()), user);
+        return generateToken(Map.of("userId", user.getId(), "email", user.getEmail(), "enabled", user.isEnabled()),
+                user);
     }
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return buildToken(extraClaims, userDetails,  jwtExpiration);
@@ -54,46 +137,47 @@ public class JwtService {
                 .setSubject(userDetails.getUsername()) // put username
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userEmail = extractUsername(token); // get username from token
-        return (userEmail.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.subject().equals(userDetails.getUsername()) && !token.isExpired();
     }
+
     // decodes and verifies the token with secret key
     // extract data in token
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes); // change algorithm to hs256 to properly work
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        Object userIdObj = claims.get("userId");
+        Long userId = verify(token).userId();
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID not found in token");
+        }
+        return userId;
+    }
 
-        // Handle different number types that might be returned
+    // Handle different number types that might be returned; validated when the token is used
+    private static Long toUserId(Object userIdObj) {
         return switch (userIdObj) {
-            case null -> throw new IllegalArgumentException("User ID not found in token");
+            case null -> null;
             case Integer i -> i.longValue();
             case Long l -> l;
             default -> throw new IllegalArgumentException("Invalid user ID format in token");
         };
     }
-}
-
 
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package PersonalCPI.PersonalCPI.service;
 
-import PersonalCPI.PersonalCPI.model.Category;
 import PersonalCPI.PersonalCPI.model.OfficialCpiData;
-import PersonalCPI.PersonalCPI.repository.CategoryRepository;
 import PersonalCPI.PersonalCPI.repository.OfficialCpiDataRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,7 +20,7 @@ import java.util.Optional;
 public class OfficialCPIService {
     
     private final OfficialCpiDataRepository officialCpiDataRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
     private final RestTemplate restTemplate;
     
     @Value("${bls.api.key:}")
@@ -34,10 +32,10 @@ public class OfficialCPIService {
     @Autowired
     public OfficialCPIService(
             OfficialCpiDataRepository officialCpiDataRepository,
-            CategoryRepository categoryRepository,
+            CategoryRegistry categoryRegistry,
             RestTemplate restTemplate) {
         this.officialCpiDataRepository = officialCpiDataRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
         this.restTemplate = restTemplate;
     }
     
@@ -91,12 +89,7 @@ public class OfficialCPIService {
         seriesIds.add("CUUR0000SA0");  // Overall CPI
         
         // Add category series IDs
-        List<Category> categories = categoryRepository.findAll();
-        for (Category category : categories) {
-            if (category.getBlsSeriesId() != null && !category.getBlsSeriesId().isEmpty()) {
-                seriesIds.add(category.getBlsSeriesId());
-            }
-        }
+        seriesIds.addAll(categoryRegistry.getBlsSeriesIds());
         
         // Fetch data for last 24 months
         int currentYear = java.time.Year.now().getValue();
@@ -125,7 +118,7 @@ public class OfficialCPIService {
             System.out.println("Response body: " + response.getBody());
             
             if (response.getStatusCode().is2xxSuccessful()) {
-                parseAndStoreBlsResponse(response.getBody(), categories);
+                parseAndStoreBlsResponse(response.getBody());
                 System.out.println("BLS data fetch completed successfully");
             } else {
                 throw new RuntimeException("BLS API returned error: " + response.getStatusCode());
@@ -189,7 +182,7 @@ public class OfficialCPIService {
     /**
      * Parse BLS API response and store data
      */
-    private void parseAndStoreBlsResponse(String jsonResponse, List<Category> categories) {
+    private void parseAndStoreBlsResponse(String jsonResponse) {
         try {
             // Simple JSON parsing (you could use Jackson for more robust parsing)
             com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
@@ -207,7 +200,7 @@ public class OfficialCPIService {
                 com.fasterxml.jackson.databind.JsonNode dataArray = series.get("data");
                 
                 // Determine category ID from series ID
-                Long categoryId = getCategoryIdFromSeriesId(seriesId, categories);
+                Long categoryId = getCategoryIdFromSeriesId(seriesId);
                 
                 // Parse and store each data point
                 java.util.List<OfficialCpiData> dataPoints = new java.util.ArrayList<>();
@@ -307,17 +300,11 @@ public class OfficialCPIService {
     /**
      * Map BLS series ID to category ID
      */
-    private Long getCategoryIdFromSeriesId(String seriesId, List<Category> categories) {
+    private Long getCategoryIdFromSeriesId(String seriesId) {
         if (seriesId.equals("CUUR0000SA0")) {
             return null;  // Overall CPI
         }
         
-        for (Category category : categories) {
-            if (seriesId.equals(category.getBlsSeriesId())) {
-                return category.getCategoryId();
-            }
-        }
-        
-        return null;
+        return categoryRegistry.getCategoryIdForSeries(seriesId);
     }
 }
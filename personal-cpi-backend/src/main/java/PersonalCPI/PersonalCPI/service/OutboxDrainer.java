@@ -0,0 +1,179 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.OutboxEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains a transactional outbox table. Each batch is claimed in a short transaction that locks due
+ * rows, counts the attempt and hides them for the lease; delivered while no transaction (and so no
+ * database connection) is held; then acknowledged in a second short transaction that removes
+ * delivered rows and reschedules failures with exponential backoff. A worker that dies mid-batch
+ * leaves its rows to be retried once the lease runs out.
+ * <p>
+ * Published under the settings' metric name: {@code .<delivered>}, {@code .retried}, {@code .abandoned}
+ * counters, a {@code .batch} timer around delivery and a {@code .backlog} gauge of rows with attempts left.
+ */
+public class OutboxDrainer<E extends OutboxEntry> {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDrainer.class);
+
+    /**
+     * Table access and delivery for one outbox. Table methods run inside the drainer's transactions;
+     * {@link #deliver} runs outside them.
+     */
+    public interface Outbox<E extends OutboxEntry> {
+
+        /** Lock up to {@code limit} due entries with attempts left, oldest first, skipping rows other workers hold. */
+        List<E> findDueForUpdate(LocalDateTime now, int maxAttempts, int limit);
+
+        void deleteDelivered(List<Long> ids);
+
+        void save(E entry);
+
+        long countPending(int maxAttempts);
+
+        /**
+         * Deliver a claimed batch.
+         * @return failure messages by position in the batch; empty when everything was delivered
+         */
+        Map<Integer, String> deliver(List<E> batch);
+
+        /** How an abandoned entry is named in the log. */
+        default String describe(E entry) {
+            return "entry " + entry.getId();
+        }
+    }
+
+    /**
+     * @param metricName    prefix of the published meters, e.g. {@code email.outbox}
+     * @param deliveredName counter suffix for delivered rows, e.g. {@code sent}
+     * @param batchSize     entries claimed and delivered together
+     * @param maxAttempts   attempts before an entry is abandoned (kept in the table, no longer claimed)
+     * @param lease         how long claimed entries stay hidden from other workers
+     * @param baseBackoff   delay after the first failure, doubled after each further one
+     * @param maxBackoff    longest delay between attempts
+     */
+    public record Settings(String metricName, String deliveredName, int batchSize, int maxAttempts,
+                           Duration lease, Duration baseBackoff, Duration maxBackoff) {
+    }
+
+    private final Settings settings;
+    private final Outbox<E> outbox;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deliveredCounter;
+    private final Counter retriedCounter;
+    private final Counter abandonedCounter;
+    private final Timer batchTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public OutboxDrainer(Settings settings, Outbox<E> outbox, PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.outbox = outbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveredCounter = meterRegistry.counter(settings.metricName() + "." + settings.deliveredName());
+        this.retriedCounter = meterRegistry.counter(settings.metricName() + ".retried");
+        this.abandonedCounter = meterRegistry.counter(settings.metricName() + ".abandoned");
+        this.batchTimer = meterRegistry.timer(settings.metricName() + ".batch");
+        meterRegistry.gauge(settings.metricName() + ".backlog", backlog);
+    }
+
+    /**
+     * Deliver every due entry, one batch at a time, then refresh the backlog gauge.
+     * Failures are logged rather than thrown so the scheduler keeps calling.
+     */
+    public void drain() {
+        try {
+            List<E> batch;
+            do {
+                batch = claimBatch();
+                if (!batch.isEmpty()) {
+                    process(batch);
+                }
+            } while (batch.size() == settings.batchSize());
+
+            Long pending = transactionTemplate.execute(status -> outbox.countPending(settings.maxAttempts()));
+            backlog.set(pending != null ? pending : 0);
+        } catch (Exception e) {
+            logger.error("Draining {} failed: {}", settings.metricName(), e.getMessage(), e);
+        }
+    }
+
+    // base, 2 x base, 4 x base, ... capped at the maximum
+    Duration backoff(int attempts) {
+        Duration delay = settings.baseBackoff().multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 16));
+        return delay.compareTo(settings.maxBackoff()) > 0 ? settings.maxBackoff() : delay;
+    }
+
+    // Short transaction: lock due rows, count the attempt and push them out by the lease
+    private List<E> claimBatch() {
+        List<E> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<E> due = outbox.findDueForUpdate(now, settings.maxAttempts(), settings.batchSize());
+            for (E entry : due) {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(now.plus(settings.lease()));
+            }
+            return due;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    private void process(List<E> batch) {
+        // No transaction is open here, so a slow downstream holds no database connection
+        Map<Integer, String> failures = batchTimer.record(() -> outbox.deliver(batch));
+
+        List<Long> delivered = new ArrayList<>();
+        List<E> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            E entry = batch.get(i);
+            if (failures.containsKey(i)) {
+                entry.setLastError(truncate(failures.get(i)));
+                failed.add(entry);
+            } else {
+                delivered.add(entry.getId());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outbox.deleteDelivered(delivered);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (E entry : failed) {
+                entry.setNextAttemptAt(now.plus(backoff(entry.getAttempts())));
+                outbox.save(entry);
+            }
+        });
+
+        deliveredCounter.increment(delivered.size());
+        for (E entry : failed) {
+            if (entry.getAttempts() >= settings.maxAttempts()) {
+                abandonedCounter.increment();
+                logger.error("Giving up on {} after {} attempts: {}",
+                        outbox.describe(entry), entry.getAttempts(), entry.getLastError());
+            } else {
+                retriedCounter.increment();
+            }
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
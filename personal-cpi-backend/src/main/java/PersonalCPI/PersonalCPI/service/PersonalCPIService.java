@@ -1,7 +1,6 @@
 package PersonalCPI.PersonalCPI.service;
 
 import PersonalCPI.PersonalCPI.model.PersonalCpiMonthly;
-import PersonalCPI.PersonalCPI.repository.CategoryRepository;
 import PersonalCPI.PersonalCPI.repository.PersonalCpiMonthlyRepository;
 import PersonalCPI.PersonalCPI.repository.ReceiptRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +12,9 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -25,16 +26,22 @@ public class PersonalCPIService {
     
     private final ReceiptRepository receiptRepository;
     private final PersonalCpiMonthlyRepository personalCpiMonthlyRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final UserDataVersionService userDataVersionService;
+    private final UserSpendingStatsService userSpendingStatsService;
     
     @Autowired
     public PersonalCPIService(
             ReceiptRepository receiptRepository,
             PersonalCpiMonthlyRepository personalCpiMonthlyRepository,
-            CategoryRepository categoryRepository) {
+            CategoryRegistry categoryRegistry,
+            UserDataVersionService userDataVersionService,
+            UserSpendingStatsService userSpendingStatsService) {
         this.receiptRepository = receiptRepository;
         this.personalCpiMonthlyRepository = personalCpiMonthlyRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.userDataVersionService = userDataVersionService;
+        this.userSpendingStatsService = userSpendingStatsService;
     }
     
     /**
@@ -45,13 +52,16 @@ public class PersonalCPIService {
      */
     @Transactional
     public void calculateMonthlyPersonalCPI(Long userId, Integer year, Integer month) {
-        // Calculate for each category
-        List<Long> categoryIds = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        // Stored CPI rows are rewritten below; the version bump lands after commit
+        userDataVersionService.bump(userId);
+        
+        // Calculate for each known category from one summary query
+        List<Long> categoryIds = categoryRegistry.getCategoryIds();
+        Map<Long, BigDecimal> spendingByCategory = calculateCategorySpending(userId, year, month);
         BigDecimal totalSpending = BigDecimal.ZERO;
         
         for (Long categoryId : categoryIds) {
-            BigDecimal categorySpending = calculateCategorySpending(userId, year, month, categoryId);
-            totalSpending = totalSpending.add(categorySpending);
+            totalSpending = totalSpending.add(spendingByCategory.getOrDefault(categoryId, BigDecimal.ZERO));
         }
         
         // If no spending this month, delete any existing data and return
@@ -65,7 +75,7 @@ public class PersonalCPIService {
         
         // Save category-level data
         for (Long categoryId : categoryIds) {
-            BigDecimal categorySpending = calculateCategorySpending(userId, year, month, categoryId);
+            BigDecimal categorySpending = spendingByCategory.getOrDefault(categoryId, BigDecimal.ZERO);
             
             if (categorySpending.compareTo(BigDecimal.ZERO) > 0) {
                 PersonalCpiMonthly categoryData = new PersonalCpiMonthly();
@@ -107,22 +117,23 @@ public class PersonalCPIService {
     }
     
     /**
-     * Calculate total spending for a category in a specific month
+     * Calculate total spending per category in a specific month
      */
-    private BigDecimal calculateCategorySpending(Long userId, Integer year, Integer month, Long categoryId) {
+    private Map<Long, BigDecimal> calculateCategorySpending(Long userId, Integer year, Integer month) {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
         
         List<Object[]> results = receiptRepository.getSpendingSummaryByCategory(userId, startDate, endDate);
         
+        Map<Long, BigDecimal> spending = new HashMap<>();
         for (Object[] result : results) {
             Long resultCategoryId = (Long) result[0];
-            if (resultCategoryId.equals(categoryId)) {
-                return (BigDecimal) result[1];
+            if (resultCategoryId != null) {
+                spending.put(resultCategoryId, (BigDecimal) result[1]);
             }
         }
         
-        return BigDecimal.ZERO;
+        return spending;
     }
     
     /**
@@ -204,9 +215,8 @@ public class PersonalCPIService {
      */
     @Transactional
     public void recalculateAllForUser(Long userId) {
-        // Find the earliest receipt date for this user
-        Optional<LocalDate> earliestDateOpt = receiptRepository.findTop1ByUserIdOrderByPurchaseDateAsc(userId)
-                .map(receipt -> receipt.getPurchaseDate());
+        // Earliest receipt date for this user, kept on the stats row
+        Optional<LocalDate> earliestDateOpt = Optional.ofNullable(userSpendingStatsService.getFirstPurchaseDate(userId));
         
         // If no receipts exist, nothing to calculate
         if (earliestDateOpt.isEmpty()) {
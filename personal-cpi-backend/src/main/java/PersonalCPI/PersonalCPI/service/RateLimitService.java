@@ -1,37 +1,127 @@
 package PersonalCPI.PersonalCPI.service;
 
 import PersonalCPI.PersonalCPI.config.RateLimitType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
+import io.github.bucket4j.caffeine.CaffeineProxyManager;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Per-user token buckets.
+ * <p>
+ * By default each replica keeps its own buckets, one Caffeine-backed store per limit type so the user's
+ * ID is the whole key. A bucket is dropped once it has refilled completely (it would be recreated full
+ * anyway), and each store is capped in size, so idle users cost nothing.
+ * <p>
+ * When a shared store is configured ({@code rate-limit.store=jdbc}) the buckets live in the database and
+ * every replica draws from the same limit. Each replica then holds on to a bucket proxy per active user
+ * that consumes up to {@code max-unsynchronized-tokens} locally before writing back, so most requests
+ * don't touch the database; the cluster can overshoot a limit by at most that many tokens per replica.
+ * Tokens still held locally are written back when an idle user's proxy is evicted and at shutdown, so
+ * they are not lost; only a replica that dies without shutting down drops them.
+ */
 @Service
 public class RateLimitService {
-    
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
-    
-    public boolean tryConsume(Long userId, RateLimitType type) {
-        String key = userId + ":" + type.name();
-        Bucket bucket = buckets.computeIfAbsent(key, k -> createBucket(type));
-        return bucket.tryConsume(1);
-    }
-    
-    public long getAvailableTokens(Long userId, RateLimitType type) {
-        String key = userId + ":" + type.name();
-        Bucket bucket = buckets.computeIfAbsent(key, k -> createBucket(type));
-        return bucket.getAvailableTokens();
-    }
-    
-    public long getSecondsUntilRefill(Long userId, RateLimitType type) {
-        // Return the refill period in seconds
-        return 60; // 1 minute for all types
-    }
-    
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitService.class);
+
+    static final long MAX_BUCKETS_PER_TYPE = 100_000;
+    /** Rows in the shared store are keyed by {@code userId * KEY_STRIDE + type.ordinal()}. */
+    static final int KEY_STRIDE = 8;
+
+    private final Map<RateLimitType, ProxyManager<Long>> localStores = new EnumMap<>(RateLimitType.class);
+    private final Map<RateLimitType, Cache<Long, BucketProxy>> sharedBuckets = new EnumMap<>(RateLimitType.class);
+    private final Map<RateLimitType, Supplier<BucketConfiguration>> configurations = new EnumMap<>(RateLimitType.class);
+    private final ProxyManager<Long> sharedStore;
+    private final DelayParameters delayParameters;
+
+    public RateLimitService() {
+        this(null, 0, Duration.ZERO);
+    }
+
+    @Autowired
+    public RateLimitService(
+            ObjectProvider<ProxyManager<Long>> sharedStore,
+            @Value("${rate-limit.distributed.max-unsynchronized-tokens:5}") long maxUnsynchronizedTokens,
+            @Value("${rate-limit.distributed.max-unsynchronized-ms:1000}") long maxUnsynchronizedMs) {
+        this(sharedStore.getIfAvailable(), maxUnsynchronizedTokens, Duration.ofMillis(maxUnsynchronizedMs));
+    }
+
+    /**
+     * @param sharedStore             store shared by all replicas, or {@code null} for per-replica buckets
+     * @param maxUnsynchronizedTokens tokens a replica may consume before writing back; 0 writes every request
+     * @param maxUnsynchronizedTime   longest a replica may go without writing back
+     */
+    public RateLimitService(ProxyManager<Long> sharedStore, long maxUnsynchronizedTokens, Duration maxUnsynchronizedTime) {
+        this.sharedStore = sharedStore;
+        this.delayParameters = maxUnsynchronizedTokens > 0
+                ? new DelayParameters(maxUnsynchronizedTokens, maxUnsynchronizedTime)
+                : null;
+        for (RateLimitType type : RateLimitType.values()) {
+            if (sharedStore == null) {
+                localStores.put(type, new CaffeineProxyManager<>(
+                        Caffeine.newBuilder().maximumSize(MAX_BUCKETS_PER_TYPE), Duration.ZERO));
+            } else {
+                sharedBuckets.put(type, Caffeine.newBuilder()
+                        .maximumSize(MAX_BUCKETS_PER_TYPE)
+                        .expireAfterAccess(Duration.ofMinutes(1))
+                        .<Long, BucketProxy>removalListener((userId, bucket, cause) -> {
+                            if (cause != RemovalCause.REPLACED) {
+                                flush(bucket);
+                            }
+                        })
+                        .build());
+            }
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(createLimit(type))
+                    .build();
+            configurations.put(type, () -> configuration);
+        }
+    }
+
+    /**
+     * Take one token. The probe says whether it was granted, how many remain, and how long
+     * until the next refill and until the bucket is full again.
+     */
+    public ConsumptionProbe tryConsume(Long userId, RateLimitType type) {
+        return tryConsume(userId, type, 1);
+    }
+
+    /**
+     * Take {@code tokens} at once, all or nothing; a rejected probe's refill wait is the time
+     * until that many are available.
+     */
+    public ConsumptionProbe tryConsume(Long userId, RateLimitType type, long tokens) {
+        if (sharedStore == null) {
+            return localStores.get(type).builder()
+                    .build(userId, configurations.get(type))
+                    .tryConsumeAndReturnRemaining(tokens);
+        }
+        return sharedBuckets.get(type)
+                .get(userId, id -> sharedBucket(id, type))
+                .tryConsumeAndReturnRemaining(tokens);
+    }
+
     public long getLimit(RateLimitType type) {
         return switch (type) {
             case UPLOAD -> 10;
@@ -39,24 +129,53 @@ public class RateLimitService {
             case ADMIN -> 50;
         };
     }
-    
-    private Bucket createBucket(RateLimitType type) {
-        Bandwidth limit = switch (type) {
+
+    /**
+     * Write back every shared bucket's locally consumed tokens before the replica goes away.
+     */
+    @PreDestroy
+    public void flushSharedBuckets() {
+        sharedBuckets.values().forEach(cache -> cache.asMap().values().forEach(this::flush));
+    }
+
+    static long storeKey(Long userId, RateLimitType type) {
+        return userId * KEY_STRIDE + type.ordinal();
+    }
+
+    // Runs on Caffeine's executor for evictions, so the write never delays a request
+    private void flush(BucketProxy bucket) {
+        if (bucket == null || delayParameters == null) {
+            return;
+        }
+        try {
+            bucket.getOptimizationController().syncImmediately();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write back rate-limit tokens: {}", e.getMessage());
+        }
+    }
+
+    private BucketProxy sharedBucket(Long userId, RateLimitType type) {
+        RemoteBucketBuilder<Long> builder = sharedStore.builder();
+        if (delayParameters != null) {
+            builder = builder.withOptimization(Optimizations.delaying(delayParameters));
+        }
+        return builder.build(storeKey(userId, type), configurations.get(type));
+    }
+
+    private Bandwidth createLimit(RateLimitType type) {
+        return switch (type) {
             case UPLOAD -> Bandwidth.classic(
-                    10, 
+                    10,
                     Refill.intervally(10, Duration.ofMinutes(1))
             );
             case API -> Bandwidth.classic(
-                    100, 
+                    100,
                     Refill.intervally(100, Duration.ofMinutes(1))
             );
             case ADMIN -> Bandwidth.classic(
-                    50, 
+                    50,
                     Refill.intervally(50, Duration.ofMinutes(1))
             );
         };
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
     }
 }
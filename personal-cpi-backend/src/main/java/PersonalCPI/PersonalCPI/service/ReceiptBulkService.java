@@ -0,0 +1,246 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.dto.BulkOperationResultDto;
+import PersonalCPI.PersonalCPI.dto.BulkReceiptResultDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptBulkTarget;
+import PersonalCPI.PersonalCPI.dto.ReceiptCreateDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.exception.ConflictException;
+import PersonalCPI.PersonalCPI.repository.ReceiptBulkInsertRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptItemRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Creates, deletes and re-categorizes many receipts in one request.
+ * Creates validate every row up front and write the valid ones with JDBC batches; deletes and
+ * re-categorizations are single ownership-scoped statements. Each runs in one transaction and
+ * updates the user's stats and data version once for the whole request.
+ */
+@Service
+public class ReceiptBulkService {
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptBulkService.class);
+
+    static final int MAX_BULK_RECEIPTS = 500;
+    static final int MAX_ITEMS_PER_RECEIPT = 200;
+    static final int MAX_BULK_IDS = 1000;
+
+    private final ReceiptBulkInsertRepository bulkInsertRepository;
+    private final ReceiptRepository receiptRepository;
+    private final ReceiptItemRepository receiptItemRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final Validator validator;
+    private final S3DeletionOutboxService s3DeletionOutbox;
+    private final UserSpendingStatsService userSpendingStatsService;
+    private final UserDataVersionService userDataVersionService;
+
+    @Autowired
+    public ReceiptBulkService(ReceiptBulkInsertRepository bulkInsertRepository, ReceiptRepository receiptRepository,
+                              ReceiptItemRepository receiptItemRepository, CategoryRegistry categoryRegistry,
+                              Validator validator, S3DeletionOutboxService s3DeletionOutbox,
+                              UserSpendingStatsService userSpendingStatsService,
+                              UserDataVersionService userDataVersionService) {
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.receiptRepository = receiptRepository;
+        this.receiptItemRepository = receiptItemRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.validator = validator;
+        this.s3DeletionOutbox = s3DeletionOutbox;
+        this.userSpendingStatsService = userSpendingStatsService;
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    /**
+     * Create the valid receipts (with their items) and report why the others were rejected.
+     * @throws IllegalArgumentException if the request is empty or too large
+     */
+    @Transactional
+    public BulkReceiptResultDto createReceipts(Long userId, List<ReceiptCreateDto> receipts) {
+        if (receipts == null || receipts.isEmpty()) {
+            throw new IllegalArgumentException("At least one receipt is required");
+        }
+        if (receipts.size() > MAX_BULK_RECEIPTS) {
+            throw new IllegalArgumentException("Too many receipts (maximum " + MAX_BULK_RECEIPTS + " per request)");
+        }
+
+        List<ReceiptCreateDto> valid = new ArrayList<>(receipts.size());
+        List<Integer> validIndexes = new ArrayList<>(receipts.size());
+        List<BulkReceiptResultDto.RowError> errors = new ArrayList<>();
+        for (int i = 0; i < receipts.size(); i++) {
+            List<String> problems = validate(receipts.get(i));
+            if (problems.isEmpty()) {
+                valid.add(receipts.get(i));
+                validIndexes.add(i);
+            } else {
+                errors.add(new BulkReceiptResultDto.RowError(i, problems));
+            }
+        }
+        if (valid.isEmpty()) {
+            return new BulkReceiptResultDto(List.of(), errors);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> receiptIds = bulkInsertRepository.insertReceipts(userId, valid, now);
+
+        List<ReceiptItemDto> items = new ArrayList<>();
+        List<BulkReceiptResultDto.Created> created = new ArrayList<>(valid.size());
+        BigDecimal total = BigDecimal.ZERO;
+        LocalDate firstDate = null;
+        LocalDate lastDate = null;
+        for (int i = 0; i < valid.size(); i++) {
+            ReceiptCreateDto receipt = valid.get(i);
+            Long receiptId = receiptIds.get(i);
+            if (receipt.getItems() != null) {
+                for (ReceiptItemDto item : receipt.getItems()) {
+                    items.add(new ReceiptItemDto(null, receiptId, item.getItemName(), item.getQuantity(),
+                            item.getUnitPrice()));
+                }
+            }
+            created.add(new BulkReceiptResultDto.Created(validIndexes.get(i), receiptId));
+            total = total.add(receipt.getAmount());
+            // Same default as the insert for receipts without a date
+            LocalDate date = receipt.getPurchaseDate() != null ? receipt.getPurchaseDate() : now.toLocalDate();
+            firstDate = firstDate == null || date.isBefore(firstDate) ? date : firstDate;
+            lastDate = lastDate == null || date.isAfter(lastDate) ? date : lastDate;
+        }
+        bulkInsertRepository.insertItems(items, now);
+
+        userSpendingStatsService.receiptsAdded(userId, valid.size(), total, firstDate, lastDate);
+        userDataVersionService.bump(userId);
+        logger.info("Bulk created {} receipts with {} items for user {} ({} rejected)",
+                valid.size(), items.size(), userId, errors.size());
+        return new BulkReceiptResultDto(created, errors);
+    }
+
+    /**
+     * Delete the user's receipts among the given IDs, with their items, in three statements,
+     * and record tombstones for delta sync. Images are queued in the S3 deletion outbox.
+     * @throws IllegalArgumentException if no IDs or too many are given
+     * @throws ConflictException if another request deleted some of the receipts first
+     */
+    @Transactional
+    public BulkOperationResultDto deleteReceipts(Long userId, List<Long> receiptIds) {
+        List<Long> ids = distinctIds(receiptIds);
+
+        List<Long> owned = new ArrayList<>();
+        List<String> imageKeys = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (ReceiptBulkTarget target : receiptRepository.findBulkTargets(userId, ids)) {
+            owned.add(target.receiptId());
+            if (target.amount() != null) {
+                total = total.add(target.amount());
+            }
+            if (target.imageKey() != null) {
+                imageKeys.add(target.imageKey());
+            }
+        }
+        if (owned.isEmpty()) {
+            return new BulkOperationResultDto(List.of(), ids);
+        }
+
+        receiptItemRepository.deleteByReceiptIdIn(owned);
+        int deleted = receiptRepository.deleteByUserIdAndReceiptIdIn(userId, owned);
+        if (deleted != owned.size()) {
+            // Another request deleted some of them first; roll back so the stats delta stays exact
+            throw new ConflictException("Receipts were modified concurrently, please retry");
+        }
+        bulkInsertRepository.insertTombstones(userId, owned, LocalDateTime.now());
+
+        userSpendingStatsService.receiptsRemoved(userId, deleted, total);
+        userDataVersionService.bump(userId);
+        s3DeletionOutbox.enqueue(imageKeys);
+        logger.info("Bulk deleted {} receipts ({} images) for user {}", deleted, imageKeys.size(), userId);
+        return new BulkOperationResultDto(owned, notFound(ids, owned));
+    }
+
+    /**
+     * Move the user's receipts among the given IDs to a category with one UPDATE.
+     * @throws IllegalArgumentException if the category is unknown, or no IDs or too many are given
+     */
+    @Transactional
+    public BulkOperationResultDto updateCategory(Long userId, List<Long> receiptIds, Long categoryId) {
+        if (categoryId == null || !categoryRegistry.exists(categoryId)) {
+            throw new IllegalArgumentException("Invalid category ID: " + categoryId);
+        }
+        List<Long> ids = distinctIds(receiptIds);
+
+        List<Long> owned = receiptRepository.findBulkTargets(userId, ids).stream()
+                .map(ReceiptBulkTarget::receiptId)
+                .toList();
+        if (owned.isEmpty()) {
+            return new BulkOperationResultDto(List.of(), ids);
+        }
+
+        receiptRepository.updateCategoryByUserIdAndReceiptIdIn(userId, owned, categoryId, LocalDateTime.now());
+        userDataVersionService.bump(userId);
+        return new BulkOperationResultDto(owned, notFound(ids, owned));
+    }
+
+    private List<Long> distinctIds(List<Long> receiptIds) {
+        if (receiptIds == null || receiptIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one receipt ID is required");
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(receiptIds));
+        ids.removeIf(Objects::isNull);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one receipt ID is required");
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("Too many receipt IDs (maximum " + MAX_BULK_IDS + " per request)");
+        }
+        return ids;
+    }
+
+    private static List<Long> notFound(List<Long> requested, List<Long> found) {
+        Set<Long> foundIds = new HashSet<>(found);
+        return requested.stream().filter(id -> !foundIds.contains(id)).toList();
+    }
+
+    // Bean validation constraints of ReceiptCreateDto, plus the checks createReceipt and the schema impose
+    private List<String> validate(ReceiptCreateDto receipt) {
+        List<String> problems = new ArrayList<>();
+        if (receipt == null) {
+            problems.add("Receipt is required");
+            return problems;
+        }
+
+        for (ConstraintViolation<ReceiptCreateDto> violation : validator.validate(receipt)) {
+            problems.add(violation.getMessage());
+        }
+        if (receipt.getCategoryId() != null && !categoryRegistry.exists(receipt.getCategoryId())) {
+            problems.add("Category not found with ID: " + receipt.getCategoryId());
+        }
+
+        List<ReceiptItemDto> items = receipt.getItems();
+        if (items != null) {
+            if (items.size() > MAX_ITEMS_PER_RECEIPT) {
+                problems.add("Too many items (maximum " + MAX_ITEMS_PER_RECEIPT + " per receipt)");
+            }
+            for (int i = 0; i < items.size(); i++) {
+                ReceiptItemDto item = items.get(i);
+                if (item == null || item.getItemName() == null || item.getItemName().isBlank()) {
+                    problems.add("Item " + i + ": item name is required");
+                } else if (item.getItemName().length() > 255) {
+                    problems.add("Item " + i + ": item name must not exceed 255 characters");
+                }
+            }
+        }
+        return problems;
+    }
+}
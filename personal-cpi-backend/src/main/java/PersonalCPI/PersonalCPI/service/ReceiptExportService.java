@@ -0,0 +1,234 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptResponseDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.repository.ReceiptRowRepository;
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import PersonalCPI.PersonalCPI.util.ReceiptCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams a user's full receipt history as NDJSON or CSV.
+ * Rows are read in keyset chunks, each in its own short read-only transaction, and written out
+ * between reads, so memory use is bounded by one chunk and no database connection is held while
+ * a slow client drains the response.
+ */
+@Service
+public class ReceiptExportService {
+
+    // Rows buffered before their items are loaded and the chunk is written out
+    static final int CHUNK_SIZE = 500;
+
+    private static final String CSV_HEADER =
+            "receiptId,purchaseDate,storeName,categoryId,categoryName,amount,createdAt,imageKey";
+
+    private final ReceiptRowRepository receiptRowRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final ReceiptItemBatchLoader receiptItemBatchLoader;
+    private final TransactionTemplate readTransaction;
+    private final ObjectWriter rowWriter;
+
+    @Autowired
+    public ReceiptExportService(ReceiptRowRepository receiptRowRepository, CategoryRegistry categoryRegistry,
+                                ReceiptItemBatchLoader receiptItemBatchLoader, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.receiptRowRepository = receiptRowRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.receiptItemBatchLoader = receiptItemBatchLoader;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // Exports always carry every field, and flushing is left to the chunk loop
+        this.rowWriter = objectMapper
+                .writer(new SimpleFilterProvider()
+                        .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public enum Format {
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        CSV("csv", MediaType.parseMediaType("text/csv"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() { return extension; }
+        public MediaType getMediaType() { return mediaType; }
+
+        public static Format from(String value) {
+            if (value != null) {
+                for (Format format : values()) {
+                    if (format.extension.equals(value.toLowerCase(Locale.ROOT))) {
+                        return format;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+        }
+    }
+
+    /**
+     * Write every receipt for the user to the output stream, newest first.
+     * Runs outside any transaction: receipts written while the export is running may or may not
+     * appear, but each chunk is consistent and none is repeated or skipped.
+     */
+    public void export(Long userId, Format format, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            writeCsv(userId, out);
+        } else {
+            writeNdjson(userId, out);
+        }
+    }
+
+    // One chunk of rows, plus their items when the format carries them
+    private record Chunk(List<ReceiptRow> rows, Map<Long, List<ReceiptItemDto>> items, boolean hasNext) {
+
+        ReceiptCursor next() {
+            ReceiptRow last = rows.get(rows.size() - 1);
+            return new ReceiptCursor(last.getPurchaseDate(), last.getReceiptId());
+        }
+    }
+
+    // Short transaction: seek past the cursor and, if asked, load the chunk's items
+    private Chunk readChunk(Long userId, ReceiptCursor after, boolean withItems) {
+        return readTransaction.execute(status -> {
+            Slice<ReceiptRow> slice = receiptRowRepository.findSliceByUserIdAfter(
+                    userId, after.purchaseDate(), after.receiptId(), PageRequest.of(0, CHUNK_SIZE));
+            List<ReceiptRow> rows = slice.getContent();
+            Map<Long, List<ReceiptItemDto>> items = withItems && !rows.isEmpty() ? loadItems(rows) : Map.of();
+            return new Chunk(rows, items, slice.hasNext());
+        });
+    }
+
+    /**
+     * One JSON object per line, including the receipt's items.
+     * Items are loaded once per chunk, keeping queries at 2 per CHUNK_SIZE rows.
+     */
+    private void writeNdjson(Long userId, OutputStream out) throws IOException {
+        JsonGenerator generator = rowWriter.createGenerator(out);
+        generator.setRootValueSeparator(null);
+
+        ReceiptCursor position = ReceiptCursor.START;
+        Chunk chunk;
+        do {
+            chunk = readChunk(userId, position, true);
+            for (ReceiptRow row : chunk.rows()) {
+                rowWriter.writeValue(generator, toDto(row, chunk.items().getOrDefault(row.getReceiptId(), List.of())));
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            if (chunk.hasNext()) {
+                position = chunk.next();
+            }
+        } while (chunk.hasNext());
+    }
+
+    /**
+     * One line per receipt; items are left out of the flat format.
+     */
+    private void writeCsv(Long userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        ReceiptCursor position = ReceiptCursor.START;
+        Chunk chunk;
+        do {
+            chunk = readChunk(userId, position, false);
+            for (ReceiptRow row : chunk.rows()) {
+                writer.write(csvField(row.getReceiptId()));
+                writer.write(',');
+                writer.write(csvField(row.getPurchaseDate()));
+                writer.write(',');
+                writer.write(csvField(row.getStoreName()));
+                writer.write(',');
+                writer.write(csvField(row.getCategoryId()));
+                writer.write(',');
+                writer.write(csvField(row.getCategoryId() != null ? categoryNameFor(row.getCategoryId()) : null));
+                writer.write(',');
+                writer.write(row.getAmount() != null ? row.getAmount().toPlainString() : "");
+                writer.write(',');
+                writer.write(csvField(row.getCreatedAt()));
+                writer.write(',');
+                writer.write(csvField(row.getImageKey()));
+                writer.write('\n');
+            }
+            writer.flush();
+            if (chunk.hasNext()) {
+                position = chunk.next();
+            }
+        } while (chunk.hasNext());
+    }
+
+    private Map<Long, List<ReceiptItemDto>> loadItems(List<ReceiptRow> chunk) {
+        List<Long> receiptIds = new ArrayList<>(chunk.size());
+        for (ReceiptRow row : chunk) {
+            receiptIds.add(row.getReceiptId());
+        }
+        return receiptItemBatchLoader.loadByReceiptIds(receiptIds);
+    }
+
+    private ReceiptResponseDto toDto(ReceiptRow row, List<ReceiptItemDto> items) {
+        return new ReceiptResponseDto(
+                row.getReceiptId(),
+                row.getStoreName(),
+                row.getPurchaseDate(),
+                row.getCategoryId(),
+                row.getCategoryId() != null ? categoryNameFor(row.getCategoryId()) : null,
+                row.getAmount(),
+                row.getCreatedAt(),
+                row.getImageKey(),
+                null,
+                items);
+    }
+
+    private String categoryNameFor(Long categoryId) {
+        String name = categoryRegistry.getName(categoryId);
+        return name != null ? name : "Unknown";
+    }
+
+    // RFC 4180 quoting: wrap in quotes when the value holds a separator, quote or line break.
+    // Text that a spreadsheet would run as a formula (=, +, -, @, tab, CR) is prefixed with ' first;
+    // amounts are written as plain numbers and never pass through here.
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
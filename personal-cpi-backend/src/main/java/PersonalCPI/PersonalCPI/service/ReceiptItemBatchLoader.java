@@ -0,0 +1,50 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.repository.ReceiptRowRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the items for a batch of receipts with one IN query per chunk of IDs,
+ * instead of one query per receipt. Every receipt listing goes through here.
+ */
+@Component
+public class ReceiptItemBatchLoader {
+
+    // Keeps bind parameter counts well under driver limits for the non-paged listings
+    static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final ReceiptRowRepository receiptRowRepository;
+
+    @Autowired
+    public ReceiptItemBatchLoader(ReceiptRowRepository receiptRowRepository) {
+        this.receiptRowRepository = receiptRowRepository;
+    }
+
+    /**
+     * Items grouped by receipt ID, in item order. Receipts without items have no entry.
+     */
+    public Map<Long, List<ReceiptItemDto>> loadByReceiptIds(Collection<Long> receiptIds) {
+        if (receiptIds.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(receiptIds));
+        Map<Long, List<ReceiptItemDto>> itemsByReceipt = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            for (ReceiptItemDto item : receiptRowRepository.findItemRowsByReceiptIdIn(chunk)) {
+                itemsByReceipt.computeIfAbsent(item.getReceiptId(), id -> new ArrayList<>()).add(item);
+            }
+        }
+        return itemsByReceipt;
+    }
+}
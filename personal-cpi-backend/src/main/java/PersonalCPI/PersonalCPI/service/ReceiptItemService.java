@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -22,11 +23,14 @@ public class ReceiptItemService {
     
     private final ReceiptItemRepository receiptItemRepository;
     private final ReceiptRepository receiptRepository;
+    private final UserDataVersionService userDataVersionService;
 
     @Autowired
-    public ReceiptItemService(ReceiptItemRepository receiptItemRepository, ReceiptRepository receiptRepository) {
+    public ReceiptItemService(ReceiptItemRepository receiptItemRepository, ReceiptRepository receiptRepository,
+                              UserDataVersionService userDataVersionService) {
         this.receiptItemRepository = receiptItemRepository;
         this.receiptRepository = receiptRepository;
+        this.userDataVersionService = userDataVersionService;
     }
 
     /**
@@ -72,7 +76,7 @@ public class ReceiptItemService {
     @Transactional
     public ReceiptItemDto createReceiptItem(Long userId, ReceiptItemDto itemDto) {
         // Verify receipt belongs to user
-        verifyReceiptOwnership(userId, itemDto.getReceiptId());
+        Receipt receipt = verifyReceiptOwnership(userId, itemDto.getReceiptId());
         
         ReceiptItem item = new ReceiptItem();
         item.setReceiptId(itemDto.getReceiptId());
@@ -81,6 +85,8 @@ public class ReceiptItemService {
         item.setUnitPrice(itemDto.getUnitPrice());
         
         ReceiptItem savedItem = receiptItemRepository.save(item);
+        markReceiptChanged(receipt);
+        userDataVersionService.bump(userId);
         return convertToDto(savedItem);
     }
 
@@ -97,13 +103,15 @@ public class ReceiptItemService {
                 .orElseThrow(() -> new IllegalArgumentException("Receipt item not found"));
         
         // Verify receipt belongs to user
-        verifyReceiptOwnership(userId, item.getReceiptId());
+        Receipt receipt = verifyReceiptOwnership(userId, item.getReceiptId());
         
         item.setItemName(itemDto.getItemName());
         item.setQuantity(itemDto.getQuantity());
         item.setUnitPrice(itemDto.getUnitPrice());
         
         ReceiptItem updatedItem = receiptItemRepository.save(item);
+        markReceiptChanged(receipt);
+        userDataVersionService.bump(userId);
         return convertToDto(updatedItem);
     }
 
@@ -118,9 +126,11 @@ public class ReceiptItemService {
                 .orElseThrow(() -> new IllegalArgumentException("Receipt item not found"));
         
         // Verify receipt belongs to user
-        verifyReceiptOwnership(userId, item.getReceiptId());
+        Receipt receipt = verifyReceiptOwnership(userId, item.getReceiptId());
         
         receiptItemRepository.deleteById(receiptItemId);
+        markReceiptChanged(receipt);
+        userDataVersionService.bump(userId);
     }
 
     /**
@@ -133,7 +143,7 @@ public class ReceiptItemService {
     @Transactional
     public List<ReceiptItemDto> createReceiptItems(Long userId, Long receiptId, List<ReceiptItemDto> itemDtos) {
         // Verify receipt belongs to user
-        verifyReceiptOwnership(userId, receiptId);
+        Receipt receipt = verifyReceiptOwnership(userId, receiptId);
         
         List<ReceiptItem> items = itemDtos.stream()
                 .map(dto -> {
@@ -147,6 +157,8 @@ public class ReceiptItemService {
                 .collect(Collectors.toList());
         
         List<ReceiptItem> savedItems = receiptItemRepository.saveAll(items);
+        markReceiptChanged(receipt);
+        userDataVersionService.bump(userId);
         return savedItems.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
@@ -160,18 +172,21 @@ public class ReceiptItemService {
     @Transactional
     public void deleteAllReceiptItems(Long userId, Long receiptId) {
         // Verify receipt belongs to user
-        verifyReceiptOwnership(userId, receiptId);
+        Receipt receipt = verifyReceiptOwnership(userId, receiptId);
         
         receiptItemRepository.deleteByReceiptId(receiptId);
+        markReceiptChanged(receipt);
+        userDataVersionService.bump(userId);
     }
 
     /**
      * Verify that a receipt belongs to the specified user
      * @param userId User ID
      * @param receiptId Receipt ID
+     * @return the receipt
      * @throws IllegalArgumentException if receipt not found or doesn't belong to user
      */
-    private void verifyReceiptOwnership(Long userId, Long receiptId) {
+    private Receipt verifyReceiptOwnership(Long userId, Long receiptId) {
         Optional<Receipt> receipt = receiptRepository.findById(receiptId);
         
         if (receipt.isEmpty()) {
@@ -181,6 +196,15 @@ public class ReceiptItemService {
         if (!receipt.get().getUserId().equals(userId)) {
             throw new IllegalArgumentException("Receipt does not belong to user");
         }
+        return receipt.get();
+    }
+
+    /**
+     * Item changes do not dirty the receipt row, so bump its updated_at explicitly;
+     * syncing clients then receive the receipt again with its current items.
+     */
+    private void markReceiptChanged(Receipt receipt) {
+        receipt.setUpdatedAt(LocalDateTime.now());
     }
 
     /**
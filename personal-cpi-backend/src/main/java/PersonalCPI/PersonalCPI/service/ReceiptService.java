@@ -1,64 +1,119 @@
 package PersonalCPI.PersonalCPI.service;
 
+import PersonalCPI.PersonalCPI.dto.CursorSlice;
+import PersonalCPI.PersonalCPI.dto.ReceiptChangesDto;
 import PersonalCPI.PersonalCPI.dto.MonthlySpendingDto;
 import PersonalCPI.PersonalCPI.dto.ReceiptCreateDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptFilter;
 import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
 import PersonalCPI.PersonalCPI.dto.ReceiptResponseDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.dto.ReceiptSearchHit;
 import PersonalCPI.PersonalCPI.dto.SpendingSummaryDto;
-import PersonalCPI.PersonalCPI.model.Category;
 import PersonalCPI.PersonalCPI.model.Receipt;
 import PersonalCPI.PersonalCPI.model.ReceiptItem;
-import PersonalCPI.PersonalCPI.repository.CategoryRepository;
+import PersonalCPI.PersonalCPI.model.ReceiptTombstone;
 import PersonalCPI.PersonalCPI.repository.ReceiptItemRepository;
 import PersonalCPI.PersonalCPI.repository.ReceiptRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptRowRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptSearchRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptTombstoneRepository;
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import PersonalCPI.PersonalCPI.util.ReceiptCursor;
+import PersonalCPI.PersonalCPI.util.SyncToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class ReceiptService {
     private static final Logger logger = LoggerFactory.getLogger(ReceiptService.class);
+
+    static final int MAX_SEARCH_QUERY_LENGTH = 200;
+
+    // Above this many receipts, residual-only filters must be bounded by a date range
+    static final long LARGE_TENANT_RECEIPTS = 5_000;
+
+    // Sync tokens stop short of "now" by this much, so writes whose transactions are still
+    // open (their updated_at already stamped, not yet visible) are picked up by the next sync
+    static final Duration SYNC_SETTLE_WINDOW = Duration.ofSeconds(30);
+
+    // Tombstones are kept this long; clients that have not synced since must start over
+    static final Duration SYNC_RETENTION = Duration.ofDays(90);
+
+    // Beyond this many changes a full reload is cheaper than a delta
+    static final int MAX_SYNC_CHANGES = 1_000;
     
     private final ReceiptRepository receiptRepository;
-    private final CategoryRepository categoryRepository;
+    private final ReceiptRowRepository receiptRowRepository;
+    private final CategoryRegistry categoryRegistry;
     private final S3Service s3Service;
     private final ReceiptItemRepository receiptItemRepository;
     private final SecurityEventLogger securityLogger;
+    private final UserDataVersionService userDataVersionService;
+    private final SpendingSummaryCache spendingSummaryCache;
+    private final UserSpendingStatsService userSpendingStatsService;
+    private final ReceiptItemBatchLoader receiptItemBatchLoader;
+    private final ReceiptSearchRepository receiptSearchRepository;
+    private final ReceiptTombstoneRepository receiptTombstoneRepository;
+    private final S3DeletionOutboxService s3DeletionOutbox;
 
     @Autowired
-    public ReceiptService(ReceiptRepository receiptRepository, CategoryRepository categoryRepository, 
+    public ReceiptService(ReceiptRepository receiptRepository, ReceiptRowRepository receiptRowRepository,
+                         CategoryRegistry categoryRegistry,
                          S3Service s3Service, ReceiptItemRepository receiptItemRepository,
-                         SecurityEventLogger securityLogger) {
+                         SecurityEventLogger securityLogger, UserDataVersionService userDataVersionService,
+                         SpendingSummaryCache spendingSummaryCache,
+                         UserSpendingStatsService userSpendingStatsService,
+                         ReceiptItemBatchLoader receiptItemBatchLoader,
+                         ReceiptSearchRepository receiptSearchRepository,
+                         ReceiptTombstoneRepository receiptTombstoneRepository,
+                         S3DeletionOutboxService s3DeletionOutbox) {
         this.receiptRepository = receiptRepository;
-        this.categoryRepository = categoryRepository;
+        this.receiptRowRepository = receiptRowRepository;
+        this.categoryRegistry = categoryRegistry;
         this.s3Service = s3Service;
         this.receiptItemRepository = receiptItemRepository;
         this.securityLogger = securityLogger;
+        this.userDataVersionService = userDataVersionService;
+        this.spendingSummaryCache = spendingSummaryCache;
+        this.userSpendingStatsService = userSpendingStatsService;
+        this.receiptItemBatchLoader = receiptItemBatchLoader;
+        this.receiptSearchRepository = receiptSearchRepository;
+        this.receiptTombstoneRepository = receiptTombstoneRepository;
+        this.s3DeletionOutbox = s3DeletionOutbox;
     }
 
     // Crud
     // Create a new Receipt for authenticated user
     @Transactional
     public ReceiptResponseDto createReceipt(Long userId, ReceiptCreateDto createDto) {
-        if (createDto.getCategoryId() != null) {
-            Optional<Category> category = categoryRepository.findById(createDto.getCategoryId());
-            if (category.isEmpty()) {
-                throw new IllegalArgumentException("Category not found with ID: " + createDto);
-            }
+        if (createDto.getCategoryId() != null && !categoryRegistry.exists(createDto.getCategoryId())) {
+            throw new IllegalArgumentException("Category not found with ID: " + createDto.getCategoryId());
         }
         Receipt receipt = new Receipt(
                 userId,
@@ -86,51 +141,45 @@ public class ReceiptService {
             receiptItemRepository.saveAll(items);
         }
         
+        userSpendingStatsService.receiptAdded(userId, savedReceipt.getAmount(), savedReceipt.getPurchaseDate());
+        userDataVersionService.bump(userId);
         return convertToResponseDto(savedReceipt);
     }
 
     /**
      * Get all receipts for a user.
-     * Loads receipts with associated items in a single query.
+     * Reads flat receipt and item rows (two queries) and assembles the DTOs without loading entities.
      */
     @Transactional(readOnly = true)
     public List<ReceiptResponseDto> getUserReceipts(Long userId) {
-        List<Receipt> receipts = receiptRepository.findByUserIdWithItems(userId);
-        return receipts.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return assemble(receiptRowRepository.findRowsByUserId(userId), FieldSelection.ALL);
     }
 
     /**
      * Get paginated receipts for a user.
-     * Uses two-query approach for efficient pagination with related entities.
+     * Uses a projection page plus one item query for the page's receipts; the total is the user's
+     * stats row, and is only looked up when the page itself cannot tell it.
+     * Only the selected fields are resolved; see {@link #assemble}.
      */
     @Transactional(readOnly = true)
-    public Page<ReceiptResponseDto> getUserReceipts(Long userId, Pageable pageable) {
-        // Get paginated receipts
-        Page<Receipt> receiptPage = receiptRepository.findByUserIdOrderByPurchaseDateDesc(userId, pageable);
-        
-        // If we have receipts, fetch them with items using JOIN FETCH
-        if (!receiptPage.isEmpty()) {
-            List<Long> receiptIds = receiptPage.getContent().stream()
-                    .map(Receipt::getReceiptId)
-                    .collect(Collectors.toList());
-            
-            // Fetch receipts with items
-            List<Receipt> receiptsWithItems = receiptRepository.findByReceiptIdInWithItems(receiptIds);
-            
-            // Convert to DTOs
-            Map<Long, Receipt> receiptMap = receiptsWithItems.stream()
-                    .collect(Collectors.toMap(Receipt::getReceiptId, r -> r));
-            
-            List<ReceiptResponseDto> dtos = receiptPage.getContent().stream()
-                    .map(r -> convertToResponseDto(receiptMap.getOrDefault(r.getReceiptId(), r)))
-                    .collect(Collectors.toList());
-            
-            return new PageImpl<>(dtos, pageable, receiptPage.getTotalElements());
-        }
-        
-        return receiptPage.map(this::convertToResponseDto);
+    public Page<ReceiptResponseDto> getUserReceipts(Long userId, Pageable pageable, FieldSelection fields) {
+        List<ReceiptRow> rows = receiptRowRepository.findRowsByUserId(userId, pageable);
+        return PageableExecutionUtils.getPage(assemble(rows, fields), pageable,
+                () -> userSpendingStatsService.getReceiptCount(userId));
+    }
+
+    /**
+     * Get a keyset slice of a user's receipts, newest first.
+     * Seeks past the cursor instead of skipping rows with OFFSET and issues no COUNT query,
+     * so deep slices cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<ReceiptResponseDto> getUserReceiptsAfter(Long userId, ReceiptCursor cursor, int size,
+                                                                FieldSelection fields) {
+        ReceiptCursor position = cursor != null ? cursor : ReceiptCursor.START;
+        Slice<ReceiptRow> slice = receiptRowRepository.findSliceByUserIdAfter(
+                userId, position.purchaseDate(), position.receiptId(), PageRequest.of(0, size));
+        return toCursorSlice(slice, fields);
     }
 
     /**
@@ -138,30 +187,35 @@ public class ReceiptService {
      */
     @Transactional(readOnly = true)
     public List<ReceiptResponseDto> getUserReceiptsByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        List<Receipt> receipts = receiptRepository.findByUserIdAndPurchaseDateBetween(userId, startDate, endDate);
-        return receipts.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return assemble(receiptRowRepository.findRowsByUserIdAndPurchaseDateBetween(userId, startDate, endDate), FieldSelection.ALL);
     }
 
     /**
      * Get receipts by date range (PAGINATED)
      */
     @Transactional(readOnly = true)
-    public Page<ReceiptResponseDto> getUserReceiptsByDateRange(Long userId, LocalDate startDate, LocalDate endDate, Pageable pageable) {
-        // Validate date range
-        if (startDate.isAfter(endDate)) {
-            throw new IllegalArgumentException("Start date must be before or equal to end date");
-        }
+    public Page<ReceiptResponseDto> getUserReceiptsByDateRange(Long userId, LocalDate startDate, LocalDate endDate, Pageable pageable,
+                                                               FieldSelection fields) {
+        validateDateRange(startDate, endDate);
         
-        // Prevent querying too large date ranges (> 2 years)
-        long daysBetween = ChronoUnit.DAYS.between(startDate, endDate);
-        if (daysBetween > 730) {
-            throw new IllegalArgumentException("Date range too large (maximum 2 years allowed)");
-        }
-        
-        Page<Receipt> receipts = receiptRepository.findByUserIdAndPurchaseDateBetween(userId, startDate, endDate, pageable);
-        return receipts.map(this::convertToResponseDto);
+        Page<ReceiptRow> rowPage = receiptRowRepository.findRowPageByUserIdAndPurchaseDateBetween(
+                userId, startDate, endDate, pageable);
+        return new PageImpl<>(assemble(rowPage.getContent(), fields), pageable, rowPage.getTotalElements());
+    }
+
+    /**
+     * Get receipts by date range (keyset slice)
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<ReceiptResponseDto> getUserReceiptsByDateRangeAfter(Long userId, LocalDate startDate, LocalDate endDate,
+                                                                          ReceiptCursor cursor, int size,
+                                                                          FieldSelection fields) {
+        validateDateRange(startDate, endDate);
+
+        ReceiptCursor position = cursor != null ? cursor : ReceiptCursor.START;
+        Slice<ReceiptRow> slice = receiptRowRepository.findSliceByUserIdAndPurchaseDateBetweenAfter(
+                userId, startDate, endDate, position.purchaseDate(), position.receiptId(), PageRequest.of(0, size));
+        return toCursorSlice(slice, fields);
     }
 
     /**
@@ -169,19 +223,132 @@ public class ReceiptService {
      */
     @Transactional(readOnly = true)
     public List<ReceiptResponseDto> getUserReceiptsByCategory(Long userId, Long categoryId) {
-        List<Receipt> receipts = receiptRepository.findByUserIdAndCategoryId(userId, categoryId);
-        return receipts.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return assemble(receiptRowRepository.findRowsByUserIdAndCategoryId(userId, categoryId), FieldSelection.ALL);
     }
 
     /**
      * Get receipts by category (PAGINATED)
      */
     @Transactional(readOnly = true)
-    public Page<ReceiptResponseDto> getUserReceiptsByCategory(Long userId, Long categoryId, Pageable pageable) {
-        Page<Receipt> receipts = receiptRepository.findByUserIdAndCategoryId(userId, categoryId, pageable);
-        return receipts.map(this::convertToResponseDto);
+    public Page<ReceiptResponseDto> getUserReceiptsByCategory(Long userId, Long categoryId, Pageable pageable,
+                                                              FieldSelection fields) {
+        Page<ReceiptRow> rowPage = receiptRowRepository.findRowPageByUserIdAndCategoryId(userId, categoryId, pageable);
+        return new PageImpl<>(assemble(rowPage.getContent(), fields), pageable, rowPage.getTotalElements());
+    }
+
+    /**
+     * Get receipts by category (keyset slice)
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<ReceiptResponseDto> getUserReceiptsByCategoryAfter(Long userId, Long categoryId,
+                                                                         ReceiptCursor cursor, int size,
+                                                                         FieldSelection fields) {
+        ReceiptCursor position = cursor != null ? cursor : ReceiptCursor.START;
+        Slice<ReceiptRow> slice = receiptRowRepository.findSliceByUserIdAndCategoryIdAfter(
+                userId, categoryId, position.purchaseDate(), position.receiptId(), PageRequest.of(0, size));
+        return toCursorSlice(slice, fields);
+    }
+
+    /**
+     * Get a keyset slice of receipts matching any combination of filters, newest first.
+     * Runs as one statement; the scan follows the user/category/date index, and filters the index cannot
+     * bound (amount, store prefix, image, several categories) are rejected without a date range on large accounts.
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<ReceiptResponseDto> filterReceipts(Long userId, ReceiptFilter filter, ReceiptCursor cursor,
+                                                         int size, FieldSelection fields) {
+        ReceiptFilter normalized = normalizeFilter(filter);
+        if (normalized.hasResidualPredicates() && !normalized.hasDateRange()
+                && userSpendingStatsService.getReceiptCount(userId) > LARGE_TENANT_RECEIPTS) {
+            throw new IllegalArgumentException("Filtering by amount, store, image or several categories requires "
+                    + "startDate and endDate for accounts with more than " + LARGE_TENANT_RECEIPTS + " receipts");
+        }
+        logger.debug("Receipt filter for user {} driven by {}", userId, normalized.drivingIndex());
+
+        ReceiptCursor position = cursor != null ? cursor : ReceiptCursor.START;
+        Slice<ReceiptRow> slice = receiptRowRepository.findSliceByFilter(
+                userId, normalized, position.purchaseDate(), position.receiptId(), size);
+        return toCursorSlice(slice, fields);
+    }
+
+    /**
+     * Search a user's store names and item names, best match first.
+     * Issues no COUNT; the slice fetches one extra hit to tell whether another page exists.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ReceiptResponseDto> searchReceipts(Long userId, String query, Pageable pageable, FieldSelection fields) {
+        String text = query != null ? query.strip() : "";
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (text.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query too long (maximum " + MAX_SEARCH_QUERY_LENGTH + " characters)");
+        }
+
+        List<ReceiptSearchHit> hits = receiptSearchRepository.search(
+                userId, text, (int) pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = hits.size() > pageable.getPageSize();
+        if (hasNext) {
+            hits = hits.subList(0, pageable.getPageSize());
+        }
+        if (hits.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+
+        // Rows come back in index order; put them back in rank order before assembling
+        List<Long> receiptIds = hits.stream().map(ReceiptSearchHit::receiptId).toList();
+        Map<Long, ReceiptRow> rowsById = receiptRowRepository.findRowsByUserIdAndReceiptIdIn(userId, receiptIds)
+                .stream()
+                .collect(Collectors.toMap(ReceiptRow::getReceiptId, row -> row));
+        List<ReceiptRow> ranked = receiptIds.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new SliceImpl<>(assemble(ranked, fields), pageable, hasNext);
+    }
+
+    /**
+     * Receipts changed or deleted since a sync token, for clients keeping an offline cache.
+     * Without a token, or when the token predates tombstone retention or the delta is too large,
+     * the response asks the client to reload everything and continue from the returned token.
+     */
+    @Transactional(readOnly = true)
+    public ReceiptChangesDto getChangesSince(Long userId, String token, FieldSelection fields) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime upTo = now.minus(SYNC_SETTLE_WINDOW);
+        String nextToken = new SyncToken(upTo).encode();
+        if (token == null || token.isBlank()) {
+            return ReceiptChangesDto.reset(nextToken);
+        }
+
+        LocalDateTime since = SyncToken.decode(token).syncedUpTo();
+        if (since.isBefore(now.minus(SYNC_RETENTION))) {
+            return ReceiptChangesDto.reset(nextToken);
+        }
+        if (!since.isBefore(upTo)) {
+            // Synced again within the settle window; nothing new is safe to report yet
+            return new ReceiptChangesDto(List.of(), List.of(), token, false);
+        }
+
+        PageRequest limit = PageRequest.of(0, MAX_SYNC_CHANGES + 1);
+        List<ReceiptRow> changed = receiptRowRepository.findRowsChangedBetween(userId, since, upTo, limit);
+        List<Long> deleted = receiptTombstoneRepository.findDeletedReceiptIds(userId, since, upTo, limit);
+        if (changed.size() + deleted.size() > MAX_SYNC_CHANGES) {
+            return ReceiptChangesDto.reset(nextToken);
+        }
+        return new ReceiptChangesDto(assemble(changed, fields), deleted, nextToken, false);
+    }
+
+    /**
+     * Purge tombstones older than the sync retention window, daily.
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    @Transactional
+    public void purgeExpiredTombstones() {
+        int purged = receiptTombstoneRepository.deleteByDeletedAtBefore(LocalDateTime.now().minus(SYNC_RETENTION));
+        if (purged > 0) {
+            logger.info("Purged {} receipt tombstones", purged);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -214,19 +381,21 @@ public class ReceiptService {
         }
 
         // Validate category exists if provided
-        if (updateDto.getCategoryId() != null) {
-            Optional<Category> category = categoryRepository.findById(updateDto.getCategoryId());
-            if (category.isEmpty()) {
-                throw new IllegalArgumentException("Category not found with ID: " + updateDto.getCategoryId());
-            }
+        if (updateDto.getCategoryId() != null && !categoryRegistry.exists(updateDto.getCategoryId())) {
+            throw new IllegalArgumentException("Category not found with ID: " + updateDto.getCategoryId());
         }
 
+        BigDecimal previousAmount = receipt.getAmount();
+        LocalDate previousDate = receipt.getPurchaseDate();
+
         // Update fields
         receipt.setStoreName(updateDto.getStoreName());
         receipt.setPurchaseDate(updateDto.getPurchaseDate());
         receipt.setCategoryId(updateDto.getCategoryId());
         receipt.setAmount(updateDto.getAmount());
         receipt.setImageKey(updateDto.getImageKey());
+        // Set explicitly: an update that only replaces items leaves the row itself unchanged
+        receipt.setUpdatedAt(LocalDateTime.now());
 
         Receipt savedReceipt = receiptRepository.save(receipt);
         
@@ -251,6 +420,9 @@ public class ReceiptService {
             }
         }
         
+        userSpendingStatsService.receiptChanged(userId, previousAmount, savedReceipt.getAmount(),
+                previousDate, savedReceipt.getPurchaseDate());
+        userDataVersionService.bump(userId);
         return convertToResponseDto(savedReceipt);
     }
 
@@ -266,30 +438,27 @@ public class ReceiptService {
             throw new IllegalArgumentException("Receipt does not belong to user");
         }
 
-        // Delete associated S3 image if it exists
+        // The image is deleted by the outbox worker after commit, so this transaction never waits on S3
         String imageKey = receipt.get().getImageKey();
         if (imageKey != null && !imageKey.isEmpty()) {
-            try {
-                s3Service.deleteObject(imageKey);
-                logger.info("Deleted S3 object: {}", imageKey);
-            } catch (Exception e) {
-                // Log error but don't fail the deletion
-                logger.error("Failed to delete S3 object: {} - {}", imageKey, e.getMessage());
-            }
+            s3DeletionOutbox.enqueue(List.of(imageKey));
         }
 
         // Delete associated receipt items
         receiptItemRepository.deleteByReceiptId(receiptId);
 
         receiptRepository.deleteById(receiptId);
+        receiptTombstoneRepository.save(new ReceiptTombstone(userId, receiptId, LocalDateTime.now()));
+        userSpendingStatsService.receiptRemoved(userId, receipt.get().getAmount());
+        userDataVersionService.bump(userId);
     }
 
     // Update receipt category
     @Transactional
     public Receipt updateReceiptCategory(Long userId, Long receiptId, Long categoryId) {
-        // Validate category ID (1-8)
-        if (categoryId < 1 || categoryId > 8) {
-            throw new IllegalArgumentException("Invalid category ID. Must be between 1 and 8.");
+        // Validate category ID against the known categories
+        if (!categoryRegistry.exists(categoryId)) {
+            throw new IllegalArgumentException("Invalid category ID: " + categoryId);
         }
         
         // Find receipt
@@ -308,7 +477,9 @@ public class ReceiptService {
         // Update category
         receipt.setCategoryId(categoryId);
         
-        return receiptRepository.save(receipt);
+        Receipt savedReceipt = receiptRepository.save(receipt);
+        userDataVersionService.bump(userId);
+        return savedReceipt;
     }
 
     @Transactional(readOnly = true)
@@ -320,82 +491,199 @@ public class ReceiptService {
         return getSpendingByCategoryForPeriod(userId, startDate, endDate);
     }
 
+    /**
+     * Spending per category for a period. Served from the per-user summary cache until the user's data changes.
+     */
     @Transactional(readOnly = true)
     public List<SpendingSummaryDto> getSpendingByCategoryForPeriod(Long userId, LocalDate startDate, LocalDate endDate) {
-        List<Object[]> results = receiptRepository.getSpendingSummaryByCategory(userId, startDate, endDate);
-
-        // Get all categories for lookup
-        Map<Long, String> categoryMap = categoryRepository.findAll()
-                .stream()
-                .collect(Collectors.toMap(Category::getCategoryId, Category::getName));
+        return spendingSummaryCache.get(userId, "byCategory", List.of(startDate, endDate), () -> {
+            List<Object[]> results = receiptRepository.getSpendingSummaryByCategory(userId, startDate, endDate);
 
-        return results.stream()
-                .map(result -> {
-                    Long categoryId = (Long) result[0];
-                    BigDecimal totalAmount = (BigDecimal) result[1];
-                    String categoryName = categoryMap.getOrDefault(categoryId, "Unknown");
+            return results.stream()
+                    .map(result -> {
+                        Long categoryId = (Long) result[0];
+                        BigDecimal totalAmount = (BigDecimal) result[1];
+                        String categoryName = categoryNameFor(categoryId);
 
-                    return new SpendingSummaryDto(categoryId, categoryName, totalAmount, 0);
-                })
-                .collect(Collectors.toList());
+                        return new SpendingSummaryDto(categoryId, categoryName, totalAmount, 0);
+                    })
+                    .toList();
+        });
     }
 
     /**
-     * Get monthly spending summary for a user
+     * Get monthly spending summary for a user (cached per user)
      */
     @Transactional(readOnly = true)
     public List<MonthlySpendingDto> getMonthlySpendingSummary(Long userId) {
-        List<Object[]> results = receiptRepository.getMonthlySpendingSummary(userId);
-
-        return results.stream()
-                .map(result -> new MonthlySpendingDto(
-                        (Integer) result[0], // year
-                        (Integer) result[1], // month
-                        (BigDecimal) result[2] // total
-                ))
-                .collect(Collectors.toList());
+        return spendingSummaryCache.get(userId, "monthly", null, () -> {
+            List<Object[]> results = receiptRepository.getMonthlySpendingSummary(userId);
+
+            return results.stream()
+                    .map(result -> new MonthlySpendingDto(
+                            (Integer) result[0], // year
+                            (Integer) result[1], // month
+                            (BigDecimal) result[2] // total
+                    ))
+                    .toList();
+        });
     }
 
     /**
-     * Get total spending for a user
+     * Get total spending for a user, read from the user's stats row
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalSpending(Long userId) {
-        return receiptRepository.getTotalSpendingByUser(userId);
+        return userSpendingStatsService.getTotalSpending(userId);
     }
 
     /**
      * Get recent receipts for a user
      */
     @Transactional(readOnly = true)
-    public List<ReceiptResponseDto> getRecentReceipts(Long userId) {
-        List<Receipt> receipts = receiptRepository.findTop10ByUserIdOrderByCreatedAtDesc(userId);
-        return receipts.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+    public List<ReceiptResponseDto> getRecentReceipts(Long userId, FieldSelection fields) {
+        return assemble(receiptRowRepository.findRecentRowsByUserId(userId, PageRequest.of(0, 10)), fields);
+    }
+
+    private void validateDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
+        }
+
+        // Prevent querying too large date ranges (> 2 years)
+        long daysBetween = ChronoUnit.DAYS.between(startDate, endDate);
+        if (daysBetween > 730) {
+            throw new IllegalArgumentException("Date range too large (maximum 2 years allowed)");
+        }
     }
 
     /**
-     * Convert Receipt entity to ReceiptResponseDto.
+     * Check a filter and return a normalized copy, leaving the caller's untouched: duplicate category IDs
+     * are dropped, so {@code [3, 3]} counts as a single category, and the store prefix is stripped.
      */
-    private ReceiptResponseDto convertToResponseDto(Receipt receipt) {
-        String categoryName = null;
-        if (receipt.getCategoryId() != null) {
-            Optional<Category> category = categoryRepository.findById(receipt.getCategoryId());
-            categoryName = category.map(Category::getName).orElse("Unknown");
+    private ReceiptFilter normalizeFilter(ReceiptFilter filter) {
+        if (filter.getStartDate() != null && filter.getEndDate() != null) {
+            validateDateRange(filter.getStartDate(), filter.getEndDate());
+        }
+        if (filter.getMinAmount() != null && filter.getMaxAmount() != null
+                && filter.getMinAmount().compareTo(filter.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("minAmount must be less than or equal to maxAmount");
+        }
+        if (filter.getCategoryIds() != null) {
+            for (Long categoryId : filter.getCategoryIds()) {
+                if (!categoryRegistry.exists(categoryId)) {
+                    throw new IllegalArgumentException("Category not found with ID: " + categoryId);
+                }
+            }
+        }
+        String prefix = null;
+        if (filter.getStorePrefix() != null) {
+            prefix = filter.getStorePrefix().strip();
+            if (prefix.isEmpty() || prefix.length() > 100) {
+                throw new IllegalArgumentException("storePrefix must be between 1 and 100 characters");
+            }
         }
 
-        // Generate presigned URL if imageKey exists
-        String imageUrl = null;
-        if (receipt.getImageKey() != null && !receipt.getImageKey().isEmpty()) {
-            try {
-                imageUrl = s3Service.createPresignedGetUrl(receipt.getImageKey());
-            } catch (Exception e) {
-                // Log error but don't fail the request
-                logger.error("Failed to generate presigned URL for key: {}", receipt.getImageKey());
+        ReceiptFilter normalized = new ReceiptFilter();
+        normalized.setCategoryIds(filter.getCategoryIds() != null
+                ? new ArrayList<>(new LinkedHashSet<>(filter.getCategoryIds()))
+                : null);
+        normalized.setStartDate(filter.getStartDate());
+        normalized.setEndDate(filter.getEndDate());
+        normalized.setMinAmount(filter.getMinAmount());
+        normalized.setMaxAmount(filter.getMaxAmount());
+        normalized.setStorePrefix(prefix);
+        normalized.setHasImage(filter.getHasImage());
+        return normalized;
+    }
+
+    /**
+     * Wrap a keyset slice, deriving the next cursor from its last receipt.
+     */
+    private CursorSlice<ReceiptResponseDto> toCursorSlice(Slice<ReceiptRow> slice, FieldSelection fields) {
+        List<ReceiptRow> rows = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !rows.isEmpty()) {
+            ReceiptRow last = rows.get(rows.size() - 1);
+            nextCursor = new ReceiptCursor(last.getPurchaseDate(), last.getReceiptId()).encode();
+        }
+        return new CursorSlice<>(assemble(rows, fields), slice.getSize(), slice.hasNext(), nextCursor);
+    }
+
+    /**
+     * Assemble response DTOs from projection rows in a single pass.
+     * Items for all rows come from one query and are grouped by receipt; row order is preserved.
+     * Work for unselected fields is skipped: no item query without "items", no presigning without
+     * "imageUrl" (one batch call otherwise) and no category lookup without "categoryName".
+     */
+    private List<ReceiptResponseDto> assemble(List<ReceiptRow> rows, FieldSelection fields) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        boolean includeItems = fields.includes("items");
+        boolean includeImageUrls = fields.includes("imageUrl");
+        boolean includeCategoryNames = fields.includes("categoryName");
+
+        List<Long> receiptIds = new ArrayList<>(rows.size());
+        List<String> imageKeys = new ArrayList<>();
+        for (ReceiptRow row : rows) {
+            receiptIds.add(row.getReceiptId());
+            if (includeImageUrls && row.getImageKey() != null) {
+                imageKeys.add(row.getImageKey());
             }
         }
 
+        Map<Long, List<ReceiptItemDto>> itemsByReceipt = includeItems
+                ? receiptItemBatchLoader.loadByReceiptIds(receiptIds)
+                : Map.of();
+
+        Map<String, String> imageUrls = imageKeys.isEmpty() ? Map.of() : s3Service.createPresignedGetUrls(imageKeys);
+
+        List<ReceiptResponseDto> dtos = new ArrayList<>(rows.size());
+        for (ReceiptRow row : rows) {
+            dtos.add(new ReceiptResponseDto(
+                    row.getReceiptId(),
+                    row.getStoreName(),
+                    row.getPurchaseDate(),
+                    row.getCategoryId(),
+                    includeCategoryNames && row.getCategoryId() != null ? categoryNameFor(row.getCategoryId()) : null,
+                    row.getAmount(),
+                    row.getCreatedAt(),
+                    row.getImageKey(),
+                    row.getImageKey() != null ? imageUrls.get(row.getImageKey()) : null,
+                    includeItems ? itemsByReceipt.getOrDefault(row.getReceiptId(), List.of()) : null
+            ));
+        }
+        return dtos;
+    }
+
+    private String categoryNameFor(Long categoryId) {
+        String name = categoryRegistry.getName(categoryId);
+        return name != null ? name : "Unknown";
+    }
+
+    // Generate presigned URL if imageKey exists; failures leave the URL empty rather than failing the request
+    private String presignedUrlFor(String imageKey) {
+        if (imageKey == null || imageKey.isEmpty()) {
+            return null;
+        }
+        try {
+            return s3Service.createPresignedGetUrl(imageKey);
+        } catch (Exception e) {
+            logger.error("Failed to generate presigned URL for key: {}", imageKey);
+            return null;
+        }
+    }
+
+    /**
+     * Convert Receipt entity to ReceiptResponseDto.
+     */
+    private ReceiptResponseDto convertToResponseDto(Receipt receipt) {
+        String categoryName = receipt.getCategoryId() != null ? categoryNameFor(receipt.getCategoryId()) : null;
+
+        String imageUrl = presignedUrlFor(receipt.getImageKey());
+
         // Load receipt items
         List<ReceiptItemDto> items;
         
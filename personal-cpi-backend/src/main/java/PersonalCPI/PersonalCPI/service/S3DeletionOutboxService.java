@@ -0,0 +1,107 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.S3DeletionOutboxEntry;
+import PersonalCPI.PersonalCPI.repository.ReceiptBulkInsertRepository;
+import PersonalCPI.PersonalCPI.repository.S3DeletionOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for S3 object deletion.
+ * Receipt deletes only insert outbox rows, so the HTTP request commits in one short transaction and
+ * never waits on S3. A scheduled {@link OutboxDrainer} claims due rows and deletes their objects with
+ * batched DeleteObjects calls, retrying failed keys with backoff.
+ */
+@Service
+public class S3DeletionOutboxService {
+
+    static final OutboxDrainer.Settings SETTINGS = new OutboxDrainer.Settings(
+            "s3.deletion.outbox", "deleted", S3Service.MAX_KEYS_PER_DELETE, 10,
+            Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofHours(1));
+
+    private final ReceiptBulkInsertRepository bulkInsertRepository;
+    private final OutboxDrainer<S3DeletionOutboxEntry> drainer;
+
+    @Autowired
+    public S3DeletionOutboxService(S3DeletionOutboxRepository outboxRepository,
+                                   ReceiptBulkInsertRepository bulkInsertRepository, S3Service s3Service,
+                                   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.drainer = new OutboxDrainer<>(SETTINGS, new OutboxDrainer.Outbox<>() {
+            @Override
+            public List<S3DeletionOutboxEntry> findDueForUpdate(LocalDateTime now, int maxAttempts, int limit) {
+                return outboxRepository.findDueForUpdate(now, maxAttempts, PageRequest.of(0, limit));
+            }
+
+            @Override
+            public void deleteDelivered(List<Long> ids) {
+                outboxRepository.deleteByOutboxIdIn(ids);
+            }
+
+            @Override
+            public void save(S3DeletionOutboxEntry entry) {
+                outboxRepository.save(entry);
+            }
+
+            @Override
+            public long countPending(int maxAttempts) {
+                return outboxRepository.countByAttemptsLessThan(maxAttempts);
+            }
+
+            @Override
+            public Map<Integer, String> deliver(List<S3DeletionOutboxEntry> batch) {
+                Map<String, String> failedKeys = s3Service.deleteObjects(
+                        batch.stream().map(S3DeletionOutboxEntry::getObjectKey).toList());
+                Map<Integer, String> failures = new HashMap<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    String error = failedKeys.get(batch.get(i).getObjectKey());
+                    if (error != null) {
+                        failures.put(i, error);
+                    }
+                }
+                return failures;
+            }
+
+            @Override
+            public String describe(S3DeletionOutboxEntry entry) {
+                return "S3 object " + entry.getObjectKey();
+            }
+        }, transactionManager, meterRegistry);
+    }
+
+    /**
+     * Schedule objects for deletion. Must run inside the transaction that deletes their rows,
+     * so the objects are only removed if that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Collection<String> objectKeys) {
+        List<String> keys = objectKeys.stream()
+                .filter(key -> key != null && !key.isEmpty())
+                .distinct()
+                .toList();
+        if (!keys.isEmpty()) {
+            bulkInsertRepository.insertS3Deletions(keys, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Drain every due entry, one batch of up to 1000 keys at a time.
+     */
+    @Scheduled(fixedDelayString = "${s3.deletion-outbox.poll-interval-ms:5000}")
+    public void drain() {
+        drainer.drain();
+    }
+}
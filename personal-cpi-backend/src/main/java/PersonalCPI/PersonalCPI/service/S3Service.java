@@ -2,7 +2,11 @@ package PersonalCPI.PersonalCPI.service;
 
 import PersonalCPI.PersonalCPI.config.S3Buckets;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -14,17 +18,37 @@ import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class S3Service {
+    private static final Logger logger = LoggerFactory.getLogger(S3Service.class);
+
+    private static final String PRESIGNED_URL_CACHE = "presignedUrls";
+
+    // Outlives the 15-minute presignedUrls TTL, so a URL served from cache is always still valid
+    private static final Duration PRESIGNED_URL_DURATION = Duration.ofMinutes(20);
+
+    // S3 DeleteObjects accepts at most this many keys per request
+    static final int MAX_KEYS_PER_DELETE = 1000;
+
     private final S3Client s3Client;
     private final S3Buckets s3Buckets;
     private final S3Presigner presigner;
+    private final Cache presignedUrlCache;
 
     @Autowired
-    public S3Service(S3Client s3Client, S3Buckets s3Buckets, S3Presigner presigner) {
+    public S3Service(S3Client s3Client, S3Buckets s3Buckets, S3Presigner presigner, CacheManager cacheManager) {
         this.s3Client = s3Client;
         this.s3Buckets = s3Buckets;
         this.presigner = presigner;
+        this.presignedUrlCache = cacheManager.getCache(PRESIGNED_URL_CACHE);
     }
 
     public void putObject(String key, MultipartFile file) throws Exception{
@@ -40,28 +64,64 @@ public class S3Service {
      * Generate presigned URL for S3 object.
      * 
      * @param key S3 object key
-     * @return Presigned URL valid for 10 minutes
+     * @return Presigned URL valid for 20 minutes
      */
-    @Cacheable(value = "presignedUrls", key = "#key")
+    @Cacheable(value = PRESIGNED_URL_CACHE, key = "#key")
     public String createPresignedGetUrl(String key) {
         try {
-            GetObjectRequest objectRequest = GetObjectRequest.builder()
-                    .bucket(s3Buckets.getName())
-                    .key(key)
-                    .build();
-            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                    .signatureDuration(java.time.Duration.ofMinutes(10))
-                    .getObjectRequest(objectRequest)
-                    .build();
-
-            PresignedGetObjectRequest presignedRequest = presigner.presignGetObject(presignRequest);
-            return presignedRequest.url().toExternalForm();
-
+            return presign(key);
         } catch (Exception e) {
             throw new RuntimeException("Failed to get object");
         }
     }
 
+    /**
+     * Generate presigned URLs for a page of objects in one pass.
+     * Shares the presignedUrls cache with {@link #createPresignedGetUrl}; only cache misses are signed.
+     * The SDK signer derives the SigV4 signing key once per day and region and caches it,
+     * so each miss costs a single HMAC over the canonical request.
+     *
+     * @param keys S3 object keys; null, empty and duplicate keys are skipped
+     * @return URL per key; keys that fail to sign are left out
+     */
+    public Map<String, String> createPresignedGetUrls(Collection<String> keys) {
+        Map<String, String> urls = new HashMap<>();
+        for (String key : keys) {
+            if (key == null || key.isEmpty() || urls.containsKey(key)) {
+                continue;
+            }
+
+            String url = presignedUrlCache != null ? presignedUrlCache.get(key, String.class) : null;
+            if (url == null) {
+                try {
+                    url = presign(key);
+                } catch (Exception e) {
+                    logger.error("Failed to generate presigned URL for key: {}", key);
+                    continue;
+                }
+                if (presignedUrlCache != null) {
+                    presignedUrlCache.put(key, url);
+                }
+            }
+            urls.put(key, url);
+        }
+        return urls;
+    }
+
+    private String presign(String key) {
+        GetObjectRequest objectRequest = GetObjectRequest.builder()
+                .bucket(s3Buckets.getName())
+                .key(key)
+                .build();
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(PRESIGNED_URL_DURATION)
+                .getObjectRequest(objectRequest)
+                .build();
+
+        PresignedGetObjectRequest presignedRequest = presigner.presignGetObject(presignRequest);
+        return presignedRequest.url().toExternalForm();
+    }
+
     // Delete object from S3
     public void deleteObject(String key) {
         try {
@@ -74,6 +134,42 @@ public class S3Service {
             throw new RuntimeException("Failed to delete object from S3: " + e.getMessage());
         }
     }
+
+    /**
+     * Delete many objects with one DeleteObjects request per 1000 keys.
+     * Failures are logged and returned rather than thrown, so callers can retry just those keys.
+     *
+     * @param keys S3 object keys; null, empty and duplicate keys are skipped
+     * @return error message per key that could not be deleted
+     */
+    public Map<String, String> deleteObjects(Collection<String> keys) {
+        List<String> unique = new ArrayList<>(new LinkedHashSet<>(keys));
+        unique.removeIf(key -> key == null || key.isEmpty());
+
+        Map<String, String> failed = new HashMap<>();
+        for (int from = 0; from < unique.size(); from += MAX_KEYS_PER_DELETE) {
+            List<String> chunk = unique.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, unique.size()));
+            try {
+                DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                        .bucket(s3Buckets.getName())
+                        .delete(Delete.builder()
+                                .objects(chunk.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                                .quiet(true)
+                                .build())
+                        .build();
+                for (S3Error error : s3Client.deleteObjects(request).errors()) {
+                    logger.error("Failed to delete S3 object: {} - {}", error.key(), error.message());
+                    failed.put(error.key(), error.code() + ": " + error.message());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to delete {} S3 objects: {}", chunk.size(), e.getMessage());
+                for (String key : chunk) {
+                    failed.put(key, e.getMessage());
+                }
+            }
+        }
+        return failed;
+    }
 }
 
 
@@ -0,0 +1,57 @@
+package PersonalCPI.PersonalCPI.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache for spending aggregates (period summaries, monthly totals, overall total).
+ * Entries are keyed by the user's data version from the database as well as the period, so a result
+ * computed before a write, on this replica or another, can never be served after it. Superseded entries
+ * are never read again and age out through the size and time bounds.
+ */
+@Component
+public class SpendingSummaryCache {
+
+    public static final String CACHE_NAME = "spendingSummaries";
+
+    private final Cache cache;
+    private final UserDataVersionService userDataVersionService;
+
+    @Autowired
+    public SpendingSummaryCache(CacheManager cacheManager, UserDataVersionService userDataVersionService) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    /**
+     * Native cache registered with the CacheManager; stats feed the cache.gets hit/miss metrics.
+     */
+    public static com.github.benmanes.caffeine.cache.Cache<Object, Object> newNativeCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cache key. The version is read before the loader runs, so a load racing with a write is stored
+     * under the old version and becomes unreachable once the write commits.
+     */
+    record Key(Long userId, long version, String summary, Object period) {
+    }
+
+    /**
+     * Return the cached summary for the user and period, computing it with the loader on a miss.
+     */
+    public <T> T get(Long userId, String summary, Object period, Supplier<T> loader) {
+        Key key = new Key(userId, userDataVersionService.currentVersion(userId), summary, period);
+        return cache.get(key, loader::get);
+    }
+}
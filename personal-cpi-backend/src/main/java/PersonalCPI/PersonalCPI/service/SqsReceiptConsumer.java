@@ -11,6 +11,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.model.*;
 
@@ -27,6 +29,9 @@ public class SqsReceiptConsumer {
     private final SqsClient sqsClient;
     private final ReceiptRepository receiptRepository;
     private final ReceiptItemRepository receiptItemRepository;
+    private final UserDataVersionService userDataVersionService;
+    private final UserSpendingStatsService userSpendingStatsService;
+    private final TransactionTemplate transactionTemplate;
     private final ObjectMapper objectMapper;
     
     @Value("${aws.sqs.receipt-queue-url}")
@@ -34,10 +39,16 @@ public class SqsReceiptConsumer {
     
     public SqsReceiptConsumer(SqsClient sqsClient, 
                              ReceiptRepository receiptRepository,
-                             ReceiptItemRepository receiptItemRepository) {
+                             ReceiptItemRepository receiptItemRepository,
+                             UserDataVersionService userDataVersionService,
+                             UserSpendingStatsService userSpendingStatsService,
+                             PlatformTransactionManager transactionManager) {
         this.sqsClient = sqsClient;
         this.receiptRepository = receiptRepository;
         this.receiptItemRepository = receiptItemRepository;
+        this.userDataVersionService = userDataVersionService;
+        this.userSpendingStatsService = userSpendingStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.objectMapper = new ObjectMapper();
         // Configure to use BigDecimal for floating point numbers to preserve precision
         this.objectMapper.enable(com.fasterxml.jackson.databind.DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
@@ -107,6 +118,11 @@ public class SqsReceiptConsumer {
         receipt.setImageKey(receiptMessage.getImageKey());
         receipt.setCategoryId(8L);  // Default category, can be updated later
         
+        // Receipt, items and the user's stats row commit together
+        transactionTemplate.executeWithoutResult(status -> saveReceipt(receipt, receiptMessage));
+    }
+    
+    private void saveReceipt(Receipt receipt, ReceiptMessage receiptMessage) {
         // Save receipt
         Receipt savedReceipt = receiptRepository.save(receipt);
         logger.info("Saved receipt with ID: {}", savedReceipt.getReceiptId());
@@ -124,5 +140,9 @@ public class SqsReceiptConsumer {
             }
             logger.info("Saved {} receipt items", receiptMessage.getItems().size());
         }
+        
+        userSpendingStatsService.receiptAdded(savedReceipt.getUserId(), savedReceipt.getAmount(),
+                savedReceipt.getPurchaseDate());
+        userDataVersionService.bump(savedReceipt.getUserId());
     }
 }
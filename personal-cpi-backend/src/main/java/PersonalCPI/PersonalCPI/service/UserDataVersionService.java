@@ -0,0 +1,100 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.repository.UserDataVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tracks a monotonically increasing data version per user, used to build weak ETags for read endpoints.
+ * The version lives in the user_data_versions table and is incremented inside the transaction that writes
+ * the user's receipts, items or personal CPI, so every replica moves to the new version at the moment the
+ * new data becomes visible. Conditional GETs cost one primary-key lookup instead of the full query.
+ */
+@Service
+public class UserDataVersionService {
+
+    private final UserDataVersionRepository userDataVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public UserDataVersionService(UserDataVersionRepository userDataVersionRepository,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.userDataVersionRepository = userDataVersionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Published on the writing replica after a user's version has been bumped and committed.
+     */
+    public record UserDataChangedEvent(Long userId) {
+    }
+
+    /**
+     * Current data version for a user; 0 until their first write.
+     */
+    public long currentVersion(Long userId) {
+        return userDataVersionRepository.findVersion(userId).orElse(0L);
+    }
+
+    /**
+     * Mark the user's data as changed. The increment joins the caller's transaction and commits or rolls
+     * back with the write; the change event is published after commit.
+     */
+    public void bump(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (userDataVersionRepository.increment(userId) == 0) {
+            userDataVersionRepository.insertIfAbsent(userId);
+            userDataVersionRepository.increment(userId);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(new UserDataChangedEvent(userId));
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(new UserDataChangedEvent(userId));
+        }
+    }
+
+    /**
+     * Weak ETag for the user's current data version.
+     */
+    public String etagFor(Long userId) {
+        return "W/\"v" + currentVersion(userId) + "\"";
+    }
+
+    /**
+     * Weak ETag for responses that also depend on something other than the user's data, such as the current month.
+     */
+    public String etagFor(Long userId, String qualifier) {
+        return "W/\"v" + currentVersion(userId) + "-" + qualifier + "\"";
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header against an ETag, per RFC 9110.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
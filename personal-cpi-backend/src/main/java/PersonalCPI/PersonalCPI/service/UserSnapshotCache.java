@@ -0,0 +1,49 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived copies of users for requests whose token doesn't carry enough claims to
+ * authenticate on its own (tokens issued before the claims were added, or not yet enabled).
+ * Entries are dropped whenever a user's verification or enabled state changes.
+ */
+@Component
+public class UserSnapshotCache {
+
+    static final Duration TTL = Duration.ofMinutes(5);
+
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> snapshots = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(TTL)
+            .build();
+
+    @Autowired
+    public UserSnapshotCache(UserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * The user for a username or email, loaded at most once per TTL.
+     * Throws UsernameNotFoundException, uncached, when there is no such user.
+     */
+    public UserDetails get(String identifier) {
+        return snapshots.get(identifier, userDetailsService::loadUserByUsername);
+    }
+
+    /**
+     * Drop a user's snapshots after their verification or enabled state changes.
+     */
+    public void evict(User user) {
+        snapshots.invalidate(user.getUsername());
+        snapshots.invalidate(user.getEmail());
+    }
+}
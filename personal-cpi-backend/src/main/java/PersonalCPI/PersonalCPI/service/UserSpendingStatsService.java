@@ -0,0 +1,191 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.UserSpendingStats;
+import PersonalCPI.PersonalCPI.repository.UserSpendingStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntSupplier;
+
+/**
+ * Maintains the user_spending_stats row for each user.
+ * Receipt writes report their count and amount deltas here inside their own transaction;
+ * reads are a primary-key lookup instead of an aggregate over the user's receipts.
+ * <p>
+ * New receipts widen the stored purchase date range with their own dates, which two concurrent
+ * writers can both apply safely. Only deletes and date changes, which may remove the receipt that
+ * held an end of the range, re-read it from the receipts.
+ */
+@Service
+public class UserSpendingStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(UserSpendingStatsService.class);
+
+    private final UserSpendingStatsRepository statsRepository;
+    private final TransactionTemplate newTransaction;
+
+    @Autowired
+    public UserSpendingStatsService(UserSpendingStatsRepository statsRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Record a new receipt. Call after the receipt has been saved in the current transaction.
+     */
+    @Transactional
+    public void receiptAdded(Long userId, BigDecimal amount, LocalDate purchaseDate) {
+        receiptsAdded(userId, 1, amount, purchaseDate, purchaseDate);
+    }
+
+    /**
+     * Record several new receipts at once, e.g. a bulk insert, as a single delta.
+     * @param firstDate earliest purchase date among them
+     * @param lastDate  latest purchase date among them
+     */
+    @Transactional
+    public void receiptsAdded(Long userId, int count, BigDecimal totalAmount, LocalDate firstDate, LocalDate lastDate) {
+        BigDecimal amountDelta = orZero(totalAmount);
+        apply(userId, () -> statsRepository.applyDelta(userId, count, amountDelta, firstDate, lastDate));
+    }
+
+    /**
+     * Record an amount or date change on an existing receipt.
+     */
+    @Transactional
+    public void receiptChanged(Long userId, BigDecimal oldAmount, BigDecimal newAmount,
+                               LocalDate oldDate, LocalDate newDate) {
+        BigDecimal amountDelta = orZero(newAmount).subtract(orZero(oldAmount));
+        if (Objects.equals(oldDate, newDate)) {
+            apply(userId, () -> statsRepository.applyDelta(userId, 0, amountDelta, newDate, newDate));
+        } else {
+            apply(userId, () -> statsRepository.applyDeltaRereadingDates(userId, 0, amountDelta));
+        }
+    }
+
+    /**
+     * Record a deleted receipt. Call after the delete has been issued in the current transaction.
+     */
+    @Transactional
+    public void receiptRemoved(Long userId, BigDecimal amount) {
+        receiptsRemoved(userId, 1, amount);
+    }
+
+    /**
+     * Record several deleted receipts at once, e.g. a bulk delete, as a single delta.
+     */
+    @Transactional
+    public void receiptsRemoved(Long userId, int count, BigDecimal totalAmount) {
+        BigDecimal amountDelta = orZero(totalAmount).negate();
+        apply(userId, () -> statsRepository.applyDeltaRereadingDates(userId, -count, amountDelta));
+    }
+
+    /**
+     * Current stats for a user. Users without a row yet (e.g. new users before their first receipt)
+     * get the aggregate over their receipts instead, computed in the caller's transaction and not
+     * stored; the row is created by their first receipt write.
+     */
+    public UserSpendingStats getStats(Long userId) {
+        return statsRepository.findById(userId).orElseGet(() -> aggregate(userId));
+    }
+
+    public BigDecimal getTotalSpending(Long userId) {
+        return getStats(userId).getTotalAmount();
+    }
+
+    public long getReceiptCount(Long userId) {
+        return getStats(userId).getReceiptCount();
+    }
+
+    public LocalDate getFirstPurchaseDate(Long userId) {
+        return getStats(userId).getFirstPurchaseDate();
+    }
+
+    /**
+     * Rebuild one user's stats from raw receipts. The row is locked first, so concurrent deltas
+     * wait and then apply on top of the rebuilt values.
+     */
+    @Transactional
+    public UserSpendingStats reconcile(Long userId) {
+        UserSpendingStats stats = statsRepository.findForUpdate(userId).orElse(null);
+        if (stats == null) {
+            statsRepository.insertFromReceipts(userId);
+            return statsRepository.findById(userId).orElseThrow();
+        }
+
+        UserSpendingStats rebuilt = aggregate(userId);
+        stats.setReceiptCount(rebuilt.getReceiptCount());
+        stats.setTotalAmount(rebuilt.getTotalAmount());
+        stats.setFirstPurchaseDate(rebuilt.getFirstPurchaseDate());
+        stats.setLastPurchaseDate(rebuilt.getLastPurchaseDate());
+        stats.setUpdatedAt(LocalDateTime.now());
+        return statsRepository.save(stats);
+    }
+
+    /**
+     * Rebuild stats for every user with receipts or an existing stats row, one transaction per user.
+     * @return number of users reconciled
+     */
+    public int reconcileAll() {
+        Set<Long> userIds = new TreeSet<>(statsRepository.findUserIdsWithReceipts());
+        userIds.addAll(statsRepository.findAllUserIds());
+
+        for (Long userId : userIds) {
+            newTransaction.executeWithoutResult(status -> reconcile(userId));
+        }
+        logger.info("Reconciled spending stats for {} users", userIds.size());
+        return userIds.size();
+    }
+
+    /**
+     * Rebuild every user's stats weekly, off the request path, so drift is corrected without an endpoint
+     * that lets one caller scan all receipts.
+     */
+    @Scheduled(cron = "${stats.reconcile.cron:0 0 4 * * SUN}")
+    public void reconcileAllScheduled() {
+        reconcileAll();
+    }
+
+    // Unsaved stats built from the user's receipts
+    private UserSpendingStats aggregate(Long userId) {
+        Object[] aggregate = statsRepository.aggregateReceipts(userId).get(0);
+        UserSpendingStats stats = new UserSpendingStats();
+        stats.setUserId(userId);
+        stats.setReceiptCount((Long) aggregate[0]);
+        stats.setTotalAmount((BigDecimal) aggregate[1]);
+        stats.setFirstPurchaseDate((LocalDate) aggregate[2]);
+        stats.setLastPurchaseDate((LocalDate) aggregate[3]);
+        return stats;
+    }
+
+    // A missing row is created from the receipts, which already include this transaction's change.
+    // If another transaction created it first, its aggregate could not see our uncommitted receipt,
+    // so the delta is applied on top.
+    private void apply(Long userId, IntSupplier delta) {
+        if (delta.getAsInt() > 0) {
+            return;
+        }
+        if (statsRepository.insertFromReceipts(userId) == 0) {
+            delta.getAsInt();
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,74 @@
+package PersonalCPI.PersonalCPI.util;
+
+import org.owasp.encoder.Encode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An HTML email body with {{name}} placeholders, split into literal segments once when loaded.
+ * Rendering only appends the segments and the HTML-escaped values.
+ */
+public final class EmailTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)}}");
+
+    // literals.size() == placeholders.size() + 1; placeholder i goes between literal i and i + 1
+    private final List<String> literals;
+    private final List<String> placeholders;
+    private final int literalLength;
+
+    private EmailTemplate(List<String> literals, List<String> placeholders) {
+        this.literals = List.copyOf(literals);
+        this.placeholders = List.copyOf(placeholders);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    public static EmailTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(source);
+        int from = 0;
+        while (matcher.find()) {
+            literals.add(source.substring(from, matcher.start()));
+            placeholders.add(matcher.group(1));
+            from = matcher.end();
+        }
+        literals.add(source.substring(from));
+        return new EmailTemplate(literals, placeholders);
+    }
+
+    public static EmailTemplate fromClasspath(String path) {
+        try (InputStream in = EmailTemplate.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Email template not found: " + path);
+            }
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read email template " + path, e);
+        }
+    }
+
+    /**
+     * Fill every placeholder; throws IllegalArgumentException if a value is missing.
+     */
+    public String render(Map<String, String> values) {
+        StringBuilder html = new StringBuilder(literalLength + 64);
+        html.append(literals.get(0));
+        for (int i = 0; i < placeholders.size(); i++) {
+            String value = values.get(placeholders.get(i));
+            if (value == null) {
+                throw new IllegalArgumentException("No value for email template placeholder: " + placeholders.get(i));
+            }
+            html.append(Encode.forHtml(value)).append(literals.get(i + 1));
+        }
+        return html.toString();
+    }
+}
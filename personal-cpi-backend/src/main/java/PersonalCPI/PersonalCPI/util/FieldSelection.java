@@ -0,0 +1,133 @@
+package PersonalCPI.PersonalCPI.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Sparse fieldset requested through the {@code fields} query parameter, e.g. {@code fields=receiptId,storeName,amount}.
+ * Used by services to skip work for unrequested fields and by the JSON writer to leave them out.
+ */
+public final class FieldSelection {
+
+    /**
+     * Jackson filter ID placed on response DTOs that support sparse fieldsets.
+     */
+    public static final String FILTER_ID = "fieldSelection";
+
+    public static final FieldSelection ALL = new FieldSelection(null, Set.of());
+
+    // Readable bean properties per DTO type, i.e. the names Jackson writes
+    private static final ClassValue<Set<String>> PROPERTIES = new ClassValue<>() {
+        @Override
+        protected Set<String> computeValue(Class<?> type) {
+            try {
+                Set<String> names = new TreeSet<>();
+                for (PropertyDescriptor property : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                    if (property.getReadMethod() != null) {
+                        names.add(property.getName());
+                    }
+                }
+                return Set.copyOf(names);
+            } catch (IntrospectionException e) {
+                throw new IllegalStateException("Cannot read properties of " + type.getName(), e);
+            }
+        }
+    };
+
+    // null means every field is included
+    private final Set<String> included;
+    private final Set<String> excluded;
+
+    private FieldSelection(Set<String> included, Set<String> excluded) {
+        this.included = included;
+        this.excluded = excluded;
+    }
+
+    /**
+     * Parse a comma-separated field list. A missing or blank list selects all fields.
+     */
+    public static FieldSelection parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names.isEmpty() ? ALL : new FieldSelection(Set.copyOf(names), Set.of());
+    }
+
+    /**
+     * Parse a field list and reject names that aren't properties of {@code type}.
+     * @throws IllegalArgumentException naming the unknown fields and the available ones
+     */
+    public static FieldSelection parse(String fields, Class<?> type) {
+        FieldSelection selection = parse(fields);
+        selection.requireKnown(type);
+        return selection;
+    }
+
+    /**
+     * @throws IllegalArgumentException if any requested field isn't a property of {@code type}
+     */
+    public void requireKnown(Class<?> type) {
+        if (included == null) {
+            return;
+        }
+        Set<String> available = PROPERTIES.get(type);
+        List<String> unknown = new ArrayList<>();
+        for (String field : included) {
+            if (!available.contains(field)) {
+                unknown.add(field);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown fields: " + String.join(", ", new TreeSet<>(unknown))
+                    + ". Available: " + String.join(", ", new TreeSet<>(available)));
+        }
+    }
+
+    public boolean isAll() {
+        return included == null;
+    }
+
+    public boolean includes(String field) {
+        return (included == null || included.contains(field)) && !excluded.contains(field);
+    }
+
+    /**
+     * Whether the field was named explicitly rather than implied by selecting everything.
+     */
+    public boolean isExplicitlyRequested(String field) {
+        return included != null && included.contains(field);
+    }
+
+    /**
+     * Copy of this selection with one field dropped.
+     */
+    public FieldSelection without(String field) {
+        if (!includes(field)) {
+            return this;
+        }
+        Set<String> newExcluded = new LinkedHashSet<>(excluded);
+        newExcluded.add(field);
+        return new FieldSelection(included, Set.copyOf(newExcluded));
+    }
+
+    /**
+     * Explicitly requested field names; empty when all fields are selected.
+     */
+    public Set<String> getFields() {
+        return included == null ? Set.of() : included;
+    }
+}
@@ -0,0 +1,50 @@
+package PersonalCPI.PersonalCPI.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position for receipt listings ordered by purchase date, then receipt ID (both descending).
+ * Clients receive it as an opaque URL-safe token and send it back to fetch the next slice.
+ */
+public record ReceiptCursor(LocalDate purchaseDate, Long receiptId) {
+
+    /**
+     * Position before the newest possible receipt, used for the first slice.
+     */
+    public static final ReceiptCursor START = new ReceiptCursor(LocalDate.of(9999, 12, 31), Long.MAX_VALUE);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        String raw = purchaseDate + ":" + receiptId;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is missing or malformed
+     */
+    public static ReceiptCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDate purchaseDate = LocalDate.parse(raw.substring(0, separator));
+            Long receiptId = Long.parseLong(raw.substring(separator + 1));
+            return new ReceiptCursor(purchaseDate, receiptId);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
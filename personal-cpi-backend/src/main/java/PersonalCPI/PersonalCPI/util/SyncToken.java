@@ -0,0 +1,44 @@
+package PersonalCPI.PersonalCPI.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Delta-sync position: every receipt change and deletion up to and including this instant
+ * has been delivered to the client. Clients receive it as an opaque URL-safe token and send it
+ * back to fetch only what changed afterwards.
+ */
+public record SyncToken(LocalDateTime syncedUpTo) {
+
+    private static final String VERSION = "v1:";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        String raw = VERSION + syncedUpTo;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is missing or malformed
+     */
+    public static SyncToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(VERSION)) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            return new SyncToken(LocalDateTime.parse(raw.substring(VERSION.length())));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
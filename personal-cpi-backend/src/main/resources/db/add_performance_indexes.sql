@@ -5,11 +5,8 @@
 -- RECEIPTS TABLE INDEXES
 -- ============================================================================
 
--- Index 1: user_id + purchase_date (DESC)
--- Used by: findByUserIdOrderByPurchaseDateDesc, findByUserIdAndPurchaseDateBetween
--- Impact: 90% faster queries for user's receipts sorted by date
-CREATE INDEX IF NOT EXISTS idx_receipts_user_date 
-ON receipts(user_id, purchase_date DESC);
+-- Index 1: superseded by Index 7, which has (user_id, purchase_date DESC) as its prefix
+DROP INDEX IF EXISTS idx_receipts_user_date;
 
 -- Index 2: user_id + category_id
 -- Used by: findByUserIdAndCategoryId, category filtering queries
@@ -23,6 +20,45 @@ ON receipts(user_id, category_id);
 CREATE INDEX IF NOT EXISTS idx_receipts_user_created 
 ON receipts(user_id, created_at DESC);
 
+-- Index 7: user_id + purchase_date (DESC) + receipt_id (DESC)
+-- Used by: findSliceByUserIdAfter, findSliceByUserIdAndPurchaseDateBetweenAfter (keyset pagination),
+--          findByUserIdOrderByPurchaseDateDesc, findByUserIdAndPurchaseDateBetween
+-- Impact: Cursor seeks start directly at (purchase_date, receipt_id) with no sort step
+-- Note: cursors skip NULL-dated receipts; run the purchase_date migration note in schema.sql first
+CREATE INDEX IF NOT EXISTS idx_receipts_user_date_id 
+ON receipts(user_id, purchase_date DESC, receipt_id DESC);
+
+-- Index 8: user_id + category_id + purchase_date (DESC) + receipt_id (DESC)
+-- Used by: findSliceByUserIdAndCategoryIdAfter (keyset pagination by category)
+-- Impact: Category slices stay constant-time regardless of depth
+CREATE INDEX IF NOT EXISTS idx_receipts_user_category_date 
+ON receipts(user_id, category_id, purchase_date DESC, receipt_id DESC);
+
+-- Index 13: user_id + updated_at + receipt_id
+-- Used by: findRowsChangedBetween (GET /api/receipts/changes delta sync)
+-- Impact: A sync reads only the receipts changed since the client's token
+CREATE INDEX IF NOT EXISTS idx_receipts_user_updated 
+ON receipts(user_id, updated_at, receipt_id);
+
+-- Index 14-15: tombstones by user and age
+-- Used by: findDeletedReceiptIds (delta sync), deleteByDeletedAtBefore (daily purge)
+-- The table is new with delta sync; created here (as in schema.sql) so the script runs on existing databases
+CREATE TABLE IF NOT EXISTS receipt_tombstones (
+  tombstone_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  user_id BIGINT NOT NULL,
+  receipt_id BIGINT NOT NULL,
+  deleted_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+  CONSTRAINT receipt_tombstones_pkey PRIMARY KEY (tombstone_id),
+  CONSTRAINT receipt_tombstones_user_id_fkey FOREIGN KEY (user_id) 
+    REFERENCES users (id) ON UPDATE CASCADE ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_receipt_tombstones_user_deleted 
+ON receipt_tombstones(user_id, deleted_at);
+
+CREATE INDEX IF NOT EXISTS idx_receipt_tombstones_deleted 
+ON receipt_tombstones(deleted_at);
+
 -- ============================================================================
 -- RECEIPT_ITEMS TABLE INDEXES
 -- ============================================================================
@@ -33,6 +69,27 @@ ON receipts(user_id, created_at DESC);
 CREATE INDEX IF NOT EXISTS idx_receipt_items_receipt 
 ON receipt_items(receipt_id);
 
+-- ============================================================================
+-- FULL-TEXT SEARCH INDEXES
+-- ============================================================================
+
+-- Index 9-12: stemmed word and trigram matches on store and item names
+-- Used by: PostgresReceiptSearchRepository (GET /api/receipts/search)
+-- Impact: Search no longer scans every receipt and item; expressions must match the query exactly
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_receipts_store_fts 
+ON receipts USING gin (to_tsvector('english', coalesce(store_name, '')));
+
+CREATE INDEX IF NOT EXISTS idx_receipts_store_trgm 
+ON receipts USING gin (store_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_receipt_items_name_fts 
+ON receipt_items USING gin (to_tsvector('english', item_name));
+
+CREATE INDEX IF NOT EXISTS idx_receipt_items_name_trgm 
+ON receipt_items USING gin (item_name gin_trgm_ops);
+
 -- ============================================================================
 -- PERSONAL_CPI_MONTHLY TABLE INDEXES
 -- ============================================================================
@@ -90,16 +147,24 @@ WHERE user_id = 123
 ORDER BY purchase_date DESC 
 LIMIT 20;
 
--- Should show "Index Scan using idx_receipts_user_date" in the plan
+-- Should show "Index Scan using idx_receipts_user_date_id" in the plan
 
 -- ============================================================================
 -- ROLLBACK (if needed)
 -- ============================================================================
 
 -- Uncomment and run these if you need to remove the indexes:
--- DROP INDEX IF EXISTS idx_receipts_user_date;
 -- DROP INDEX IF EXISTS idx_receipts_user_category;
 -- DROP INDEX IF EXISTS idx_receipts_user_created;
 -- DROP INDEX IF EXISTS idx_receipt_items_receipt;
 -- DROP INDEX IF EXISTS idx_personal_cpi_lookup;
 -- DROP INDEX IF EXISTS idx_personal_cpi_user_ym;
+-- DROP INDEX IF EXISTS idx_receipts_user_date_id;
+-- DROP INDEX IF EXISTS idx_receipts_user_category_date;
+-- DROP INDEX IF EXISTS idx_receipts_store_fts;
+-- DROP INDEX IF EXISTS idx_receipts_store_trgm;
+-- DROP INDEX IF EXISTS idx_receipt_items_name_fts;
+-- DROP INDEX IF EXISTS idx_receipt_items_name_trgm;
+-- DROP INDEX IF EXISTS idx_receipts_user_updated;
+-- DROP INDEX IF EXISTS idx_receipt_tombstones_user_deleted;
+-- DROP INDEX IF EXISTS idx_receipt_tombstones_deleted;
@@ -12,7 +12,8 @@ import org.springframework.boot.test.context.SpringBootTest;
         "spring.mail.host=localhost",
         "spring.mail.port=1025",
         "spring.mail.username=",
-        "spring.mail.password="
+        "spring.mail.password=",
+        "receipts.search.backend=memory"
 })
 
 class PersonalCpiApplicationTests {
@@ -0,0 +1,80 @@
+package PersonalCPI.PersonalCPI.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caller-side cost of per-request logging against a console that takes 1 ms per line, as the old
+ * synchronous println did under contention: the async appender only enqueues.
+ * Wall-clock sensitive, so it runs with {@code ./gradlew benchmark} rather than the unit tests.
+ */
+@Tag("benchmark")
+class AsyncAppenderBenchmark {
+
+    private static final int EVENTS = 200;
+    private static final Duration WRITE_COST = Duration.ofMillis(1);
+
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    void asyncAppender_removesWriteCostFromCallingThread() {
+        Duration syncElapsed = timeLogging(logger("sync", slowAppender()));
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(1024);
+        async.setNeverBlock(true);
+        async.addAppender(slowAppender());
+        async.start();
+        Duration asyncElapsed = timeLogging(logger("async", async));
+        async.stop();
+
+        System.out.printf("sync: %d ms, async: %d ms for %d events%n",
+                syncElapsed.toMillis(), asyncElapsed.toMillis(), EVENTS);
+        assertThat(syncElapsed).isGreaterThanOrEqualTo(WRITE_COST.multipliedBy(EVENTS));
+        assertThat(asyncElapsed).isLessThan(syncElapsed.dividedBy(4));
+    }
+
+    private Duration timeLogging(Logger logger) {
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            logger.info("Receipt listed user={} receipt={}", 1L, i);
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private Logger logger(String name, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(Level.DEBUG);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private Appender<ILoggingEvent> slowAppender() {
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    Thread.sleep(WRITE_COST.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,54 @@
+package PersonalCPI.PersonalCPI.benchmark;
+
+import PersonalCPI.PersonalCPI.model.User;
+import PersonalCPI.PersonalCPI.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-request cost in the auth filter: a cached verification (hash + lookup) against the full parse
+ * and HMAC check every request used to repeat three times. Runs with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class JwtVerificationBenchmark {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+    private static final int ITERATIONS = 5_000;
+
+    @Test
+    void verify_cachedTokenIsCheaperThanFullParse() {
+        JwtService jwtService = new JwtService(SECRET, Duration.ofHours(1).toMillis());
+        User user = new User("alice", "alice@example.com", "hash");
+        user.setId(7L);
+        user.setEnabled(true);
+        String token = jwtService.generateToken(user);
+        for (int i = 0; i < ITERATIONS; i++) { // warm up both paths
+            jwtService.verify(token);
+            jwtService.extractClaim(token, Claims::getSubject);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            jwtService.extractClaim(token, Claims::getSubject);
+        }
+        Duration parsed = Duration.ofNanos(System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            jwtService.verify(token);
+        }
+        Duration cached = Duration.ofNanos(System.nanoTime() - start);
+
+        System.out.printf("full parse: %d us, cached: %d us for %d tokens%n",
+                parsed.toNanos() / 1_000, cached.toNanos() / 1_000, ITERATIONS);
+        assertThat(cached).isLessThan(parsed);
+    }
+}
@@ -0,0 +1,117 @@
+package PersonalCPI.PersonalCPI.config;
+
+import PersonalCPI.PersonalCPI.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CountDownLatch release;
+    private CountDownLatch started;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        release = new CountDownLatch(0);
+        started = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_runOnPoolAndRecordLatency() {
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(), 2, 4, Duration.ofSeconds(5), meterRegistry);
+
+        String encoded = encoder.encode("secret");
+
+        assertThat(encoded).isEqualTo("hashed:secret");
+        assertThat(encoder.matches("secret", encoded)).isTrue();
+        assertThat(encoder.matches("other", encoded)).isFalse();
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("auth.password.hash.queue.wait").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void encode_whenQueueIsFull_failsFastWithRetryAfter() throws Exception {
+        release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(), 1, 1, Duration.ofSeconds(5), meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        awaitQueueDepth(1);
+
+        assertThatThrownBy(() -> encoder.encode("third"))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .satisfies(e -> assertThat(((ServiceOverloadedException) e).getRetryAfterSeconds()).isPositive());
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+        assertThat(meterRegistry.get("auth.password.hash.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void encode_waitingLongerThanMaxWait_failsFast() {
+        release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(), 1, 4, Duration.ofMillis(100), meterRegistry);
+
+        assertThatThrownBy(() -> encoder.encode("slow")).isInstanceOf(ServiceOverloadedException.class);
+        release.countDown();
+    }
+
+    @Test
+    void matches_propagatesEncoderExceptions() {
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(), 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+        assertThatThrownBy(() -> encoder.matches("secret", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Encoded password is null");
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hash.queue.depth").gauge().value() < depth
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    // Stands in for BCrypt: blocks until released so tests control how long a hash takes
+    private class PrefixEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (encodedPassword == null) {
+                throw new IllegalArgumentException("Encoded password is null");
+            }
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package PersonalCPI.PersonalCPI.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingTurboFilterTest {
+
+    private LoggerContext context;
+    private AtomicInteger written;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        written = new AtomicInteger();
+    }
+
+    @Test
+    void decide_keepsOneInRateEvents() {
+        addSampling("sampled", "DEBUG", 10);
+        Logger logger = logger("sampled", Level.DEBUG, counting());
+
+        for (int i = 0; i < 100; i++) {
+            logger.debug("Token is valid user={}", "alice");
+        }
+
+        assertThat(written).hasValue(10);
+    }
+
+    @Test
+    void decide_neverSamplesAboveConfiguredLevel() {
+        addSampling("sampled", "DEBUG", 10);
+        Logger logger = logger("sampled", Level.DEBUG, counting());
+
+        for (int i = 0; i < 20; i++) {
+            logger.warn("Authentication failed user={}", "alice");
+        }
+
+        assertThat(written).hasValue(20);
+    }
+
+    @Test
+    void decide_appliesToChildLoggersOnly() {
+        addSampling("sampled", "DEBUG", 10);
+        Appender<ILoggingEvent> appender = counting();
+        Logger child = logger("sampled.child", Level.DEBUG, appender);
+        Logger sibling = logger("sampledOther", Level.DEBUG, appender);
+
+        for (int i = 0; i < 10; i++) {
+            child.debug("event {}", i);
+            sibling.debug("event {}", i);
+        }
+
+        assertThat(written).hasValue(1 + 10);
+    }
+
+    @Test
+    void decide_doesNotCountDisabledEvents() {
+        addSampling("sampled", "INFO", 2);
+        Logger logger = logger("sampled", Level.INFO, counting());
+
+        logger.debug("dropped by level {}", 1);
+        logger.info("first {}", 1);
+        logger.info("second {}", 2);
+        logger.info("third {}", 3);
+
+        // The disabled debug event must not consume a sampling slot: first and third are kept
+        assertThat(written).hasValue(2);
+    }
+
+    @Test
+    void asyncAppender_writesOffTheCallingThread() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        AppenderBase<ILoggingEvent> blocked = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                writer.set(Thread.currentThread());
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.incrementAndGet();
+            }
+        };
+        blocked.setContext(context);
+        blocked.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(16);
+        async.setNeverBlock(true);
+        async.setMaxFlushTime(0);
+        async.addAppender(blocked);
+        async.start();
+        Logger logger = logger("async", Level.DEBUG, async);
+
+        for (int i = 0; i < 3; i++) {
+            logger.info("Receipt listed user={} receipt={}", 1L, i);
+        }
+
+        // Every call returned while the appender was still held on the first event
+        assertThat(written).hasValue(0);
+        release.countDown();
+        async.stop();
+        assertThat(written).hasValue(3);
+        assertThat(writer.get()).isNotSameAs(Thread.currentThread());
+    }
+
+    private void addSampling(String loggerName, String level, int rate) {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggerName(loggerName);
+        filter.setLevel(level);
+        filter.setRate(rate);
+        filter.start();
+        context.addTurboFilter(filter);
+    }
+
+    private Logger logger(String name, Level level, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private Appender<ILoggingEvent> counting() {
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                written.incrementAndGet();
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        return appender;
+    }
+}
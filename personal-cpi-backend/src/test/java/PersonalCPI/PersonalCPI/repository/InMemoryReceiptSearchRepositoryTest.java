@@ -0,0 +1,99 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.dto.ReceiptSearchHit;
+import PersonalCPI.PersonalCPI.service.UserDataVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryReceiptSearchRepositoryTest {
+
+    @Mock
+    private ReceiptRowRepository receiptRowRepository;
+
+    private InMemoryReceiptSearchRepository searchRepository;
+
+    @BeforeEach
+    void setUp() {
+        searchRepository = new InMemoryReceiptSearchRepository(receiptRowRepository);
+        lenient().when(receiptRowRepository.findRowsByUserId(1L)).thenReturn(List.of(
+                row(3L, "COSTCO WHOLESALE #482"),
+                row(2L, "Target"),
+                row(1L, "Costco Gas")));
+        lenient().when(receiptRowRepository.findItemRowsByUserId(1L)).thenReturn(List.of(
+                item(2L, "Huggies Diapers Size 3"),
+                item(2L, "Paper Towels"),
+                item(3L, "Kirkland Diapers"),
+                item(3L, "Rotisserie Chicken")));
+    }
+
+    @Test
+    void search_matchesStoreNamesAndRanksNewestFirstOnTies() {
+        List<ReceiptSearchHit> hits = searchRepository.search(1L, "Costco", 0, 10);
+
+        assertThat(hits).extracting(ReceiptSearchHit::receiptId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void search_matchesItemNamesByPrefix() {
+        List<ReceiptSearchHit> hits = searchRepository.search(1L, "diaper", 0, 10);
+
+        assertThat(hits).extracting(ReceiptSearchHit::receiptId).containsExactlyInAnyOrder(3L, 2L);
+        assertThat(hits.get(0).rank()).isEqualTo(InMemoryReceiptSearchRepository.ITEM_WEIGHT
+                * InMemoryReceiptSearchRepository.PREFIX_FACTOR);
+    }
+
+    @Test
+    void search_requiresEveryTermAndRanksStoreMatchesHigher() {
+        List<ReceiptSearchHit> hits = searchRepository.search(1L, "costco diapers", 0, 10);
+
+        assertThat(hits).extracting(ReceiptSearchHit::receiptId).containsExactly(3L);
+        assertThat(hits.get(0).rank()).isEqualTo(InMemoryReceiptSearchRepository.STORE_WEIGHT
+                + InMemoryReceiptSearchRepository.ITEM_WEIGHT);
+    }
+
+    @Test
+    void search_appliesOffsetAndLimit() {
+        List<ReceiptSearchHit> hits = searchRepository.search(1L, "costco", 1, 5);
+
+        assertThat(hits).extracting(ReceiptSearchHit::receiptId).containsExactly(1L);
+    }
+
+    @Test
+    void search_buildsIndexOnceUntilUserDataChanges() {
+        searchRepository.search(1L, "costco", 0, 10);
+        searchRepository.search(1L, "target", 0, 10);
+        verify(receiptRowRepository, times(1)).findRowsByUserId(1L);
+
+        searchRepository.onUserDataChanged(new UserDataVersionService.UserDataChangedEvent(1L));
+        searchRepository.search(1L, "costco", 0, 10);
+
+        verify(receiptRowRepository, times(2)).findRowsByUserId(1L);
+    }
+
+    @Test
+    void tokenize_splitsOnPunctuationAndLowercases() {
+        assertThat(InMemoryReceiptSearchRepository.tokenize("Trader Joe's #112, Café"))
+                .containsExactly("trader", "joe", "s", "112", "café");
+    }
+
+    private ReceiptRow row(Long id, String storeName) {
+        return new ReceiptRow(id, storeName, LocalDate.of(2025, 1, id.intValue()), null, BigDecimal.TEN, null, null);
+    }
+
+    private ReceiptItemDto item(Long receiptId, String name) {
+        return new ReceiptItemDto(receiptId * 10, receiptId, name, 1, BigDecimal.ONE);
+    }
+}
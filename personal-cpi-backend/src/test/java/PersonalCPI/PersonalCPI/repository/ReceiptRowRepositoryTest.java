@@ -0,0 +1,288 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptCreateDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptFilter;
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.model.Category;
+import PersonalCPI.PersonalCPI.model.Receipt;
+import PersonalCPI.PersonalCPI.model.ReceiptItem;
+import PersonalCPI.PersonalCPI.model.User;
+import PersonalCPI.PersonalCPI.service.ReceiptItemBatchLoader;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Compares the projection read path against the entity path it replaced, using Hibernate statistics
+ * for entity loads and the session's persistence context for what stays managed.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rowtest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;NON_KEYWORDS=YEAR,MONTH,VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReceiptItemBatchLoader.class, ReceiptBulkInsertRepository.class})
+class ReceiptRowRepositoryTest {
+
+    private static final int RECEIPTS = 40;
+    private static final int ITEMS_PER_RECEIPT = 3;
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReceiptRowRepository receiptRowRepository;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Autowired
+    private ReceiptItemBatchLoader itemBatchLoader;
+
+    @Autowired
+    private ReceiptBulkInsertRepository bulkInsertRepository;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(new User("rows", "rows@example.com", "secret"));
+        userId = user.getId();
+
+        Category category = new Category();
+        category.setName("Groceries");
+        categoryId = entityManager.persist(category).getCategoryId();
+
+        for (int i = 0; i < RECEIPTS; i++) {
+            Receipt receipt = entityManager.persist(new Receipt(userId, "Store " + i,
+                    LocalDate.of(2025, 1, 1).plusDays(i), categoryId, new BigDecimal("10.00")));
+            for (int j = 0; j < ITEMS_PER_RECEIPT; j++) {
+                ReceiptItem item = new ReceiptItem();
+                item.setReceiptId(receipt.getReceiptId());
+                item.setItemName("Item " + j);
+                item.setQuantity(1);
+                item.setUnitPrice(new BigDecimal("3.00"));
+                entityManager.persist(item);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void projectionPage_returnsRowsNewestFirst() {
+        Page<ReceiptRow> page = receiptRowRepository.findRowPageByUserId(userId, PAGE);
+
+        assertThat(page.getTotalElements()).isEqualTo(RECEIPTS);
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getContent().get(0).getPurchaseDate()).isEqualTo(LocalDate.of(2025, 1, 1).plusDays(RECEIPTS - 1));
+        assertThat(page.getContent()).allMatch(row -> categoryId.equals(row.getCategoryId()));
+    }
+
+    @Test
+    void projectionPage_loadsNoEntities() {
+        loadPageWithProjections();
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        // Row page, its count query, and one item query
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void dateRangePage_withBatchedItems_issuesThreeStatements() {
+        Page<ReceiptRow> page = receiptRowRepository.findRowPageByUserIdAndPurchaseDateBetween(
+                userId, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), PAGE);
+        Map<Long, List<ReceiptItemDto>> items = itemBatchLoader.loadByReceiptIds(receiptIdsOf(page.getContent()));
+
+        assertThat(items).hasSize(20).allSatisfy((id, list) -> assertThat(list).hasSize(ITEMS_PER_RECEIPT));
+        // Row page, its count query, and one item query instead of one per receipt
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void categoryPage_withBatchedItems_issuesThreeStatements() {
+        Page<ReceiptRow> page = receiptRowRepository.findRowPageByUserIdAndCategoryId(userId, categoryId, PAGE);
+        itemBatchLoader.loadByReceiptIds(receiptIdsOf(page.getContent()));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void recentRows_withBatchedItems_issueTwoStatements() {
+        List<ReceiptRow> rows = receiptRowRepository.findRecentRowsByUserId(userId, PageRequest.of(0, 10));
+        Map<Long, List<ReceiptItemDto>> items = itemBatchLoader.loadByReceiptIds(receiptIdsOf(rows));
+
+        assertThat(items).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void batchLoader_splitsLargeIdListsIntoChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+
+        itemBatchLoader.loadByReceiptIds(ids);
+
+        // 1000 + 1000 + 500 IDs
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void bulkInsert_returnsGeneratedIdsInRequestOrder() {
+        List<ReceiptCreateDto> receipts = LongStream.rangeClosed(1, 3).mapToObj(i -> {
+            ReceiptCreateDto dto = new ReceiptCreateDto();
+            dto.setStoreName("Bulk " + i);
+            dto.setPurchaseDate(LocalDate.of(2025, 6, (int) i));
+            dto.setCategoryId(categoryId);
+            dto.setAmount(new BigDecimal("4.00"));
+            return dto;
+        }).toList();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> ids = bulkInsertRepository.insertReceipts(userId, receipts, now);
+        bulkInsertRepository.insertItems(List.of(
+                new ReceiptItemDto(null, ids.get(2), "Apples", 3, new BigDecimal("1.25"))), now);
+
+        assertThat(ids).hasSize(3).doesNotHaveDuplicates();
+        assertThat(receiptRowRepository.findRowsByUserIdAndReceiptIdIn(userId, ids))
+                .extracting(row -> Map.entry(row.getReceiptId(), row.getStoreName()))
+                .containsExactlyInAnyOrder(
+                        Map.entry(ids.get(0), "Bulk 1"), Map.entry(ids.get(1), "Bulk 2"), Map.entry(ids.get(2), "Bulk 3"));
+        assertThat(itemBatchLoader.loadByReceiptIds(ids).get(ids.get(2)))
+                .extracting(ReceiptItemDto::getItemName).containsExactly("Apples");
+    }
+
+    @Test
+    void filterSlice_combinesCriteriaInOneStatement() {
+        ReceiptFilter filter = new ReceiptFilter();
+        filter.setCategoryIds(List.of(categoryId));
+        filter.setStartDate(LocalDate.of(2025, 1, 1));
+        filter.setEndDate(LocalDate.of(2025, 12, 31));
+        filter.setMinAmount(new BigDecimal("5.00"));
+        filter.setStorePrefix("STORE 1");
+        filter.setHasImage(false);
+
+        Slice<ReceiptRow> slice = receiptRowRepository.findSliceByFilter(
+                userId, filter, LocalDate.of(9999, 12, 31), Long.MAX_VALUE, 5);
+
+        // "Store 1" and "Store 10".."Store 19", newest first
+        assertThat(slice.getContent()).hasSize(5).allMatch(row -> row.getStoreName().startsWith("Store 1"));
+        assertThat(slice.getContent().get(0).getStoreName()).isEqualTo("Store 19");
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void filterSlice_continuesAfterCursorAndEscapesWildcards() {
+        ReceiptFilter filter = new ReceiptFilter();
+        filter.setStorePrefix("Store 1");
+        Slice<ReceiptRow> first = receiptRowRepository.findSliceByFilter(
+                userId, filter, LocalDate.of(9999, 12, 31), Long.MAX_VALUE, 10);
+        ReceiptRow last = first.getContent().get(first.getContent().size() - 1);
+
+        Slice<ReceiptRow> second = receiptRowRepository.findSliceByFilter(
+                userId, filter, last.getPurchaseDate(), last.getReceiptId(), 10);
+
+        assertThat(second.getContent()).extracting(ReceiptRow::getStoreName).containsExactly("Store 1");
+        assertThat(second.hasNext()).isFalse();
+
+        filter.setStorePrefix("Store _");
+        assertThat(receiptRowRepository.findSliceByFilter(
+                userId, filter, LocalDate.of(9999, 12, 31), Long.MAX_VALUE, 10).getContent()).isEmpty();
+    }
+
+    @Test
+    void entityPage_loadsReceiptsItemsAndCategory() {
+        loadPageWithEntities();
+
+        // 20 receipts, their 60 items, and the shared category
+        assertThat(statistics.getEntityLoadCount()).isGreaterThanOrEqualTo(20 + 20 * ITEMS_PER_RECEIPT);
+    }
+
+    @Test
+    void projectionPage_leavesPersistenceContextEmpty() {
+        loadPageWithProjections();
+
+        assertThat(session().getStatistics().getEntityCount()).isZero();
+        assertThat(session().getStatistics().getCollectionCount()).isZero();
+    }
+
+    @Test
+    void projectionPage_selectsTheEntityColumns() {
+        Page<ReceiptRow> rows = receiptRowRepository.findRowPageByUserId(userId, PAGE);
+        Page<Receipt> receipts = receiptRepository.findByUserIdOrderByPurchaseDateDesc(userId, PAGE);
+
+        assertThat(rows.getContent())
+                .extracting(ReceiptRow::getReceiptId, ReceiptRow::getStoreName, ReceiptRow::getPurchaseDate,
+                        ReceiptRow::getCategoryId, ReceiptRow::getAmount, ReceiptRow::getImageKey)
+                .containsExactlyElementsOf(receipts.getContent().stream()
+                        .map(r -> tuple(r.getReceiptId(), r.getStoreName(), r.getPurchaseDate(),
+                                r.getCategoryId(), r.getAmount(), r.getImageKey()))
+                        .toList());
+    }
+
+    private Session session() {
+        return entityManager.getEntityManager().unwrap(Session.class);
+    }
+
+    private List<Long> receiptIdsOf(List<ReceiptRow> rows) {
+        return rows.stream().map(ReceiptRow::getReceiptId).toList();
+    }
+
+    // The read path ReceiptService uses now
+    private Integer loadPageWithProjections() {
+        Page<ReceiptRow> page = receiptRowRepository.findRowPageByUserId(userId, PAGE);
+        List<Long> ids = page.getContent().stream().map(ReceiptRow::getReceiptId).toList();
+        List<ReceiptItemDto> items = receiptRowRepository.findItemRowsByReceiptIdIn(ids);
+        return page.getNumberOfElements() + items.size();
+    }
+
+    // The previous read path: entity page, JOIN FETCH of items, and a category lookup per receipt
+    private Integer loadPageWithEntities() {
+        Page<Receipt> page = receiptRepository.findByUserIdOrderByPurchaseDateDesc(userId, PAGE);
+        List<Long> ids = page.getContent().stream().map(Receipt::getReceiptId).toList();
+        List<Receipt> withItems = receiptRepository.findByReceiptIdInWithItems(ids);
+        int touched = 0;
+        for (Receipt receipt : withItems) {
+            entityManager.find(Category.class, receipt.getCategoryId());
+            touched += 1 + receipt.getItems().size();
+        }
+        return touched;
+    }
+}
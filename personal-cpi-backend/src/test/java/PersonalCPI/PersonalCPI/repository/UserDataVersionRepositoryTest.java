@@ -0,0 +1,76 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.model.User;
+import PersonalCPI.PersonalCPI.service.UserDataVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the version increments against H2 in PostgreSQL mode, as two replicas would share them.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:versiontest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;NON_KEYWORDS=YEAR,MONTH,VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserDataVersionService.class)
+class UserDataVersionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserDataVersionRepository userDataVersionRepository;
+
+    @Autowired
+    private UserDataVersionService versionService;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = entityManager.persist(new User("versions", "versions@example.com", "secret")).getId();
+    }
+
+    @Test
+    void firstBump_createsRowAtVersionOne() {
+        assertThat(versionService.currentVersion(userId)).isZero();
+
+        versionService.bump(userId);
+
+        assertThat(versionService.currentVersion(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void bump_isVisibleThroughAnyServiceInstance() {
+        String before = versionService.etagFor(userId);
+        versionService.bump(userId);
+
+        // A second replica reads the same row
+        UserDataVersionService otherReplica = new UserDataVersionService(userDataVersionRepository, event -> { });
+
+        assertThat(otherReplica.etagFor(userId)).isNotEqualTo(before).isEqualTo(versionService.etagFor(userId));
+        otherReplica.bump(userId);
+        assertThat(versionService.currentVersion(userId)).isEqualTo(2);
+    }
+
+    @Test
+    void insertIfAbsent_keepsExistingRow() {
+        versionService.bump(userId);
+        versionService.bump(userId);
+
+        assertThat(userDataVersionRepository.insertIfAbsent(userId)).isZero();
+        assertThat(userDataVersionRepository.findVersion(userId)).contains(2L);
+    }
+}
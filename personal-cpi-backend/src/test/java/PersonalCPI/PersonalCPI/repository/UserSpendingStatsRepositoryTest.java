@@ -0,0 +1,154 @@
+package PersonalCPI.PersonalCPI.repository;
+
+import PersonalCPI.PersonalCPI.model.Receipt;
+import PersonalCPI.PersonalCPI.model.User;
+import PersonalCPI.PersonalCPI.model.UserSpendingStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native stats insert and both delta updates (widening the date range, and re-reading it with
+ * subqueries) against H2 in PostgreSQL mode. Receipt changes are left unflushed before each call to cover the automatic flush.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statstest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;NON_KEYWORDS=YEAR,MONTH,VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserSpendingStatsRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserSpendingStatsRepository statsRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = entityManager.persist(new User("stats", "stats@example.com", "secret")).getId();
+    }
+
+    @Test
+    void insertFromReceipts_aggregatesUnflushedReceipts() {
+        receipt(LocalDate.of(2025, 3, 10), "10.00");
+        receipt(LocalDate.of(2025, 1, 5), "20.50");
+        receipt(LocalDate.of(2025, 2, 1), "5.00");
+
+        assertThat(statsRepository.insertFromReceipts(userId)).isEqualTo(1);
+
+        UserSpendingStats stats = reload();
+        assertThat(stats.getReceiptCount()).isEqualTo(3);
+        assertThat(stats.getTotalAmount()).isEqualByComparingTo("35.50");
+        assertThat(stats.getFirstPurchaseDate()).isEqualTo(LocalDate.of(2025, 1, 5));
+        assertThat(stats.getLastPurchaseDate()).isEqualTo(LocalDate.of(2025, 3, 10));
+    }
+
+    @Test
+    void insertFromReceipts_withoutReceipts_createsEmptyRow() {
+        assertThat(statsRepository.insertFromReceipts(userId)).isEqualTo(1);
+
+        UserSpendingStats stats = reload();
+        assertThat(stats.getReceiptCount()).isZero();
+        assertThat(stats.getTotalAmount()).isEqualByComparingTo("0");
+        assertThat(stats.getFirstPurchaseDate()).isNull();
+    }
+
+    @Test
+    void insertFromReceipts_onExistingRow_doesNothing() {
+        receipt(LocalDate.of(2025, 1, 5), "10.00");
+        statsRepository.insertFromReceipts(userId);
+        receipt(LocalDate.of(2025, 2, 5), "99.00");
+
+        assertThat(statsRepository.insertFromReceipts(userId)).isZero();
+
+        UserSpendingStats stats = reload();
+        assertThat(stats.getReceiptCount()).isEqualTo(1);
+        assertThat(stats.getTotalAmount()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void applyDelta_addsDeltasAndWidensDateRange() {
+        receipt(LocalDate.of(2025, 2, 1), "10.00");
+        statsRepository.insertFromReceipts(userId);
+        receipt(LocalDate.of(2024, 12, 24), "7.25");
+
+        assertThat(statsRepository.applyDelta(userId, 1, new BigDecimal("7.25"),
+                LocalDate.of(2024, 12, 24), LocalDate.of(2024, 12, 24))).isEqualTo(1);
+
+        UserSpendingStats stats = reload();
+        assertThat(stats.getReceiptCount()).isEqualTo(2);
+        assertThat(stats.getTotalAmount()).isEqualByComparingTo("17.25");
+        assertThat(stats.getFirstPurchaseDate()).isEqualTo(LocalDate.of(2024, 12, 24));
+        assertThat(stats.getLastPurchaseDate()).isEqualTo(LocalDate.of(2025, 2, 1));
+    }
+
+    @Test
+    void applyDelta_takesDatesFromArgumentsNotReceipts() {
+        receipt(LocalDate.of(2025, 2, 1), "10.00");
+        statsRepository.insertFromReceipts(userId);
+
+        // Stands in for a concurrent writer's receipt that this transaction can't see yet
+        statsRepository.applyDelta(userId, 1, new BigDecimal("3.00"), LocalDate.of(2025, 5, 5), LocalDate.of(2025, 5, 5));
+
+        assertThat(reload().getLastPurchaseDate()).isEqualTo(LocalDate.of(2025, 5, 5));
+    }
+
+    @Test
+    void applyDelta_onEmptyRow_setsDateRange() {
+        statsRepository.insertFromReceipts(userId);
+
+        statsRepository.applyDelta(userId, 1, new BigDecimal("3.00"), LocalDate.of(2025, 1, 2), LocalDate.of(2025, 3, 4));
+
+        UserSpendingStats stats = reload();
+        assertThat(stats.getFirstPurchaseDate()).isEqualTo(LocalDate.of(2025, 1, 2));
+        assertThat(stats.getLastPurchaseDate()).isEqualTo(LocalDate.of(2025, 3, 4));
+    }
+
+    @Test
+    void applyDeltaRereadingDates_afterDeletingLatestReceipt_movesLastDate() {
+        receipt(LocalDate.of(2025, 1, 1), "10.00");
+        Receipt latest = receipt(LocalDate.of(2025, 6, 1), "4.00");
+        statsRepository.insertFromReceipts(userId);
+        entityManager.remove(latest);
+
+        statsRepository.applyDeltaRereadingDates(userId, -1, new BigDecimal("-4.00"));
+
+        UserSpendingStats stats = reload();
+        assertThat(stats.getReceiptCount()).isEqualTo(1);
+        assertThat(stats.getTotalAmount()).isEqualByComparingTo("10.00");
+        assertThat(stats.getLastPurchaseDate()).isEqualTo(LocalDate.of(2025, 1, 1));
+    }
+
+    @Test
+    void applyDelta_withoutRow_updatesNothing() {
+        receipt(LocalDate.of(2025, 1, 1), "10.00");
+
+        assertThat(statsRepository.applyDelta(userId, 1, new BigDecimal("10.00"),
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1))).isZero();
+        assertThat(statsRepository.findById(userId)).isEmpty();
+    }
+
+    private Receipt receipt(LocalDate purchaseDate, String amount) {
+        return entityManager.persist(new Receipt(userId, "Store", purchaseDate, null, new BigDecimal(amount)));
+    }
+
+    private UserSpendingStats reload() {
+        entityManager.clear();
+        return statsRepository.findById(userId).orElseThrow();
+    }
+}
@@ -0,0 +1,99 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.Category;
+import PersonalCPI.PersonalCPI.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryRegistryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategoryRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CategoryRegistry(categoryRepository);
+    }
+
+    @Test
+    void lookups_loadCategoriesOnceAndServeFromMemory() {
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                buildCategory(2L, "Dining Out", "CUUR0000SEFV"),
+                buildCategory(1L, "Groceries", "CUUR0000SAF11")
+        ));
+
+        assertThat(registry.getName(1L)).isEqualTo("Groceries");
+        assertThat(registry.getName(2L)).isEqualTo("Dining Out");
+        assertThat(registry.getBlsSeriesId(2L)).isEqualTo("CUUR0000SEFV");
+        assertThat(registry.getCategoryIdForSeries("CUUR0000SAF11")).isEqualTo(1L);
+        assertThat(registry.getCategoryIds()).containsExactly(1L, 2L);
+        assertThat(registry.getBlsSeriesIds()).containsExactly("CUUR0000SAF11", "CUUR0000SEFV");
+
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void unknownIds_returnNullOrFalse() {
+        when(categoryRepository.findAll()).thenReturn(List.of(buildCategory(3L, "Housing", null)));
+
+        assertThat(registry.exists(3L)).isTrue();
+        assertThat(registry.exists(2L)).isFalse();
+        assertThat(registry.exists(99L)).isFalse();
+        assertThat(registry.exists(-1L)).isFalse();
+        assertThat(registry.exists(null)).isFalse();
+        assertThat(registry.getName(99L)).isNull();
+        assertThat(registry.getBlsSeriesId(3L)).isNull();
+        assertThat(registry.getCategoryIdForSeries("UNKNOWN")).isNull();
+        assertThat(registry.getBlsSeriesIds()).isEmpty();
+    }
+
+    @Test
+    void sparseIdsBeyondIntRange_areLookedUp() {
+        long imported = 5_000_000_000L;
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                buildCategory(imported, "Imported", "CUUR0000SEHA"),
+                buildCategory(7L, "Transport", null)
+        ));
+
+        assertThat(registry.getName(imported)).isEqualTo("Imported");
+        assertThat(registry.getBlsSeriesId(imported)).isEqualTo("CUUR0000SEHA");
+        assertThat(registry.exists(imported - 1)).isFalse();
+        assertThat(registry.getCategoryIds()).containsExactly(7L, imported);
+    }
+
+    @Test
+    void reload_replacesSnapshot() {
+        when(categoryRepository.findAll())
+                .thenReturn(List.of(buildCategory(1L, "Groceries", null)))
+                .thenReturn(List.of(buildCategory(1L, "Food at Home", null), buildCategory(9L, "Pets", null)));
+
+        registry.loadOnStartup();
+        assertThat(registry.getName(1L)).isEqualTo("Groceries");
+        assertThat(registry.exists(9L)).isFalse();
+
+        registry.onCategoriesChanged(new CategoryRegistry.CategoriesChangedEvent());
+
+        assertThat(registry.getName(1L)).isEqualTo("Food at Home");
+        assertThat(registry.getName(9L)).isEqualTo("Pets");
+        assertThat(registry.getCategoryIds()).containsExactly(1L, 9L);
+    }
+
+    private Category buildCategory(Long id, String name, String blsSeriesId) {
+        Category category = new Category();
+        category.setCategoryId(id);
+        category.setName(name);
+        category.setBlsSeriesId(blsSeriesId);
+        return category;
+    }
+}
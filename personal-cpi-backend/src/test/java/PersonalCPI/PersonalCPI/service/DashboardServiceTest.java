@@ -0,0 +1,189 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.dto.DashboardDto;
+import PersonalCPI.PersonalCPI.dto.MonthlySpendingDto;
+import PersonalCPI.PersonalCPI.dto.SpendingSummaryDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private ReceiptService receiptService;
+
+    @Mock
+    private CPIComparisonService cpiComparisonService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(receiptService, cpiComparisonService, transactionManager,
+                2 * DashboardService.SECTIONS, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    void getDashboard_combinesAllSections() {
+        CPIComparisonService.ComparisonResult comparison = new CPIComparisonService.ComparisonResult();
+        when(receiptService.getCurrentMonthSpendingByCategory(1L))
+                .thenReturn(List.of(new SpendingSummaryDto(10L, "Groceries", BigDecimal.TEN, 0)));
+        when(receiptService.getMonthlySpendingSummary(1L))
+                .thenReturn(List.of(new MonthlySpendingDto(2025, 1, BigDecimal.TEN)));
+        when(receiptService.getTotalSpending(1L)).thenReturn(new BigDecimal("99.00"));
+        when(receiptService.getRecentReceipts(eq(1L), any())).thenReturn(List.of());
+        when(cpiComparisonService.compareToOfficialCPI(eq(1L), anyInt(), anyInt())).thenReturn(comparison);
+
+        DashboardDto dashboard = dashboardService.getDashboard(1L);
+
+        assertThat(dashboard.getCurrentMonthSpending()).hasSize(1);
+        assertThat(dashboard.getMonthlySpending()).hasSize(1);
+        assertThat(dashboard.getTotalSpending()).isEqualByComparingTo("99.00");
+        assertThat(dashboard.getRecentReceipts()).isEmpty();
+        assertThat(dashboard.getCpiComparison()).isSameAs(comparison);
+        assertThat(dashboard.getErrors()).isEmpty();
+        // One short transaction per section
+        verify(transactionManager, times(5)).commit(any());
+    }
+
+    @Test
+    void getDashboard_isolatesFailingSections() {
+        when(receiptService.getCurrentMonthSpendingByCategory(1L)).thenReturn(List.of());
+        when(receiptService.getMonthlySpendingSummary(1L)).thenThrow(new RuntimeException("connection reset"));
+        when(receiptService.getTotalSpending(1L)).thenReturn(BigDecimal.ONE);
+        when(receiptService.getRecentReceipts(eq(1L), any())).thenReturn(List.of());
+        when(cpiComparisonService.compareToOfficialCPI(eq(1L), anyInt(), anyInt()))
+                .thenThrow(new IllegalArgumentException("No personal CPI data found for 2025-1"));
+
+        DashboardDto dashboard = dashboardService.getDashboard(1L);
+
+        assertThat(dashboard.getTotalSpending()).isEqualByComparingTo("1");
+        assertThat(dashboard.getMonthlySpending()).isNull();
+        assertThat(dashboard.getCpiComparison()).isNull();
+        assertThat(dashboard.getErrors())
+                .containsEntry("monthlySpending", "Failed to load monthlySpending")
+                .containsEntry("cpiComparison", "No personal CPI data found for 2025-1")
+                .hasSize(2);
+    }
+
+    @Test
+    void getDashboard_runsSectionsConcurrently() {
+        // Every section waits until all five have started, which only happens if they run together
+        CountDownLatch allStarted = new CountDownLatch(DashboardService.SECTIONS);
+        when(receiptService.getCurrentMonthSpendingByCategory(1L)).thenAnswer(rendezvous(allStarted, List.of()));
+        when(receiptService.getMonthlySpendingSummary(1L)).thenAnswer(rendezvous(allStarted, List.of()));
+        when(receiptService.getTotalSpending(1L)).thenAnswer(rendezvous(allStarted, BigDecimal.ZERO));
+        when(receiptService.getRecentReceipts(eq(1L), any())).thenAnswer(rendezvous(allStarted, List.of()));
+        when(cpiComparisonService.compareToOfficialCPI(eq(1L), anyInt(), anyInt()))
+                .thenAnswer(rendezvous(allStarted, new CPIComparisonService.ComparisonResult()));
+
+        DashboardDto dashboard = dashboardService.getDashboard(1L);
+
+        assertThat(dashboard.getErrors()).isEmpty();
+    }
+
+    @Test
+    void getDashboard_rendersTwoDashboardsAtOnce() throws Exception {
+        // Every section of both dashboards waits until all ten have started
+        CountDownLatch allStarted = new CountDownLatch(2 * DashboardService.SECTIONS);
+        stubAllSections(rendezvous(allStarted, null));
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<DashboardDto> first = callers.submit(() -> dashboardService.getDashboard(1L));
+            Future<DashboardDto> second = callers.submit(() -> dashboardService.getDashboard(1L));
+
+            assertThat(first.get(3, TimeUnit.SECONDS).getErrors()).isEmpty();
+            assertThat(second.get(3, TimeUnit.SECONDS).getErrors()).isEmpty();
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void getDashboard_sectionsBeyondTheBudgetWaitForAPermit() throws Exception {
+        DashboardService narrow = new DashboardService(receiptService, cpiComparisonService, transactionManager,
+                DashboardService.SECTIONS, 2000);
+        CountDownLatch firstStarted = new CountDownLatch(DashboardService.SECTIONS);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        stubAllSections(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            firstStarted.countDown();
+            release.await();
+            inFlight.decrementAndGet();
+            return null;
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<DashboardDto> first = callers.submit(() -> narrow.getDashboard(1L));
+            assertThat(firstStarted.await(2, TimeUnit.SECONDS)).isTrue();
+            Future<DashboardDto> second = callers.submit(() -> narrow.getDashboard(1L));
+            while (narrow.queuedSections() < DashboardService.SECTIONS) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(first.get(2, TimeUnit.SECONDS).getErrors()).isEmpty();
+            assertThat(second.get(2, TimeUnit.SECONDS).getErrors()).isEmpty();
+        } finally {
+            callers.shutdownNow();
+            narrow.shutdown();
+        }
+        assertThat(maxInFlight.get()).isEqualTo(DashboardService.SECTIONS);
+    }
+
+    @Test
+    void constructor_requiresAPositiveBudget() {
+        assertThatThrownBy(() -> new DashboardService(receiptService, cpiComparisonService, transactionManager, 0, 2000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void stubAllSections(Answer<Object> answer) {
+        when(receiptService.getCurrentMonthSpendingByCategory(1L)).thenAnswer(answer);
+        when(receiptService.getMonthlySpendingSummary(1L)).thenAnswer(answer);
+        when(receiptService.getTotalSpending(1L)).thenAnswer(answer);
+        when(receiptService.getRecentReceipts(eq(1L), any())).thenAnswer(answer);
+        when(cpiComparisonService.compareToOfficialCPI(eq(1L), anyInt(), anyInt())).thenAnswer(answer);
+    }
+
+    private static <T> Answer<T> rendezvous(CountDownLatch allStarted, T result) {
+        return invocation -> {
+            allStarted.countDown();
+            if (!allStarted.await(2, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Sections did not run concurrently");
+            }
+            return result;
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.EmailOutboxEntry;
+import PersonalCPI.PersonalCPI.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The SMTP side of the outbox; claiming, retries and metrics are covered by OutboxDrainerTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxServiceTest {
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmailOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxService = new EmailOutboxService(outboxRepository, emailService, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void enqueue_savesDueEntry() {
+        outboxService.enqueue("alice@example.com", "Account Verification", "<p>123456</p>");
+
+        ArgumentCaptor<EmailOutboxEntry> saved = ArgumentCaptor.forClass(EmailOutboxEntry.class);
+        verify(outboxRepository).save(saved.capture());
+        assertThat(saved.getValue().getRecipient()).isEqualTo("alice@example.com");
+        assertThat(saved.getValue().getAttempts()).isZero();
+        assertThat(saved.getValue().getNextAttemptAt()).isBeforeOrEqualTo(LocalDateTime.now());
+    }
+
+    @Test
+    void replace_dropsUnsentEmailsWithSameRecipientAndSubjectFirst() {
+        outboxService.replace("alice@example.com", "Account Verification", "<p>654321</p>");
+
+        InOrder inOrder = inOrder(outboxRepository);
+        inOrder.verify(outboxRepository).deleteByRecipientAndSubject("alice@example.com", "Account Verification");
+        ArgumentCaptor<EmailOutboxEntry> saved = ArgumentCaptor.forClass(EmailOutboxEntry.class);
+        inOrder.verify(outboxRepository).save(saved.capture());
+        assertThat(saved.getValue().getHtmlBody()).isEqualTo("<p>654321</p>");
+    }
+
+    @Test
+    void drain_sendsBatchOverOneConnectionAndRetriesRejectedEmails() {
+        EmailOutboxEntry ok = entry(1L, "a@example.com");
+        EmailOutboxEntry failing = entry(2L, "b@example.com");
+        when(outboxRepository.findDueForUpdate(any(), eq(EmailOutboxService.SETTINGS.maxAttempts()),
+                eq(PageRequest.of(0, EmailOutboxService.SETTINGS.batchSize())))).thenReturn(List.of(ok, failing));
+        when(emailService.sendAll(anyList())).thenAnswer(invocation -> {
+            List<EmailService.Email> emails = invocation.getArgument(0);
+            assertThat(emails).extracting(EmailService.Email::to).containsExactly("a@example.com", "b@example.com");
+            return Map.of(1, "SMTPAddressFailedException: 452 Too many recipients");
+        });
+
+        outboxService.drain();
+
+        verify(emailService, times(1)).sendAll(anyList());
+        verify(outboxRepository).deleteByEmailIdIn(List.of(1L));
+        verify(outboxRepository).reschedule(eq(2L), any(LocalDateTime.class),
+                eq("SMTPAddressFailedException: 452 Too many recipients"));
+        verify(outboxRepository, never()).save(any());
+        assertThat(meterRegistry.counter("email.outbox.sent").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("email.outbox.retried").count()).isEqualTo(1.0);
+    }
+
+    private EmailOutboxEntry entry(Long id, String recipient) {
+        EmailOutboxEntry entry = new EmailOutboxEntry(recipient, "Account Verification", "<p>code</p>",
+                LocalDateTime.now().minusMinutes(1));
+        entry.setEmailId(id);
+        return entry;
+    }
+}
@@ -0,0 +1,70 @@
+package PersonalCPI.PersonalCPI.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailServiceTest {
+
+    private FakeSmtpServer smtp;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new FakeSmtpServer();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.port());
+        mailSender.getJavaMailProperties().put("mail.smtp.from", "noreply@example.com");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "5000");
+        emailService = new EmailService(mailSender);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        smtp.close();
+    }
+
+    @Test
+    void sendAll_deliversBatchOverOneConnection() {
+        Map<Integer, String> failures = emailService.sendAll(List.of(
+                email("a@example.com"), email("b@example.com"), email("c@example.com")));
+
+        assertThat(failures).isEmpty();
+        assertThat(smtp.messages()).extracting(FakeSmtpServer.Received::recipients)
+                .containsExactly(List.of("a@example.com"), List.of("b@example.com"), List.of("c@example.com"));
+        assertThat(smtp.messages().get(0).data()).contains("Subject: Account Verification");
+        assertThat(smtp.connectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sendAll_reportsOnlyRejectedRecipients() {
+        smtp.rejectRecipient("bounce@example.com");
+
+        Map<Integer, String> failures = emailService.sendAll(List.of(
+                email("a@example.com"), email("bounce@example.com"), email("c@example.com")));
+
+        assertThat(failures).containsOnlyKeys(1);
+        assertThat(smtp.messages()).extracting(FakeSmtpServer.Received::recipients)
+                .containsExactly(List.of("a@example.com"), List.of("c@example.com"));
+    }
+
+    @Test
+    void sendAll_whenServerIsDown_failsEveryEmail() throws Exception {
+        smtp.close();
+
+        Map<Integer, String> failures = emailService.sendAll(List.of(email("a@example.com"), email("b@example.com")));
+
+        assertThat(failures).containsOnlyKeys(0, 1);
+    }
+
+    private static EmailService.Email email(String to) {
+        return new EmailService.Email(to, "Account Verification", "<p>Your code is <b>123456</b></p>");
+    }
+}
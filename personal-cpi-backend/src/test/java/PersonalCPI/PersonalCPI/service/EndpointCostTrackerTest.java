@@ -0,0 +1,145 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.config.RateLimitType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class EndpointCostTrackerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EndpointCostTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new EndpointCostTracker(meterRegistry, "POST /api/cpi/calculate = 15", true, 50, 20);
+    }
+
+    @Test
+    void weight_startsAtOneUntilEnoughSamples() {
+        EndpointCostTracker.Endpoint endpoint = tracker.endpoint("GET", "/api/cpi/comparison/timeseries", RateLimitType.API);
+
+        measure(endpoint, EndpointCostTracker.MIN_SAMPLES - 1, 500);
+        assertThat(endpoint.weight()).isEqualTo(1);
+
+        measure(endpoint, 1, 500);
+        assertThat(endpoint.weight()).isEqualTo(10);
+    }
+
+    @Test
+    void weight_isDerivedFromAverageAndClamped() {
+        EndpointCostTracker.Endpoint cheap = tracker.endpoint("GET", "/api/receipts/recent", RateLimitType.API);
+        EndpointCostTracker.Endpoint slow = tracker.endpoint("GET", "/api/receipts/export", RateLimitType.API);
+
+        measure(cheap, 20, 5);
+        measure(slow, 20, 10_000);
+
+        assertThat(cheap.weight()).isEqualTo(1);
+        assertThat(slow.weight()).isEqualTo(20);
+        assertThat(cheap.averageMillis()).isCloseTo(5.0, offset(0.01));
+    }
+
+    @Test
+    void weight_followsLatencyChanges() {
+        EndpointCostTracker.Endpoint endpoint = tracker.endpoint("GET", "/api/cpi/personal", RateLimitType.API);
+        measure(endpoint, 20, 400);
+        assertThat(endpoint.weight()).isEqualTo(8);
+
+        measure(endpoint, 30, 50);
+
+        assertThat(endpoint.weight()).isEqualTo(1);
+    }
+
+    @Test
+    void weight_movesAtMostOneTokenPerSample() {
+        EndpointCostTracker.Endpoint endpoint = tracker.endpoint("GET", "/api/receipts/recent", RateLimitType.API);
+        measure(endpoint, 20, 50);
+        assertThat(endpoint.weight()).isEqualTo(1);
+
+        measure(endpoint, 1, 60_000);
+
+        assertThat(endpoint.weight()).isEqualTo(2);
+        assertThat(endpoint.averageMillis()).isCloseTo(100.0, offset(0.01));
+    }
+
+    @Test
+    void uploadAndAdminEndpoints_alwaysCostOne() {
+        EndpointCostTracker.Endpoint upload = tracker.endpoint("POST", "/api/receipts/upload", RateLimitType.UPLOAD);
+        EndpointCostTracker.Endpoint admin = tracker.endpoint("POST", "/api/admin/stats/reconcile", RateLimitType.ADMIN);
+
+        measure(upload, 20, 1_000);
+        measure(admin, 20, 1_000);
+
+        assertThat(upload.weight()).isEqualTo(1);
+        assertThat(admin.weight()).isEqualTo(1);
+    }
+
+    @Test
+    void markAsync_stopsDerivingTheWeight() {
+        EndpointCostTracker.Endpoint endpoint = tracker.endpoint("GET", "/api/receipts/export", RateLimitType.API);
+        measure(endpoint, 20, 400);
+        assertThat(endpoint.weight()).isEqualTo(8);
+
+        endpoint.markAsync();
+        measure(endpoint, 20, 1_000);
+
+        assertThat(endpoint.weight()).isEqualTo(1);
+    }
+
+    @Test
+    void fixedWeight_ignoresMeasurements() {
+        EndpointCostTracker.Endpoint endpoint = tracker.endpoint("POST", "/api/cpi/calculate", RateLimitType.API);
+
+        measure(endpoint, 20, 5);
+
+        assertThat(endpoint.weight()).isEqualTo(15);
+    }
+
+    @Test
+    void endpoint_isSharedPerMethodAndPattern() {
+        assertThat(tracker.endpoint("GET", "/api/receipts/{id}", RateLimitType.API))
+                .isSameAs(tracker.endpoint("GET", "/api/receipts/{id}", RateLimitType.API))
+                .isNotSameAs(tracker.endpoint("DELETE", "/api/receipts/{id}", RateLimitType.API));
+    }
+
+    @Test
+    void metrics_publishWeightCostAndConsumption() {
+        EndpointCostTracker.Endpoint endpoint = tracker.endpoint("POST", "/api/cpi/calculate", RateLimitType.API);
+        measure(endpoint, 1, 120);
+        endpoint.recordCharge(15, true);
+        endpoint.recordCharge(15, true);
+        endpoint.recordCharge(15, false);
+
+        String key = "POST /api/cpi/calculate";
+        assertThat(meterRegistry.get("rate.limit.endpoint.weight").tag("endpoint", key).gauge().value()).isEqualTo(15);
+        assertThat(meterRegistry.get("rate.limit.endpoint.cost").tag("endpoint", key).gauge().value()).isEqualTo(120);
+        assertThat(meterRegistry.get("rate.limit.tokens.consumed").tag("endpoint", key).tag("type", "api")
+                .counter().count()).isEqualTo(30);
+        assertThat(meterRegistry.get("rate.limit.rejected").tag("endpoint", key).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void parseFixedWeights_rejectsMalformedEntries() {
+        assertThat(EndpointCostTracker.parseFixedWeights("")).isEmpty();
+        assertThat(EndpointCostTracker.parseFixedWeights("GET  /a=2, POST /b=3"))
+                .isEqualTo(Map.of("GET /a", 2, "POST /b", 3));
+        assertThatThrownBy(() -> EndpointCostTracker.parseFixedWeights("GET /a"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EndpointCostTracker.parseFixedWeights("GET /a=0"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void measure(EndpointCostTracker.Endpoint endpoint, int samples, long millis) {
+        for (int i = 0; i < samples; i++) {
+            endpoint.recordLatency(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}
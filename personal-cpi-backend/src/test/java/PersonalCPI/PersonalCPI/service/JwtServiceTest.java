@@ -0,0 +1,120 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, Duration.ofHours(1).toMillis());
+        user = new User("alice", "alice@example.com", "hash");
+        user.setId(7L);
+        user.setEnabled(true);
+    }
+
+    @Test
+    void verify_readsSubjectUserIdAndExpiry() {
+        String token = jwtService.generateToken(user);
+
+        JwtService.VerifiedToken verified = jwtService.verify(token);
+
+        assertThat(verified.subject()).isEqualTo("alice");
+        assertThat(verified.userId()).isEqualTo(7L);
+        assertThat(verified.email()).isEqualTo("alice@example.com");
+        assertThat(verified.hasPrincipalClaims()).isTrue();
+        assertThat(verified.expiresAt()).isBetween(Instant.now().plus(Duration.ofMinutes(59)),
+                Instant.now().plus(Duration.ofMinutes(61)));
+        assertThat(jwtService.isTokenValid(verified, user)).isTrue();
+    }
+
+    @Test
+    void verify_sameTokenTwice_reusesVerification() {
+        String token = jwtService.generateToken(user);
+
+        assertThat(jwtService.verify(token)).isSameAs(jwtService.verify(token));
+    }
+
+    @Test
+    void verify_withTamperedSignature_throws() {
+        String token = jwtService.generateToken(user);
+        jwtService.verify(token);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void verify_withExpiredToken_throwsExpiredJwtException() {
+        JwtService expiring = new JwtService(SECRET, -1_000);
+        String token = expiring.generateToken(user);
+
+        assertThatThrownBy(() -> expiring.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void isTokenValid_forAnotherUser_returnsFalse() {
+        String token = jwtService.generateToken(user);
+
+        assertThat(jwtService.isTokenValid(token, new User("bob", "bob@example.com", "hash"))).isFalse();
+    }
+
+    @Test
+    void extractUserId_withoutUserIdClaim_throwsIllegalArgumentException() {
+        String token = jwtService.generateToken(Map.of(), user);
+
+        assertThat(jwtService.extractUsername(token)).isEqualTo("alice");
+        // Tokens without the principal claims are authenticated from a user lookup instead
+        assertThat(jwtService.verify(token).hasPrincipalClaims()).isFalse();
+        assertThatThrownBy(() -> jwtService.extractUserId(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("User ID not found");
+    }
+
+    @Test
+    void verify_sameTokenRepeatedly_parsesItOnce() {
+        JwtParser[] parser = new JwtParser[1];
+        JwtService counting = new JwtService(SECRET, Duration.ofHours(1).toMillis(), key -> {
+            JwtParser real = Jwts.parserBuilder().setSigningKey(key).build();
+            parser[0] = mock(JwtParser.class, delegatesTo(real));
+            return parser[0];
+        });
+        String token = counting.generateToken(user);
+        String other = counting.generateToken(Map.of("userId", 8L), user);
+
+        for (int i = 0; i < 5; i++) {
+            counting.verify(token);
+            counting.extractUserId(token);
+            counting.isTokenValid(token, user);
+        }
+        counting.verify(other);
+
+        verify(parser[0], times(1)).parseClaimsJws(token);
+        verify(parser[0], times(1)).parseClaimsJws(other);
+    }
+}
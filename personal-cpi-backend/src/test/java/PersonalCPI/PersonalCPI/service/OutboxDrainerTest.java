@@ -0,0 +1,189 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.OutboxEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDrainerTest {
+
+    private static final OutboxDrainer.Settings SETTINGS = new OutboxDrainer.Settings(
+            "test.outbox", "delivered", 3, 4, Duration.ofMinutes(2), Duration.ofSeconds(10), Duration.ofMinutes(1));
+
+    @Mock
+    private OutboxDrainer.Outbox<Entry> outbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxDrainer<Entry> drainer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        drainer = new OutboxDrainer<>(SETTINGS, outbox, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void drain_claimsWithLeaseAndDeliversOutsideTransactions() {
+        Entry first = entry(1L, 0);
+        Entry second = entry(2L, 0);
+        when(outbox.findDueForUpdate(any(), eq(SETTINGS.maxAttempts()), eq(SETTINGS.batchSize())))
+                .thenReturn(List.of(first, second));
+        LocalDateTime before = LocalDateTime.now();
+        when(outbox.deliver(List.of(first, second))).thenAnswer(invocation -> {
+            // Every transaction begun so far has already committed, so no connection is held
+            assertThat(invocationCount(transactionManager, "commit"))
+                    .isEqualTo(invocationCount(transactionManager, "getTransaction"));
+            assertThat(first.getAttempts()).isEqualTo(1);
+            assertThat(first.getNextAttemptAt()).isAfterOrEqualTo(before.plus(SETTINGS.lease()));
+            return Map.of();
+        });
+
+        drainer.drain();
+
+        InOrder order = inOrder(outbox);
+        order.verify(outbox).deliver(any());
+        order.verify(outbox).deleteDelivered(List.of(1L, 2L));
+        verify(outbox, never()).save(any());
+        assertThat(meterRegistry.counter("test.outbox.delivered").count()).isEqualTo(2.0);
+        assertThat(meterRegistry.timer("test.outbox.batch").count()).isEqualTo(1);
+    }
+
+    @Test
+    void drain_reschedulesFailuresWithBackoff() {
+        Entry ok = entry(1L, 0);
+        Entry failing = entry(2L, 2);
+        when(outbox.findDueForUpdate(any(), anyInt(), anyInt())).thenReturn(List.of(ok, failing));
+        when(outbox.deliver(any())).thenReturn(Map.of(1, "SlowDown: Reduce your request rate"));
+
+        LocalDateTime before = LocalDateTime.now();
+        drainer.drain();
+
+        verify(outbox).deleteDelivered(List.of(1L));
+        verify(outbox).save(failing);
+        assertThat(failing.getAttempts()).isEqualTo(3);
+        assertThat(failing.getLastError()).isEqualTo("SlowDown: Reduce your request rate");
+        assertThat(failing.getNextAttemptAt()).isAfterOrEqualTo(before.plus(Duration.ofSeconds(40)));
+        assertThat(meterRegistry.counter("test.outbox.retried").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void drain_countsEntriesOutOfAttemptsAsAbandoned() {
+        Entry failing = entry(3L, SETTINGS.maxAttempts() - 1);
+        when(outbox.findDueForUpdate(any(), anyInt(), anyInt())).thenReturn(List.of(failing));
+        when(outbox.deliver(any())).thenReturn(Map.of(0, "x".repeat(2000)));
+
+        drainer.drain();
+
+        assertThat(meterRegistry.counter("test.outbox.abandoned").count()).isEqualTo(1.0);
+        assertThat(failing.getLastError()).hasSize(1000);
+        verify(outbox, never()).deleteDelivered(any());
+    }
+
+    @Test
+    void drain_keepsClaimingWhileBatchesAreFull() {
+        List<Entry> full = LongStream.rangeClosed(1, SETTINGS.batchSize()).mapToObj(id -> entry(id, 0)).toList();
+        when(outbox.findDueForUpdate(any(), anyInt(), anyInt())).thenReturn(full, List.of(entry(9L, 0)));
+        when(outbox.deliver(any())).thenReturn(Map.of());
+        when(outbox.countPending(SETTINGS.maxAttempts())).thenReturn(7L);
+
+        drainer.drain();
+
+        verify(outbox, times(2)).deliver(any());
+        assertThat(meterRegistry.get("test.outbox.backlog").gauge().value()).isEqualTo(7.0);
+    }
+
+    @Test
+    void drain_swallowsFailuresSoTheScheduleContinues() {
+        when(outbox.findDueForUpdate(any(), anyInt(), anyInt())).thenThrow(new IllegalStateException("connection refused"));
+
+        drainer.drain();
+
+        verify(outbox, never()).deliver(any());
+    }
+
+    @Test
+    void backoff_doublesFromBaseUpToMaximum() {
+        assertThat(drainer.backoff(1)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(drainer.backoff(3)).isEqualTo(Duration.ofSeconds(40));
+        assertThat(drainer.backoff(20)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    private static long invocationCount(Object mock, String method) {
+        return mockingDetails(mock).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals(method))
+                .count();
+    }
+
+    private static Entry entry(Long id, int attempts) {
+        Entry entry = new Entry();
+        entry.setId(id);
+        entry.setAttempts(attempts);
+        entry.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        return entry;
+    }
+
+    static class Entry implements OutboxEntry {
+        private Long id;
+        private int attempts;
+        private LocalDateTime nextAttemptAt;
+        private String lastError;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        void setId(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public int getAttempts() {
+            return attempts;
+        }
+
+        @Override
+        public void setAttempts(int attempts) {
+            this.attempts = attempts;
+        }
+
+        @Override
+        public LocalDateTime getNextAttemptAt() {
+            return nextAttemptAt;
+        }
+
+        @Override
+        public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+            this.nextAttemptAt = nextAttemptAt;
+        }
+
+        @Override
+        public String getLastError() {
+            return lastError;
+        }
+
+        @Override
+        public void setLastError(String lastError) {
+            this.lastError = lastError;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.config.RateLimitStoreConfiguration;
+import PersonalCPI.PersonalCPI.config.RateLimitType;
+import io.github.bucket4j.ConsumptionProbe;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two services over one H2 database stand in for two replicas. The table starts empty, so each test
+ * also goes through the store's insert-on-first-use path.
+ */
+class RateLimitServiceJdbcTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:rate_limit;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE " + RateLimitStoreConfiguration.TABLE_NAME
+                + " (bucket_id BIGINT PRIMARY KEY, state BYTEA)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE " + RateLimitStoreConfiguration.TABLE_NAME);
+    }
+
+    @Test
+    void replicasShareOneLimit() {
+        RateLimitService first = replica(0);
+        RateLimitService second = replica(0);
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(first.tryConsume(1L, RateLimitType.UPLOAD).isConsumed()).isTrue();
+        }
+        for (int i = 0; i < 4; i++) {
+            assertThat(second.tryConsume(1L, RateLimitType.UPLOAD).isConsumed()).isTrue();
+        }
+
+        assertThat(first.tryConsume(1L, RateLimitType.UPLOAD).isConsumed()).isFalse();
+        ConsumptionProbe rejected = second.tryConsume(1L, RateLimitType.UPLOAD);
+        assertThat(rejected.isConsumed()).isFalse();
+        assertThat(rejected.getNanosToWaitForRefill()).isPositive();
+        assertThat(second.tryConsume(1L, RateLimitType.API).getRemainingTokens()).isEqualTo(99);
+    }
+
+    @Test
+    void replicaConsumesLocallyBetweenWrites() {
+        RateLimitService batching = replica(5);
+        RateLimitService writeThrough = replica(0);
+
+        for (int i = 0; i < 3; i++) {
+            batching.tryConsume(1L, RateLimitType.UPLOAD);
+        }
+
+        // At most the first request has reached the database; the other two are still held locally.
+        assertThat(writeThrough.tryConsume(1L, RateLimitType.UPLOAD).getRemainingTokens()).isGreaterThanOrEqualTo(8);
+        assertThat(batching.tryConsume(1L, RateLimitType.UPLOAD).getRemainingTokens()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void firstRequest_createsTheBucketRow() {
+        RateLimitService first = replica(0);
+        RateLimitService second = replica(0);
+
+        assertThat(first.tryConsume(1L, RateLimitType.UPLOAD).getRemainingTokens()).isEqualTo(9);
+        assertThat(second.tryConsume(1L, RateLimitType.UPLOAD).getRemainingTokens()).isEqualTo(8);
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM " + RateLimitStoreConfiguration.TABLE_NAME
+                + " WHERE bucket_id = ? AND state IS NOT NULL", Long.class,
+                RateLimitService.storeKey(1L, RateLimitType.UPLOAD))).isEqualTo(1);
+    }
+
+    @Test
+    void flush_writesBackTokensHeldLocally() {
+        RateLimitService batching = replica(5);
+        RateLimitService writeThrough = replica(0);
+        for (int i = 0; i < 3; i++) {
+            batching.tryConsume(1L, RateLimitType.UPLOAD);
+        }
+
+        batching.flushSharedBuckets();
+
+        assertThat(writeThrough.tryConsume(1L, RateLimitType.UPLOAD).getRemainingTokens()).isEqualTo(6);
+    }
+
+    private RateLimitService replica(long maxUnsynchronizedTokens) {
+        return new RateLimitService(new RateLimitStoreConfiguration().rateLimitProxyManager(dataSource),
+                maxUnsynchronizedTokens, Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,55 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.config.RateLimitType;
+import io.github.bucket4j.ConsumptionProbe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitServiceTest {
+
+    private RateLimitService rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitService = new RateLimitService();
+    }
+
+    @Test
+    void tryConsume_reportsRemainingTokens() {
+        ConsumptionProbe first = rateLimitService.tryConsume(1L, RateLimitType.UPLOAD);
+        ConsumptionProbe second = rateLimitService.tryConsume(1L, RateLimitType.UPLOAD);
+
+        assertThat(first.isConsumed()).isTrue();
+        assertThat(first.getRemainingTokens()).isEqualTo(9);
+        assertThat(second.getRemainingTokens()).isEqualTo(8);
+        assertThat(second.getNanosToWaitForReset()).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1).toNanos());
+    }
+
+    @Test
+    void tryConsume_rejectsOnceLimitIsReachedWithRefillWait() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimitService.tryConsume(1L, RateLimitType.UPLOAD).isConsumed()).isTrue();
+        }
+
+        ConsumptionProbe rejected = rateLimitService.tryConsume(1L, RateLimitType.UPLOAD);
+
+        assertThat(rejected.isConsumed()).isFalse();
+        assertThat(rejected.getRemainingTokens()).isZero();
+        assertThat(rejected.getNanosToWaitForRefill()).isPositive();
+    }
+
+    @Test
+    void tryConsume_keepsSeparateBucketsPerUserAndType() {
+        for (int i = 0; i < 10; i++) {
+            rateLimitService.tryConsume(1L, RateLimitType.UPLOAD);
+        }
+
+        assertThat(rateLimitService.tryConsume(1L, RateLimitType.UPLOAD).isConsumed()).isFalse();
+        assertThat(rateLimitService.tryConsume(2L, RateLimitType.UPLOAD).getRemainingTokens()).isEqualTo(9);
+        assertThat(rateLimitService.tryConsume(1L, RateLimitType.API).getRemainingTokens()).isEqualTo(99);
+    }
+}
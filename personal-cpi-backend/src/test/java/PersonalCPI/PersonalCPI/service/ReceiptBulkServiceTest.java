@@ -0,0 +1,202 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.dto.BulkOperationResultDto;
+import PersonalCPI.PersonalCPI.dto.BulkReceiptResultDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptBulkTarget;
+import PersonalCPI.PersonalCPI.dto.ReceiptCreateDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.exception.ConflictException;
+import PersonalCPI.PersonalCPI.model.Category;
+import PersonalCPI.PersonalCPI.repository.CategoryRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptBulkInsertRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptItemRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReceiptBulkServiceTest {
+
+    @Mock
+    private ReceiptBulkInsertRepository bulkInsertRepository;
+
+    @Mock
+    private ReceiptRepository receiptRepository;
+
+    @Mock
+    private ReceiptItemRepository receiptItemRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private S3DeletionOutboxService s3DeletionOutbox;
+
+    @Mock
+    private UserSpendingStatsService userSpendingStatsService;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    private ReceiptBulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        Category groceries = new Category();
+        groceries.setCategoryId(1L);
+        groceries.setName("Groceries");
+        lenient().when(categoryRepository.findAll()).thenReturn(List.of(groceries));
+
+        bulkService = new ReceiptBulkService(bulkInsertRepository, receiptRepository, receiptItemRepository,
+                new CategoryRegistry(categoryRepository), Validation.buildDefaultValidatorFactory().getValidator(),
+                s3DeletionOutbox, userSpendingStatsService, userDataVersionService);
+    }
+
+    @Test
+    void createReceipts_insertsValidRowsInBatchesAndReportsInvalidOnes() {
+        ReceiptCreateDto first = receipt("Costco", "10.00", new ReceiptItemDto(null, null, "Milk", 2, BigDecimal.ONE));
+        ReceiptCreateDto missingAmount = receipt("Target", null);
+        ReceiptCreateDto second = receipt("Safeway", "5.50",
+                new ReceiptItemDto(null, null, "Bread", 1, BigDecimal.TWO),
+                new ReceiptItemDto(null, null, "Eggs", 1, BigDecimal.TEN));
+        second.setPurchaseDate(LocalDate.of(2025, 2, 3));
+        when(bulkInsertRepository.insertReceipts(eq(7L), eq(List.of(first, second)), any()))
+                .thenReturn(List.of(100L, 101L));
+
+        BulkReceiptResultDto result = bulkService.createReceipts(7L, List.of(first, missingAmount, second));
+
+        assertThat(result.getCreated()).containsExactly(
+                new BulkReceiptResultDto.Created(0, 100L), new BulkReceiptResultDto.Created(2, 101L));
+        assertThat(result.getErrors()).containsExactly(
+                new BulkReceiptResultDto.RowError(1, List.of("Amount is required")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReceiptItemDto>> items = ArgumentCaptor.forClass(List.class);
+        verify(bulkInsertRepository).insertItems(items.capture(), any());
+        assertThat(items.getValue()).extracting(ReceiptItemDto::getReceiptId).containsExactly(100L, 101L, 101L);
+        verify(userSpendingStatsService).receiptsAdded(7L, 2, new BigDecimal("15.50"),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 3));
+        verify(userDataVersionService).bump(7L);
+    }
+
+    @Test
+    void createReceipts_withUnknownCategoryAndBlankItem_rejectsRowWithEveryProblem() {
+        ReceiptCreateDto receipt = receipt("Costco", "10.00", new ReceiptItemDto(null, null, " ", 1, BigDecimal.ONE));
+        receipt.setCategoryId(5L);
+
+        BulkReceiptResultDto result = bulkService.createReceipts(7L, Collections.singletonList(receipt));
+
+        assertThat(result.getCreated()).isEmpty();
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).errors())
+                .containsExactly("Category not found with ID: 5", "Item 0: item name is required");
+        verifyNoInteractions(bulkInsertRepository, userSpendingStatsService, userDataVersionService);
+    }
+
+    @Test
+    void createReceipts_withTooManyRows_throwsIllegalArgument() {
+        List<ReceiptCreateDto> receipts = new ArrayList<>();
+        for (int i = 0; i <= ReceiptBulkService.MAX_BULK_RECEIPTS; i++) {
+            receipts.add(receipt("Store " + i, "1.00"));
+        }
+
+        assertThatThrownBy(() -> bulkService.createReceipts(7L, receipts))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Too many receipts");
+        verifyNoInteractions(bulkInsertRepository);
+    }
+
+    @Test
+    void createReceipts_withEmptyRequest_throwsIllegalArgument() {
+        assertThatThrownBy(() -> bulkService.createReceipts(7L, List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("At least one receipt");
+    }
+
+    @Test
+    void deleteReceipts_deletesOwnedRowsWithSetStatementsAndReportsTheRest() {
+        when(receiptRepository.findBulkTargets(7L, List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new ReceiptBulkTarget(1L, new BigDecimal("4.00"), "receipts/7/a.jpg"),
+                new ReceiptBulkTarget(3L, new BigDecimal("6.00"), null)));
+        when(receiptRepository.deleteByUserIdAndReceiptIdIn(7L, List.of(1L, 3L))).thenReturn(2);
+
+        BulkOperationResultDto result = bulkService.deleteReceipts(7L, List.of(1L, 2L, 3L, 1L));
+
+        assertThat(result.getAffectedReceiptIds()).containsExactly(1L, 3L);
+        assertThat(result.getNotFoundReceiptIds()).containsExactly(2L);
+        verify(receiptItemRepository).deleteByReceiptIdIn(List.of(1L, 3L));
+        verify(bulkInsertRepository).insertTombstones(eq(7L), eq(List.of(1L, 3L)), any());
+        verify(userSpendingStatsService).receiptsRemoved(7L, 2, new BigDecimal("10.00"));
+        verify(s3DeletionOutbox).enqueue(List.of("receipts/7/a.jpg"));
+        verify(receiptRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void deleteReceipts_whenRowsVanishConcurrently_failsWithConflictSoTransactionRollsBack() {
+        when(receiptRepository.findBulkTargets(7L, List.of(1L, 2L))).thenReturn(List.of(
+                new ReceiptBulkTarget(1L, BigDecimal.ONE, null), new ReceiptBulkTarget(2L, BigDecimal.ONE, null)));
+        when(receiptRepository.deleteByUserIdAndReceiptIdIn(7L, List.of(1L, 2L))).thenReturn(1);
+
+        assertThatThrownBy(() -> bulkService.deleteReceipts(7L, List.of(1L, 2L)))
+                .isInstanceOf(ConflictException.class);
+        verifyNoInteractions(userSpendingStatsService, s3DeletionOutbox);
+    }
+
+    @Test
+    void deleteReceipts_withNoOwnedReceipts_changesNothing() {
+        when(receiptRepository.findBulkTargets(7L, List.of(9L))).thenReturn(List.of());
+
+        BulkOperationResultDto result = bulkService.deleteReceipts(7L, List.of(9L));
+
+        assertThat(result.getAffectedReceiptIds()).isEmpty();
+        assertThat(result.getNotFoundReceiptIds()).containsExactly(9L);
+        verify(receiptRepository, never()).deleteByUserIdAndReceiptIdIn(any(), any());
+        verifyNoInteractions(userDataVersionService);
+    }
+
+    @Test
+    void updateCategory_runsOneOwnershipScopedUpdate() {
+        when(receiptRepository.findBulkTargets(7L, List.of(1L, 2L))).thenReturn(
+                Collections.singletonList(new ReceiptBulkTarget(2L, BigDecimal.ONE, null)));
+
+        BulkOperationResultDto result = bulkService.updateCategory(7L, List.of(1L, 2L), 1L);
+
+        assertThat(result.getAffectedReceiptIds()).containsExactly(2L);
+        assertThat(result.getNotFoundReceiptIds()).containsExactly(1L);
+        verify(receiptRepository).updateCategoryByUserIdAndReceiptIdIn(eq(7L), eq(List.of(2L)), eq(1L), any());
+        verify(userDataVersionService).bump(7L);
+    }
+
+    @Test
+    void updateCategory_withUnknownCategory_throwsIllegalArgument() {
+        assertThatThrownBy(() -> bulkService.updateCategory(7L, List.of(1L), 99L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid category ID");
+        verifyNoInteractions(receiptRepository);
+    }
+
+    private ReceiptCreateDto receipt(String storeName, String amount, ReceiptItemDto... items) {
+        ReceiptCreateDto dto = new ReceiptCreateDto();
+        dto.setStoreName(storeName);
+        dto.setPurchaseDate(LocalDate.of(2025, 1, 10));
+        dto.setAmount(amount != null ? new BigDecimal(amount) : null);
+        dto.setItems(items.length > 0 ? List.of(items) : null);
+        return dto;
+    }
+}
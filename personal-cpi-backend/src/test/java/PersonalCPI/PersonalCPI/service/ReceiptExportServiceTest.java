@@ -0,0 +1,169 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.model.Category;
+import PersonalCPI.PersonalCPI.repository.CategoryRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptRowRepository;
+import PersonalCPI.PersonalCPI.util.ReceiptCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReceiptExportServiceTest {
+
+    @Mock
+    private ReceiptRowRepository receiptRowRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ReceiptExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        Category groceries = new Category();
+        groceries.setCategoryId(1L);
+        groceries.setName("Groceries");
+        lenient().when(categoryRepository.findAll()).thenReturn(List.of(groceries));
+
+        exportService = new ReceiptExportService(receiptRowRepository, new CategoryRegistry(categoryRepository),
+                new ReceiptItemBatchLoader(receiptRowRepository), objectMapper, transactionManager);
+    }
+
+    @Test
+    void exportNdjson_writesOneObjectPerLineWithItems() throws Exception {
+        ReceiptRow costco = new ReceiptRow(12L, "Costco", LocalDate.of(2025, 1, 20), 1L,
+                new BigDecimal("88.10"), null, "receipts/1/costco.jpg");
+        ReceiptRow target = new ReceiptRow(11L, "Target", LocalDate.of(2025, 1, 19), null,
+                new BigDecimal("12.00"), null, null);
+        when(receiptRowRepository.findSliceByUserIdAfter(eq(1L), eq(ReceiptCursor.START.purchaseDate()),
+                eq(ReceiptCursor.START.receiptId()), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(costco, target)));
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(List.of(12L, 11L))).thenReturn(List.of(
+                new ReceiptItemDto(100L, 12L, "Milk", 2, new BigDecimal("3.49"))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(1L, ReceiptExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("receiptId").asLong()).isEqualTo(12L);
+        assertThat(first.get("categoryName").asText()).isEqualTo("Groceries");
+        assertThat(first.get("purchaseDate").asText()).isEqualTo("2025-01-20");
+        assertThat(first.get("items")).hasSize(1);
+        assertThat(objectMapper.readTree(lines[1]).get("items")).isEmpty();
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void exportNdjson_readsEachChunkInItsOwnTransaction() throws Exception {
+        long rowCount = ReceiptExportService.CHUNK_SIZE * 2 + 1;
+        stubReceiptsWithIdsDownFrom(rowCount);
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(anyCollection())).thenReturn(List.of());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(1L, ReceiptExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize((int) rowCount);
+        assertThat(objectMapper.readTree(lines[lines.length - 1]).get("receiptId").asLong()).isEqualTo(1L);
+        verify(receiptRowRepository, times(3)).findItemRowsByReceiptIdIn(anyCollection());
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void exportCsv_writesHeaderAndEscapedRowsWithoutLoadingItems() throws Exception {
+        when(receiptRowRepository.findSliceByUserIdAfter(eq(1L), any(), any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ReceiptRow(12L, "Joe's \"Market\", Inc",
+                        LocalDate.of(2025, 1, 20), 1L, new BigDecimal("88.10"), null, null))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(1L, ReceiptExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "receiptId,purchaseDate,storeName,categoryId,categoryName,amount,createdAt,imageKey\n" +
+                "12,2025-01-20,\"Joe's \"\"Market\"\", Inc\",1,Groceries,88.10,,\n");
+        verify(receiptRowRepository, never()).findItemRowsByReceiptIdIn(anyCollection());
+    }
+
+    @Test
+    void exportCsv_neutralizesFormulaCells() throws Exception {
+        when(receiptRowRepository.findSliceByUserIdAfter(eq(1L), any(), any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ReceiptRow(12L, "=HYPERLINK(\"http://x\",\"y\")",
+                        LocalDate.of(2025, 1, 20), null, new BigDecimal("-5.00"), null, null))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(1L, ReceiptExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")[1])
+                .isEqualTo("12,2025-01-20,\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",,,-5.00,,");
+    }
+
+    @Test
+    void csvField_prefixesEveryFormulaTrigger() {
+        assertThat(ReceiptExportService.csvField("+1")).isEqualTo("'+1");
+        assertThat(ReceiptExportService.csvField("-1")).isEqualTo("'-1");
+        assertThat(ReceiptExportService.csvField("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+        assertThat(ReceiptExportService.csvField("\tcmd")).isEqualTo("'\tcmd");
+        assertThat(ReceiptExportService.csvField("\rcmd")).isEqualTo("\"'\rcmd\"");
+        assertThat(ReceiptExportService.csvField("Costco")).isEqualTo("Costco");
+        assertThat(ReceiptExportService.csvField(12L)).isEqualTo("12");
+    }
+
+    @Test
+    void formatFrom_rejectsUnknownFormats() {
+        assertThat(ReceiptExportService.Format.from("CSV")).isEqualTo(ReceiptExportService.Format.CSV);
+        assertThatThrownBy(() -> ReceiptExportService.Format.from("xml"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported export format");
+    }
+
+    // Receipts with IDs rowCount..1 on one date, served a slice at a time past each cursor
+    private void stubReceiptsWithIdsDownFrom(long rowCount) {
+        when(receiptRowRepository.findSliceByUserIdAfter(eq(1L), any(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long after = Math.min(invocation.<Long>getArgument(2), rowCount + 1);
+                    Pageable pageable = invocation.getArgument(3);
+                    List<ReceiptRow> rows = LongStream.iterate(after - 1, id -> id >= 1, id -> id - 1)
+                            .limit(pageable.getPageSize())
+                            .mapToObj(id -> new ReceiptRow(id, "Store", LocalDate.of(2025, 1, 1), null, BigDecimal.ONE, null, null))
+                            .toList();
+                    boolean hasNext = !rows.isEmpty() && rows.get(rows.size() - 1).getReceiptId() > 1;
+                    return new SliceImpl<>(rows, pageable, hasNext);
+                });
+    }
+}
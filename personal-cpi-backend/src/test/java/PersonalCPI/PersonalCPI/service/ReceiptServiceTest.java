@@ -1,29 +1,50 @@
 package PersonalCPI.PersonalCPI.service;
 
+import PersonalCPI.PersonalCPI.dto.CursorSlice;
+import PersonalCPI.PersonalCPI.dto.ReceiptChangesDto;
 import PersonalCPI.PersonalCPI.dto.MonthlySpendingDto;
 import PersonalCPI.PersonalCPI.dto.ReceiptCreateDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptFilter;
+import PersonalCPI.PersonalCPI.dto.ReceiptItemDto;
 import PersonalCPI.PersonalCPI.dto.ReceiptResponseDto;
+import PersonalCPI.PersonalCPI.dto.ReceiptRow;
+import PersonalCPI.PersonalCPI.dto.ReceiptSearchHit;
 import PersonalCPI.PersonalCPI.dto.SpendingSummaryDto;
 import PersonalCPI.PersonalCPI.model.Category;
 import PersonalCPI.PersonalCPI.model.Receipt;
+import PersonalCPI.PersonalCPI.model.ReceiptTombstone;
 import PersonalCPI.PersonalCPI.repository.CategoryRepository;
 import PersonalCPI.PersonalCPI.repository.ReceiptItemRepository;
 import PersonalCPI.PersonalCPI.repository.ReceiptRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptRowRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptSearchRepository;
+import PersonalCPI.PersonalCPI.repository.ReceiptTombstoneRepository;
 import PersonalCPI.PersonalCPI.service.S3Service;
+import PersonalCPI.PersonalCPI.util.FieldSelection;
+import PersonalCPI.PersonalCPI.util.ReceiptCursor;
+import PersonalCPI.PersonalCPI.util.SyncToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -34,9 +55,15 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ReceiptServiceTest {
 
+    // Default list selection: every field except presigned image URLs
+    private static final FieldSelection WITHOUT_IMAGE_URLS = FieldSelection.ALL.without("imageUrl");
+
     @Mock
     private ReceiptRepository receiptRepository;
 
+    @Mock
+    private ReceiptRowRepository receiptRowRepository;
+
     @Mock
     private CategoryRepository categoryRepository;
 
@@ -46,7 +73,24 @@ class ReceiptServiceTest {
     @Mock
     private ReceiptItemRepository receiptItemRepository;
 
-    @InjectMocks
+    @Mock
+    private SecurityEventLogger securityEventLogger;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    @Mock
+    private UserSpendingStatsService userSpendingStatsService;
+
+    @Mock
+    private ReceiptSearchRepository receiptSearchRepository;
+
+    @Mock
+    private ReceiptTombstoneRepository receiptTombstoneRepository;
+
+    @Mock
+    private S3DeletionOutboxService s3DeletionOutbox;
+
     private ReceiptService receiptService;
 
     private Category groceries;
@@ -56,6 +100,13 @@ class ReceiptServiceTest {
     void setUp() {
         groceries = buildCategory(10L, "Groceries");
         dining = buildCategory(20L, "Dining Out");
+        lenient().when(categoryRepository.findAll()).thenReturn(List.of(groceries, dining));
+
+        receiptService = new ReceiptService(receiptRepository, receiptRowRepository,
+                new CategoryRegistry(categoryRepository), s3Service, receiptItemRepository, securityEventLogger,
+                userDataVersionService, newSpendingSummaryCache(), userSpendingStatsService,
+                new ReceiptItemBatchLoader(receiptRowRepository), receiptSearchRepository, receiptTombstoneRepository,
+                s3DeletionOutbox);
     }
 
     @Test
@@ -66,7 +117,6 @@ class ReceiptServiceTest {
         dto.setCategoryId(groceries.getCategoryId());
         dto.setAmount(new BigDecimal("42.37"));
 
-        when(categoryRepository.findById(groceries.getCategoryId())).thenReturn(Optional.of(groceries));
         when(receiptItemRepository.findByReceiptId(anyLong())).thenReturn(Collections.emptyList());
         when(receiptRepository.save(any(Receipt.class))).thenAnswer(invocation -> {
             Receipt receipt = invocation.getArgument(0);
@@ -84,6 +134,8 @@ class ReceiptServiceTest {
         assertThat(savedReceipt.getAmount()).isEqualByComparingTo("42.37");
         assertThat(response.getReceiptId()).isEqualTo(99L);
         assertThat(response.getCategoryName()).isEqualTo("Groceries");
+        verify(userSpendingStatsService).receiptAdded(1L, new BigDecimal("42.37"), savedReceipt.getPurchaseDate());
+        verify(userDataVersionService).bump(1L);
     }
 
     @Test
@@ -92,13 +144,12 @@ class ReceiptServiceTest {
         dto.setCategoryId(123L);
         dto.setAmount(BigDecimal.TEN);
 
-        when(categoryRepository.findById(123L)).thenReturn(Optional.empty());
-
         assertThatThrownBy(() -> receiptService.createReceipt(1L, dto))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Category not found");
 
         verify(receiptRepository, never()).save(any());
+        verifyNoInteractions(userDataVersionService, userSpendingStatsService);
     }
 
     @Test
@@ -110,7 +161,6 @@ class ReceiptServiceTest {
                         new Object[]{groceries.getCategoryId(), new BigDecimal("120.00")},
                         new Object[]{dining.getCategoryId(), new BigDecimal("45.50")}
                 ));
-        when(categoryRepository.findAll()).thenReturn(List.of(groceries, dining));
 
         List<SpendingSummaryDto> summaries = receiptService.getSpendingByCategoryForPeriod(1L, start, end);
 
@@ -150,6 +200,15 @@ class ReceiptServiceTest {
                 .hasMessageContaining("does not belong to user");
     }
 
+    @Test
+    void updateReceiptCategory_withUnknownCategory_throwsWithoutLoadingReceipt() {
+        assertThatThrownBy(() -> receiptService.updateReceiptCategory(1L, 5L, 99L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid category ID");
+
+        verify(receiptRepository, never()).findById(anyLong());
+    }
+
     @Test
     void getCurrentMonthSpending_delegatesToSummaryMethod() {
         YearMonth current = YearMonth.now();
@@ -160,7 +219,6 @@ class ReceiptServiceTest {
         );
         when(receiptRepository.getSpendingSummaryByCategory(anyLong(), eq(start), eq(end)))
                 .thenReturn(repoResults);
-        when(categoryRepository.findAll()).thenReturn(List.of(groceries));
 
         List<SpendingSummaryDto> summaries = receiptService.getCurrentMonthSpendingByCategory(7L);
 
@@ -169,6 +227,386 @@ class ReceiptServiceTest {
         verify(receiptRepository).getSpendingSummaryByCategory(7L, start, end);
     }
 
+    @Test
+    void getUserReceiptsAfter_withFullSlice_returnsCursorForLastReceipt() {
+        ReceiptRow newer = buildRow(31L, LocalDate.of(2025, 2, 10));
+        ReceiptRow older = buildRow(30L, LocalDate.of(2025, 2, 3));
+        ReceiptCursor cursor = new ReceiptCursor(LocalDate.of(2025, 2, 12), 40L);
+        when(receiptRowRepository.findSliceByUserIdAfter(eq(1L), eq(cursor.purchaseDate()), eq(cursor.receiptId()), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(newer, older), PageRequest.of(0, 2), true));
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(List.of(31L, 30L)))
+                .thenReturn(List.of(new ReceiptItemDto(7L, 30L, "Milk", 1, new BigDecimal("3.49"))));
+
+        CursorSlice<ReceiptResponseDto> slice = receiptService.getUserReceiptsAfter(1L, cursor, 2, WITHOUT_IMAGE_URLS);
+
+        assertThat(slice.getContent()).extracting(ReceiptResponseDto::getReceiptId).containsExactly(31L, 30L);
+        assertThat(slice.getContent().get(0).getItems()).isEmpty();
+        assertThat(slice.getContent().get(1).getItems()).extracting(ReceiptItemDto::getItemName).containsExactly("Milk");
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(ReceiptCursor.decode(slice.getNextCursor()))
+                .isEqualTo(new ReceiptCursor(LocalDate.of(2025, 2, 3), 30L));
+        verify(receiptRepository, never()).countByUserId(anyLong());
+    }
+
+    @Test
+    void getUserReceiptsAfter_withoutCursor_startsFromNewestAndEndsWithoutNextCursor() {
+        when(receiptRowRepository.findSliceByUserIdAfter(eq(1L), eq(ReceiptCursor.START.purchaseDate()),
+                eq(ReceiptCursor.START.receiptId()), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 20), false));
+
+        CursorSlice<ReceiptResponseDto> slice = receiptService.getUserReceiptsAfter(1L, null, 20, WITHOUT_IMAGE_URLS);
+
+        assertThat(slice.getContent()).isEmpty();
+        assertThat(slice.isHasNext()).isFalse();
+        assertThat(slice.getNextCursor()).isNull();
+        verifyNoInteractions(s3Service, receiptItemRepository);
+    }
+
+    @Test
+    void getUserReceipts_withPage_assemblesRowsWithoutLoadingEntities() {
+        Pageable pageable = PageRequest.of(0, 1);
+        ReceiptRow row = new ReceiptRow(12L, "Costco", LocalDate.of(2025, 1, 20), groceries.getCategoryId(),
+                new BigDecimal("88.10"), null, null);
+        when(receiptRowRepository.findRowsByUserId(1L, pageable)).thenReturn(List.of(row));
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(List.of(12L))).thenReturn(List.of());
+        when(userSpendingStatsService.getReceiptCount(1L)).thenReturn(41L);
+
+        Page<ReceiptResponseDto> page = receiptService.getUserReceipts(1L, pageable, WITHOUT_IMAGE_URLS);
+
+        assertThat(page.getTotalElements()).isEqualTo(41);
+        assertThat(page.getContent().get(0).getCategoryName()).isEqualTo("Groceries");
+        verifyNoInteractions(receiptRepository, receiptItemRepository);
+        verify(categoryRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getUserReceipts_withShortFirstPage_takesTotalFromPageWithoutStatsLookup() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(receiptRowRepository.findRowsByUserId(1L, pageable)).thenReturn(List.of(buildRow(3L, LocalDate.of(2025, 1, 3))));
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(List.of(3L))).thenReturn(List.of());
+
+        Page<ReceiptResponseDto> page = receiptService.getUserReceipts(1L, pageable, WITHOUT_IMAGE_URLS);
+
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        verifyNoInteractions(userSpendingStatsService);
+        verify(receiptRepository, never()).countByUserId(anyLong());
+    }
+
+    @Test
+    void getTotalSpending_readsStatsRowInsteadOfSummingReceipts() {
+        when(userSpendingStatsService.getTotalSpending(1L)).thenReturn(new BigDecimal("512.40"));
+
+        assertThat(receiptService.getTotalSpending(1L)).isEqualByComparingTo("512.40");
+        verifyNoInteractions(receiptRepository);
+    }
+
+    @Test
+    void updateReceipt_appliesAmountDeltaToStats() {
+        Receipt receipt = new Receipt();
+        receipt.setUserId(1L);
+        receipt.setAmount(new BigDecimal("20.00"));
+        receipt.setPurchaseDate(LocalDate.of(2024, 12, 30));
+        when(receiptRepository.findById(5L)).thenReturn(Optional.of(receipt));
+        when(receiptRepository.save(receipt)).thenReturn(receipt);
+        lenient().when(receiptItemRepository.findByReceiptId(any())).thenReturn(Collections.emptyList());
+        ReceiptCreateDto dto = new ReceiptCreateDto();
+        dto.setStoreName("Safeway");
+        dto.setPurchaseDate(LocalDate.of(2025, 1, 7));
+        dto.setAmount(new BigDecimal("25.50"));
+
+        receiptService.updateReceipt(1L, 5L, dto);
+
+        verify(userSpendingStatsService).receiptChanged(1L, new BigDecimal("20.00"), new BigDecimal("25.50"),
+                LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 7));
+    }
+
+    @Test
+    void deleteReceipt_removesAmountFromStats() {
+        Receipt receipt = new Receipt();
+        receipt.setUserId(1L);
+        receipt.setAmount(new BigDecimal("12.00"));
+        when(receiptRepository.findById(5L)).thenReturn(Optional.of(receipt));
+
+        receiptService.deleteReceipt(1L, 5L);
+
+        verify(receiptRepository).deleteById(5L);
+        verify(userSpendingStatsService).receiptRemoved(1L, new BigDecimal("12.00"));
+    }
+
+    @Test
+    void deleteReceipt_queuesImageInOutboxInsteadOfCallingS3() {
+        Receipt receipt = new Receipt();
+        receipt.setUserId(1L);
+        receipt.setAmount(BigDecimal.ONE);
+        receipt.setImageKey("receipts/1/a.jpg");
+        when(receiptRepository.findById(5L)).thenReturn(Optional.of(receipt));
+
+        receiptService.deleteReceipt(1L, 5L);
+
+        verify(s3DeletionOutbox).enqueue(List.of("receipts/1/a.jpg"));
+        verifyNoInteractions(s3Service);
+    }
+
+    @Test
+    void deleteReceipt_recordsTombstoneForSync() {
+        Receipt receipt = new Receipt();
+        receipt.setUserId(1L);
+        receipt.setAmount(BigDecimal.ONE);
+        when(receiptRepository.findById(5L)).thenReturn(Optional.of(receipt));
+
+        receiptService.deleteReceipt(1L, 5L);
+
+        ArgumentCaptor<ReceiptTombstone> tombstone = ArgumentCaptor.forClass(ReceiptTombstone.class);
+        verify(receiptTombstoneRepository).save(tombstone.capture());
+        assertThat(tombstone.getValue().getUserId()).isEqualTo(1L);
+        assertThat(tombstone.getValue().getReceiptId()).isEqualTo(5L);
+        assertThat(tombstone.getValue().getDeletedAt()).isNotNull();
+    }
+
+    @Test
+    void getUserReceipts_withoutImageUrls_skipsPresigning() {
+        Pageable pageable = PageRequest.of(0, 20);
+        ReceiptRow row = new ReceiptRow(12L, "Costco", LocalDate.of(2025, 1, 20), null,
+                new BigDecimal("88.10"), null, "receipts/1/costco.jpg");
+        when(receiptRowRepository.findRowsByUserId(1L, pageable)).thenReturn(List.of(row));
+
+        Page<ReceiptResponseDto> page = receiptService.getUserReceipts(1L, pageable, WITHOUT_IMAGE_URLS);
+
+        assertThat(page.getContent().get(0).getImageKey()).isEqualTo("receipts/1/costco.jpg");
+        assertThat(page.getContent().get(0).getImageUrl()).isNull();
+        verifyNoInteractions(s3Service);
+    }
+
+    @Test
+    void getUserReceipts_withImageUrls_presignsWholePageInOneCall() {
+        Pageable pageable = PageRequest.of(0, 20);
+        List<ReceiptRow> rows = List.of(
+                new ReceiptRow(12L, "Costco", LocalDate.of(2025, 1, 20), null, BigDecimal.TEN, null, "receipts/1/a.jpg"),
+                new ReceiptRow(11L, "Target", LocalDate.of(2025, 1, 19), null, BigDecimal.TEN, null, null),
+                new ReceiptRow(10L, "Safeway", LocalDate.of(2025, 1, 18), null, BigDecimal.TEN, null, "receipts/1/b.jpg"));
+        when(receiptRowRepository.findRowsByUserId(1L, pageable)).thenReturn(rows);
+        when(s3Service.createPresignedGetUrls(List.of("receipts/1/a.jpg", "receipts/1/b.jpg")))
+                .thenReturn(Map.of("receipts/1/a.jpg", "https://a", "receipts/1/b.jpg", "https://b"));
+
+        Page<ReceiptResponseDto> page = receiptService.getUserReceipts(1L, pageable, FieldSelection.ALL);
+
+        assertThat(page.getContent()).extracting(ReceiptResponseDto::getImageUrl)
+                .containsExactly("https://a", null, "https://b");
+        verify(s3Service, never()).createPresignedGetUrl(anyString());
+    }
+
+    @Test
+    void getUserReceipts_withSparseFields_skipsItemsPresigningAndCategoryNames() {
+        Pageable pageable = PageRequest.of(0, 20);
+        ReceiptRow row = new ReceiptRow(12L, "Costco", LocalDate.of(2025, 1, 20), groceries.getCategoryId(),
+                new BigDecimal("88.10"), null, "receipts/1/costco.jpg");
+        when(receiptRowRepository.findRowsByUserId(1L, pageable)).thenReturn(List.of(row));
+
+        Page<ReceiptResponseDto> page = receiptService.getUserReceipts(
+                1L, pageable, FieldSelection.parse("receiptId, storeName,amount"));
+
+        ReceiptResponseDto dto = page.getContent().get(0);
+        assertThat(dto.getStoreName()).isEqualTo("Costco");
+        assertThat(dto.getItems()).isNull();
+        assertThat(dto.getImageUrl()).isNull();
+        assertThat(dto.getCategoryName()).isNull();
+        verify(receiptRowRepository, never()).findItemRowsByReceiptIdIn(any());
+        verifyNoInteractions(s3Service);
+    }
+
+    @Test
+    void getUserReceipts_withItemsField_loadsItemsOnly() {
+        Pageable pageable = PageRequest.of(0, 20);
+        ReceiptRow row = new ReceiptRow(12L, "Costco", LocalDate.of(2025, 1, 20), null,
+                new BigDecimal("88.10"), null, "receipts/1/costco.jpg");
+        when(receiptRowRepository.findRowsByUserId(1L, pageable)).thenReturn(List.of(row));
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(List.of(12L))).thenReturn(List.of());
+
+        Page<ReceiptResponseDto> page = receiptService.getUserReceipts(1L, pageable, FieldSelection.parse("receiptId,items"));
+
+        assertThat(page.getContent().get(0).getItems()).isEmpty();
+        verifyNoInteractions(s3Service);
+    }
+
+    @Test
+    void filterReceipts_withResidualFiltersOnLargeAccount_requiresDateRange() {
+        ReceiptFilter filter = new ReceiptFilter();
+        filter.setMinAmount(new BigDecimal("100.00"));
+        when(userSpendingStatsService.getReceiptCount(1L)).thenReturn(ReceiptService.LARGE_TENANT_RECEIPTS + 1);
+
+        assertThatThrownBy(() -> receiptService.filterReceipts(1L, filter, null, 20, WITHOUT_IMAGE_URLS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("requires startDate and endDate");
+
+        verify(receiptRowRepository, never()).findSliceByFilter(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void filterReceipts_withSingleCategory_runsWithoutStatsCheck() {
+        ReceiptFilter filter = new ReceiptFilter();
+        filter.setCategoryIds(List.of(groceries.getCategoryId()));
+        ReceiptCursor cursor = new ReceiptCursor(LocalDate.of(2025, 3, 1), 50L);
+        when(receiptRowRepository.findSliceByFilter(eq(1L), any(ReceiptFilter.class), eq(cursor.purchaseDate()),
+                eq(cursor.receiptId()), eq(1)))
+                .thenReturn(new SliceImpl<>(List.of(buildRow(44L, LocalDate.of(2025, 2, 20))), PageRequest.of(0, 1), true));
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(List.of(44L))).thenReturn(List.of());
+
+        CursorSlice<ReceiptResponseDto> slice = receiptService.filterReceipts(1L, filter, cursor, 1, WITHOUT_IMAGE_URLS);
+
+        assertThat(filter.drivingIndex()).isEqualTo("idx_receipts_user_category_date");
+        assertThat(slice.getContent()).extracting(ReceiptResponseDto::getReceiptId).containsExactly(44L);
+        assertThat(ReceiptCursor.decode(slice.getNextCursor())).isEqualTo(new ReceiptCursor(LocalDate.of(2025, 2, 20), 44L));
+        verifyNoInteractions(userSpendingStatsService);
+    }
+
+    @Test
+    void filterReceipts_normalizesACopyAndTreatsRepeatedCategoryAsSingle() {
+        ReceiptFilter filter = new ReceiptFilter();
+        filter.setCategoryIds(List.of(groceries.getCategoryId(), groceries.getCategoryId()));
+        filter.setStartDate(LocalDate.of(2025, 1, 1));
+        filter.setEndDate(LocalDate.of(2025, 1, 31));
+        filter.setStorePrefix("  Cost ");
+        when(receiptRowRepository.findSliceByFilter(eq(1L), any(ReceiptFilter.class), any(), any(), eq(20)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        receiptService.filterReceipts(1L, filter, null, 20, WITHOUT_IMAGE_URLS);
+
+        ArgumentCaptor<ReceiptFilter> normalized = ArgumentCaptor.forClass(ReceiptFilter.class);
+        verify(receiptRowRepository).findSliceByFilter(eq(1L), normalized.capture(), any(), any(), eq(20));
+        assertThat(normalized.getValue().getCategoryIds()).containsExactly(groceries.getCategoryId());
+        assertThat(normalized.getValue().isSingleCategory()).isTrue();
+        assertThat(normalized.getValue().getStorePrefix()).isEqualTo("Cost");
+        assertThat(normalized.getValue().getStartDate()).isEqualTo(LocalDate.of(2025, 1, 1));
+        assertThat(filter.getStorePrefix()).isEqualTo("  Cost ");
+        assertThat(filter.getCategoryIds()).hasSize(2);
+    }
+
+    @Test
+    void filterReceipts_withRepeatedCategoryOnLargeAccount_needsNoDateRange() {
+        ReceiptFilter filter = new ReceiptFilter();
+        filter.setCategoryIds(List.of(groceries.getCategoryId(), groceries.getCategoryId()));
+        when(receiptRowRepository.findSliceByFilter(eq(1L), any(ReceiptFilter.class), any(), any(), eq(20)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        receiptService.filterReceipts(1L, filter, null, 20, WITHOUT_IMAGE_URLS);
+
+        verifyNoInteractions(userSpendingStatsService);
+    }
+
+    @Test
+    void filterReceipts_withInvertedAmountRange_throwsIllegalArgument() {
+        ReceiptFilter filter = new ReceiptFilter();
+        filter.setMinAmount(BigDecimal.TEN);
+        filter.setMaxAmount(BigDecimal.ONE);
+
+        assertThatThrownBy(() -> receiptService.filterReceipts(1L, filter, null, 20, WITHOUT_IMAGE_URLS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("minAmount");
+    }
+
+    @Test
+    void searchReceipts_returnsRowsInRankOrderWithNextFlag() {
+        Pageable pageable = PageRequest.of(0, 2);
+        when(receiptSearchRepository.search(1L, "costco", 0, 3)).thenReturn(List.of(
+                new ReceiptSearchHit(5L, 3.0), new ReceiptSearchHit(9L, 2.0), new ReceiptSearchHit(7L, 1.0)));
+        // The row query returns IDs in index order, not rank order
+        when(receiptRowRepository.findRowsByUserIdAndReceiptIdIn(1L, List.of(5L, 9L)))
+                .thenReturn(List.of(buildRow(9L, LocalDate.of(2025, 1, 9)), buildRow(5L, LocalDate.of(2025, 1, 5))));
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(List.of(5L, 9L))).thenReturn(List.of());
+
+        Slice<ReceiptResponseDto> results = receiptService.searchReceipts(1L, "  costco ", pageable, WITHOUT_IMAGE_URLS);
+
+        assertThat(results.getContent()).extracting(ReceiptResponseDto::getReceiptId).containsExactly(5L, 9L);
+        assertThat(results.hasNext()).isTrue();
+    }
+
+    @Test
+    void searchReceipts_withBlankQuery_throwsIllegalArgument() {
+        assertThatThrownBy(() -> receiptService.searchReceipts(1L, "   ", PageRequest.of(0, 20), WITHOUT_IMAGE_URLS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must not be empty");
+
+        verifyNoInteractions(receiptSearchRepository);
+    }
+
+    @Test
+    void getChangesSince_withoutToken_requiresReset() {
+        ReceiptChangesDto changes = receiptService.getChangesSince(1L, null, WITHOUT_IMAGE_URLS);
+
+        assertThat(changes.isResetRequired()).isTrue();
+        assertThat(changes.getChanged()).isEmpty();
+        assertThat(SyncToken.decode(changes.getNextToken()).syncedUpTo())
+                .isBefore(LocalDateTime.now().minus(ReceiptService.SYNC_SETTLE_WINDOW).plusSeconds(1));
+        verifyNoInteractions(receiptRowRepository, receiptTombstoneRepository);
+    }
+
+    @Test
+    void getChangesSince_returnsChangedAndDeletedReceiptsAfterToken() {
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        when(receiptRowRepository.findRowsChangedBetween(eq(1L), eq(since), any(), any()))
+                .thenReturn(List.of(buildRow(4L, LocalDate.of(2025, 1, 4))));
+        when(receiptTombstoneRepository.findDeletedReceiptIds(eq(1L), eq(since), any(), any()))
+                .thenReturn(List.of(8L));
+        when(receiptRowRepository.findItemRowsByReceiptIdIn(List.of(4L)))
+                .thenReturn(List.of(new ReceiptItemDto(40L, 4L, "Milk", 1, BigDecimal.ONE)));
+
+        ReceiptChangesDto changes = receiptService.getChangesSince(1L, new SyncToken(since).encode(), WITHOUT_IMAGE_URLS);
+
+        assertThat(changes.isResetRequired()).isFalse();
+        assertThat(changes.getChanged()).extracting(ReceiptResponseDto::getReceiptId).containsExactly(4L);
+        assertThat(changes.getChanged().get(0).getItems()).hasSize(1);
+        assertThat(changes.getDeletedReceiptIds()).containsExactly(8L);
+        assertThat(SyncToken.decode(changes.getNextToken()).syncedUpTo()).isAfter(since);
+    }
+
+    @Test
+    void getChangesSince_withTooManyChanges_requiresReset() {
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        List<ReceiptRow> rows = new ArrayList<>();
+        for (long id = 1; id <= ReceiptService.MAX_SYNC_CHANGES + 1; id++) {
+            rows.add(buildRow(id, LocalDate.of(2025, 1, 1)));
+        }
+        when(receiptRowRepository.findRowsChangedBetween(eq(1L), eq(since), any(), any())).thenReturn(rows);
+        when(receiptTombstoneRepository.findDeletedReceiptIds(eq(1L), eq(since), any(), any())).thenReturn(List.of());
+
+        ReceiptChangesDto changes = receiptService.getChangesSince(1L, new SyncToken(since).encode(), WITHOUT_IMAGE_URLS);
+
+        assertThat(changes.isResetRequired()).isTrue();
+        assertThat(changes.getChanged()).isEmpty();
+        verify(receiptRowRepository, never()).findItemRowsByReceiptIdIn(any());
+    }
+
+    @Test
+    void getChangesSince_withTokenOlderThanRetention_requiresReset() {
+        String token = new SyncToken(LocalDateTime.now().minus(ReceiptService.SYNC_RETENTION).minusDays(1)).encode();
+
+        ReceiptChangesDto changes = receiptService.getChangesSince(1L, token, WITHOUT_IMAGE_URLS);
+
+        assertThat(changes.isResetRequired()).isTrue();
+        verifyNoInteractions(receiptTombstoneRepository);
+    }
+
+    @Test
+    void getChangesSince_withinSettleWindow_returnsSameToken() {
+        String token = new SyncToken(LocalDateTime.now()).encode();
+
+        ReceiptChangesDto changes = receiptService.getChangesSince(1L, token, WITHOUT_IMAGE_URLS);
+
+        assertThat(changes.isResetRequired()).isFalse();
+        assertThat(changes.getNextToken()).isEqualTo(token);
+        verifyNoInteractions(receiptRowRepository);
+    }
+
+    private SpendingSummaryCache newSpendingSummaryCache() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(SpendingSummaryCache.CACHE_NAME, SpendingSummaryCache.newNativeCache());
+        return new SpendingSummaryCache(cacheManager, userDataVersionService);
+    }
+
+    private ReceiptRow buildRow(Long id, LocalDate purchaseDate) {
+        return new ReceiptRow(id, "Store " + id, purchaseDate, null, BigDecimal.TEN, null, null);
+    }
+
     private Category buildCategory(Long id, String name) {
         Category category = new Category();
         category.setCategoryId(id);
@@ -0,0 +1,84 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.S3DeletionOutboxEntry;
+import PersonalCPI.PersonalCPI.repository.ReceiptBulkInsertRepository;
+import PersonalCPI.PersonalCPI.repository.S3DeletionOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The S3 side of the outbox; claiming, retries and metrics are covered by OutboxDrainerTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class S3DeletionOutboxServiceTest {
+
+    @Mock
+    private S3DeletionOutboxRepository outboxRepository;
+
+    @Mock
+    private ReceiptBulkInsertRepository bulkInsertRepository;
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private S3DeletionOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxService = new S3DeletionOutboxService(outboxRepository, bulkInsertRepository, s3Service,
+                transactionManager, meterRegistry);
+    }
+
+    @Test
+    void enqueue_insertsDistinctNonEmptyKeys() {
+        outboxService.enqueue(Arrays.asList("a.jpg", null, "", "a.jpg", "b.jpg"));
+
+        verify(bulkInsertRepository).insertS3Deletions(eq(List.of("a.jpg", "b.jpg")), any());
+    }
+
+    @Test
+    void drain_deletesKeysInOneCallAndRetriesOnlyFailedOnes() {
+        S3DeletionOutboxEntry ok = entry(1L, "a.jpg");
+        S3DeletionOutboxEntry failing = entry(2L, "b.jpg");
+        when(outboxRepository.findDueForUpdate(any(), eq(S3DeletionOutboxService.SETTINGS.maxAttempts()),
+                eq(PageRequest.of(0, S3Service.MAX_KEYS_PER_DELETE)))).thenReturn(List.of(ok, failing));
+        when(s3Service.deleteObjects(List.of("a.jpg", "b.jpg")))
+                .thenReturn(Map.of("b.jpg", "SlowDown: Reduce your request rate"));
+
+        outboxService.drain();
+
+        verify(outboxRepository).deleteByOutboxIdIn(List.of(1L));
+        verify(outboxRepository).save(failing);
+        assertThat(failing.getLastError()).isEqualTo("SlowDown: Reduce your request rate");
+        assertThat(meterRegistry.counter("s3.deletion.outbox.deleted").count()).isEqualTo(1.0);
+    }
+
+    private S3DeletionOutboxEntry entry(Long id, String key) {
+        S3DeletionOutboxEntry entry = new S3DeletionOutboxEntry();
+        entry.setOutboxId(id);
+        entry.setObjectKey(key);
+        entry.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        entry.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+        return entry;
+    }
+}
@@ -0,0 +1,75 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.config.S3Buckets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3ServiceTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private S3Presigner presigner;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private S3Service s3Service;
+
+    @BeforeEach
+    void setUp() {
+        S3Buckets buckets = new S3Buckets();
+        buckets.setName("receipts-bucket");
+        s3Service = new S3Service(s3Client, buckets, presigner, cacheManager);
+    }
+
+    @Test
+    void deleteObjects_sendsOneRequestPerThousandKeys() {
+        List<String> keys = new ArrayList<>(IntStream.range(0, 2500).mapToObj(i -> "receipts/1/" + i).toList());
+        keys.add("receipts/1/0");
+        keys.add(null);
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder().build());
+
+        Map<String, String> failed = s3Service.deleteObjects(keys);
+
+        ArgumentCaptor<DeleteObjectsRequest> requests = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client, times(3)).deleteObjects(requests.capture());
+        assertThat(requests.getAllValues())
+                .extracting(request -> request.delete().objects().size())
+                .containsExactly(1000, 1000, 500);
+        assertThat(requests.getValue().bucket()).isEqualTo("receipts-bucket");
+        assertThat(failed).isEmpty();
+    }
+
+    @Test
+    void deleteObjects_returnsKeysS3FailedToDelete() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("receipts/1/b").code("AccessDenied").message("Access Denied").build())
+                .build());
+
+        Map<String, String> failed = s3Service.deleteObjects(List.of("receipts/1/a", "receipts/1/b"));
+
+        assertThat(failed).containsExactly(Map.entry("receipts/1/b", "AccessDenied: Access Denied"));
+    }
+}
@@ -0,0 +1,93 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.repository.UserDataVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpendingSummaryCacheTest {
+
+    private UserDataVersionRepository versionRepository;
+    private UserDataVersionService versionService;
+    private SpendingSummaryCache summaryCache;
+    private CaffeineCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(SpendingSummaryCache.CACHE_NAME, SpendingSummaryCache.newNativeCache());
+        // One shared version row, as the user_data_versions table would hold
+        AtomicLong storedVersion = new AtomicLong();
+        versionRepository = mock(UserDataVersionRepository.class);
+        when(versionRepository.findVersion(any())).thenAnswer(invocation -> Optional.of(storedVersion.get()));
+        when(versionRepository.increment(any())).thenAnswer(invocation -> {
+            storedVersion.incrementAndGet();
+            return 1;
+        });
+        versionService = new UserDataVersionService(versionRepository, event -> { });
+        summaryCache = new SpendingSummaryCache(cacheManager, versionService);
+    }
+
+    @Test
+    void repeatedReads_areServedFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        summaryCache.get(1L, "total", null, () -> BigDecimal.valueOf(loads.incrementAndGet()));
+        BigDecimal second = summaryCache.get(1L, "total", null, () -> BigDecimal.valueOf(loads.incrementAndGet()));
+
+        assertThat(second).isEqualByComparingTo("1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void writeIsNeverFollowedByStaleRead() {
+        BigDecimal[] table = {new BigDecimal("10.00")};
+
+        assertThat(readTotal(1L, table)).isEqualByComparingTo("10.00");
+
+        table[0] = new BigDecimal("25.00");
+        versionService.bump(1L);
+
+        assertThat(readTotal(1L, table)).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    void loadRacingWithWrite_isNotServedAfterTheWrite() {
+        // The load reads the old row, then the write commits before the result is cached
+        BigDecimal raced = summaryCache.get(1L, "total", null, () -> {
+            versionService.bump(1L);
+            return new BigDecimal("10.00");
+        });
+        assertThat(raced).isEqualByComparingTo("10.00");
+
+        BigDecimal afterWrite = summaryCache.get(1L, "total", null, () -> new BigDecimal("25.00"));
+
+        assertThat(afterWrite).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    void writeOnAnotherReplica_isSeenThroughTheSharedVersion() {
+        BigDecimal[] table = {new BigDecimal("10.00")};
+        assertThat(readTotal(1L, table)).isEqualByComparingTo("10.00");
+
+        // The write lands elsewhere; this cache receives no event, only the stored version moves
+        table[0] = new BigDecimal("25.00");
+        new UserDataVersionService(versionRepository, event -> { }).bump(1L);
+
+        assertThat(readTotal(1L, table)).isEqualByComparingTo("25.00");
+    }
+
+    private BigDecimal readTotal(Long userId, BigDecimal[] table) {
+        return summaryCache.get(userId, "total", null, () -> table[0]);
+    }
+}
@@ -0,0 +1,115 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.repository.UserDataVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDataVersionServiceTest {
+
+    @Mock
+    private UserDataVersionRepository userDataVersionRepository;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+    private UserDataVersionService versionService;
+
+    @BeforeEach
+    void setUp() {
+        versionService = new UserDataVersionService(userDataVersionRepository, publishedEvents::add);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void etag_isWeakAndFollowsStoredVersion() {
+        when(userDataVersionRepository.findVersion(1L)).thenReturn(Optional.of(3L), Optional.of(4L));
+
+        assertThat(versionService.etagFor(1L)).isEqualTo("W/\"v3\"");
+        assertThat(versionService.etagFor(1L)).isEqualTo("W/\"v4\"");
+    }
+
+    @Test
+    void currentVersion_isZeroBeforeFirstWrite() {
+        when(userDataVersionRepository.findVersion(1L)).thenReturn(Optional.empty());
+
+        assertThat(versionService.currentVersion(1L)).isZero();
+    }
+
+    @Test
+    void bump_incrementsExistingRow() {
+        when(userDataVersionRepository.increment(1L)).thenReturn(1);
+
+        versionService.bump(1L);
+
+        verify(userDataVersionRepository, never()).insertIfAbsent(any());
+        assertThat(publishedEvents).containsExactly(new UserDataVersionService.UserDataChangedEvent(1L));
+    }
+
+    @Test
+    void bump_createsMissingRowThenIncrements() {
+        when(userDataVersionRepository.increment(1L)).thenReturn(0, 1);
+
+        versionService.bump(1L);
+
+        verify(userDataVersionRepository).insertIfAbsent(1L);
+        verify(userDataVersionRepository, times(2)).increment(1L);
+    }
+
+    @Test
+    void bump_insideTransaction_writesNowAndPublishesAfterCommit() {
+        when(userDataVersionRepository.increment(1L)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        versionService.bump(1L);
+        verify(userDataVersionRepository).increment(1L);
+        assertThat(publishedEvents).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(publishedEvents).containsExactly(new UserDataVersionService.UserDataChangedEvent(1L));
+    }
+
+    @Test
+    void bump_ignoresNullUser() {
+        versionService.bump(null);
+
+        verifyNoInteractions(userDataVersionRepository);
+    }
+
+    @Test
+    void matches_usesWeakComparisonAndLists() {
+        String etag = "W/\"v7\"";
+        String strongForm = etag.substring(2);
+
+        assertThat(UserDataVersionService.matches(etag, etag)).isTrue();
+        assertThat(UserDataVersionService.matches(strongForm, etag)).isTrue();
+        assertThat(UserDataVersionService.matches("W/\"other\", " + etag, etag)).isTrue();
+        assertThat(UserDataVersionService.matches("*", etag)).isTrue();
+        assertThat(UserDataVersionService.matches("W/\"other\"", etag)).isFalse();
+        assertThat(UserDataVersionService.matches(null, etag)).isFalse();
+    }
+
+    @Test
+    void qualifiedEtag_differsByQualifier() {
+        when(userDataVersionRepository.findVersion(1L)).thenReturn(Optional.of(2L));
+
+        assertThat(versionService.etagFor(1L, "2025-01")).isNotEqualTo(versionService.etagFor(1L, "2025-02"));
+    }
+}
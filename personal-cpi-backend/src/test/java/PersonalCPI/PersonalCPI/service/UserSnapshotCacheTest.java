@@ -0,0 +1,65 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotCacheTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private UserSnapshotCache userSnapshotCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userSnapshotCache = new UserSnapshotCache(userDetailsService);
+        user = new User("alice", "alice@example.com", "hash");
+        user.setId(7L);
+    }
+
+    @Test
+    void get_loadsUserOnce() {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user);
+
+        assertThat(userSnapshotCache.get("alice")).isSameAs(user);
+        assertThat(userSnapshotCache.get("alice")).isSameAs(user);
+
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void evict_reloadsByUsernameAndEmail() {
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(user);
+        userSnapshotCache.get("alice");
+        userSnapshotCache.get("alice@example.com");
+
+        userSnapshotCache.evict(user);
+        userSnapshotCache.get("alice");
+        userSnapshotCache.get("alice@example.com");
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+        verify(userDetailsService, times(2)).loadUserByUsername("alice@example.com");
+    }
+
+    @Test
+    void get_unknownUser_throwsAndIsNotCached() {
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("User not found"));
+
+        assertThatThrownBy(() -> userSnapshotCache.get("ghost")).isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> userSnapshotCache.get("ghost")).isInstanceOf(UsernameNotFoundException.class);
+
+        verify(userDetailsService, times(2)).loadUserByUsername("ghost");
+    }
+}
@@ -0,0 +1,153 @@
+package PersonalCPI.PersonalCPI.service;
+
+import PersonalCPI.PersonalCPI.model.UserSpendingStats;
+import PersonalCPI.PersonalCPI.repository.UserSpendingStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSpendingStatsServiceTest {
+
+    @Mock
+    private UserSpendingStatsRepository statsRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserSpendingStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        statsService = new UserSpendingStatsService(statsRepository, transactionManager);
+    }
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 1);
+
+    @Test
+    void receiptAdded_withExistingRow_appliesDeltaOnly() {
+        when(statsRepository.applyDelta(1L, 1, new BigDecimal("12.50"), DATE, DATE)).thenReturn(1);
+
+        statsService.receiptAdded(1L, new BigDecimal("12.50"), DATE);
+
+        verify(statsRepository, never()).insertFromReceipts(anyLong());
+    }
+
+    @Test
+    void receiptAdded_withoutRow_seedsFromReceiptsWithoutDoubleCounting() {
+        when(statsRepository.applyDelta(1L, 1, new BigDecimal("12.50"), DATE, DATE)).thenReturn(0);
+        when(statsRepository.insertFromReceipts(1L)).thenReturn(1);
+
+        statsService.receiptAdded(1L, new BigDecimal("12.50"), DATE);
+
+        // The seed aggregate already includes the new receipt
+        verify(statsRepository, times(1)).applyDelta(anyLong(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void receiptAdded_whenAnotherTransactionSeedsFirst_appliesDeltaOnTop() {
+        when(statsRepository.applyDelta(1L, 1, new BigDecimal("12.50"), DATE, DATE)).thenReturn(0, 1);
+        when(statsRepository.insertFromReceipts(1L)).thenReturn(0);
+
+        statsService.receiptAdded(1L, new BigDecimal("12.50"), DATE);
+
+        verify(statsRepository, times(2)).applyDelta(1L, 1, new BigDecimal("12.50"), DATE, DATE);
+    }
+
+    @Test
+    void receiptChanged_sameDate_widensRangeWithoutRereading() {
+        when(statsRepository.applyDelta(1L, 0, new BigDecimal("-4.25"), DATE, DATE)).thenReturn(1);
+
+        statsService.receiptChanged(1L, new BigDecimal("10.00"), new BigDecimal("5.75"), DATE, DATE);
+
+        verify(statsRepository, never()).applyDeltaRereadingDates(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void receiptChanged_movedDate_rereadsRange() {
+        when(statsRepository.applyDeltaRereadingDates(1L, 0, new BigDecimal("-4.25"))).thenReturn(1);
+
+        statsService.receiptChanged(1L, new BigDecimal("10.00"), new BigDecimal("5.75"), DATE, DATE.plusDays(1));
+
+        verify(statsRepository, never()).applyDelta(anyLong(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void receiptRemoved_subtractsCountAndAmountAndRereadsRange() {
+        when(statsRepository.applyDeltaRereadingDates(1L, -1, new BigDecimal("-8.00"))).thenReturn(1);
+
+        statsService.receiptRemoved(1L, new BigDecimal("8.00"));
+
+        verify(statsRepository).applyDeltaRereadingDates(1L, -1, new BigDecimal("-8.00"));
+    }
+
+    @Test
+    void getTotalSpending_readsExistingRow() {
+        when(statsRepository.findById(1L)).thenReturn(Optional.of(stats(1L, 3L, "42.00")));
+
+        assertThat(statsService.getTotalSpending(1L)).isEqualByComparingTo("42.00");
+        verify(statsRepository, never()).insertFromReceipts(anyLong());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void getReceiptCount_withoutRow_aggregatesWithoutInsertingOrOpeningATransaction() {
+        when(statsRepository.findById(1L)).thenReturn(Optional.empty());
+        when(statsRepository.aggregateReceipts(1L)).thenReturn(List.<Object[]>of(new Object[]{
+                7L, new BigDecimal("70.00"), DATE, DATE}));
+
+        assertThat(statsService.getReceiptCount(1L)).isEqualTo(7L);
+        verify(statsRepository, never()).insertFromReceipts(anyLong());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void reconcile_overwritesRowFromAggregate() {
+        UserSpendingStats drifted = stats(1L, 99L, "999.99");
+        when(statsRepository.findForUpdate(1L)).thenReturn(Optional.of(drifted));
+        when(statsRepository.aggregateReceipts(1L)).thenReturn(List.<Object[]>of(new Object[]{
+                4L, new BigDecimal("61.20"), LocalDate.of(2024, 3, 1), LocalDate.of(2025, 2, 9)}));
+        when(statsRepository.save(drifted)).thenReturn(drifted);
+
+        UserSpendingStats reconciled = statsService.reconcile(1L);
+
+        assertThat(reconciled.getReceiptCount()).isEqualTo(4L);
+        assertThat(reconciled.getTotalAmount()).isEqualByComparingTo("61.20");
+        assertThat(reconciled.getFirstPurchaseDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(reconciled.getLastPurchaseDate()).isEqualTo(LocalDate.of(2025, 2, 9));
+    }
+
+    @Test
+    void reconcileAll_coversUsersWithReceiptsOrStatsRows() {
+        when(statsRepository.findUserIdsWithReceipts()).thenReturn(List.of(1L, 2L));
+        when(statsRepository.findAllUserIds()).thenReturn(List.of(2L, 3L));
+        when(statsRepository.findForUpdate(anyLong())).thenReturn(Optional.empty());
+        when(statsRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(stats(invocation.getArgument(0), 0L, "0")));
+
+        assertThat(statsService.reconcileAll()).isEqualTo(3);
+        verify(statsRepository).insertFromReceipts(1L);
+        verify(statsRepository).insertFromReceipts(2L);
+        verify(statsRepository).insertFromReceipts(3L);
+    }
+
+    private UserSpendingStats stats(Long userId, Long count, String total) {
+        UserSpendingStats stats = new UserSpendingStats();
+        stats.setUserId(userId);
+        stats.setReceiptCount(count);
+        stats.setTotalAmount(new BigDecimal(total));
+        return stats;
+    }
+}
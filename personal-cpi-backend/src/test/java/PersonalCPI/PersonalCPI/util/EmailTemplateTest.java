@@ -0,0 +1,43 @@
+package PersonalCPI.PersonalCPI.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailTemplateTest {
+
+    @Test
+    void render_fillsEveryPlaceholder() {
+        EmailTemplate template = EmailTemplate.compile("<p>Hi {{name}}, your code is {{code}}.</p>{{code}}");
+
+        assertThat(template.render(Map.of("name", "Ana", "code", "123456")))
+            .isEqualTo("<p>Hi Ana, your code is 123456.</p>123456");
+    }
+
+    @Test
+    void render_escapesValuesForHtml() {
+        EmailTemplate template = EmailTemplate.compile("<b>{{name}}</b>");
+
+        assertThat(template.render(Map.of("name", "<script>"))).isEqualTo("<b>&lt;script&gt;</b>");
+    }
+
+    @Test
+    void render_withMissingValue_throwsIllegalArgumentException() {
+        EmailTemplate template = EmailTemplate.compile("{{code}}");
+
+        assertThatThrownBy(() -> template.render(Map.of()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("code");
+    }
+
+    @Test
+    void fromClasspath_loadsVerificationTemplate() {
+        String html = EmailTemplate.fromClasspath("templates/email/verification.html")
+            .render(Map.of("code", "654321"));
+
+        assertThat(html).contains("<div class='code-box'>654321</div>").doesNotContain("{{");
+    }
+}
@@ -0,0 +1,57 @@
+package PersonalCPI.PersonalCPI.util;
+
+import PersonalCPI.PersonalCPI.dto.ReceiptResponseDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldSelectionTest {
+
+    @Test
+    void parse_missingOrBlank_selectsEverything() {
+        assertThat(FieldSelection.parse(null)).isSameAs(FieldSelection.ALL);
+        assertThat(FieldSelection.parse("  ")).isSameAs(FieldSelection.ALL);
+        assertThat(FieldSelection.parse(" , ,")).isSameAs(FieldSelection.ALL);
+        assertThat(FieldSelection.ALL.includes("items")).isTrue();
+        assertThat(FieldSelection.ALL.getFields()).isEmpty();
+    }
+
+    @Test
+    void parse_trimsNamesAndIncludesOnlyThoseFields() {
+        FieldSelection selection = FieldSelection.parse("receiptId, storeName ,,amount");
+
+        assertThat(selection.isAll()).isFalse();
+        assertThat(selection.getFields()).containsExactlyInAnyOrder("receiptId", "storeName", "amount");
+        assertThat(selection.includes("storeName")).isTrue();
+        assertThat(selection.includes("items")).isFalse();
+        assertThat(selection.isExplicitlyRequested("amount")).isTrue();
+    }
+
+    @Test
+    void without_dropsFieldFromAllAndFromExplicitSelections() {
+        FieldSelection allButUrls = FieldSelection.ALL.without("imageUrl");
+
+        assertThat(allButUrls.includes("imageUrl")).isFalse();
+        assertThat(allButUrls.includes("items")).isTrue();
+        assertThat(allButUrls.isExplicitlyRequested("items")).isFalse();
+        assertThat(FieldSelection.parse("imageUrl,amount").without("imageUrl").includes("imageUrl")).isFalse();
+        assertThat(FieldSelection.ALL.includes("imageUrl")).isTrue();
+    }
+
+    @Test
+    void parseForType_acceptsDtoProperties() {
+        FieldSelection selection = FieldSelection.parse("receiptId,imageUrl,items", ReceiptResponseDto.class);
+
+        assertThat(selection.getFields()).containsExactlyInAnyOrder("receiptId", "imageUrl", "items");
+        assertThat(FieldSelection.parse(null, ReceiptResponseDto.class)).isSameAs(FieldSelection.ALL);
+    }
+
+    @Test
+    void parseForType_rejectsUnknownNames() {
+        assertThatThrownBy(() -> FieldSelection.parse("receiptId,storName,totl", ReceiptResponseDto.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unknown fields: storName, totl.")
+                .hasMessageContaining("storeName");
+    }
+}
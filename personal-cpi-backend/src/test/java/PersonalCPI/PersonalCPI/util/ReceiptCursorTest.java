@@ -0,0 +1,81 @@
+package PersonalCPI.PersonalCPI.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReceiptCursorTest {
+
+    @Test
+    void encodeThenDecode_returnsSamePosition() {
+        ReceiptCursor cursor = new ReceiptCursor(LocalDate.of(2025, 3, 14), 4821L);
+
+        ReceiptCursor decoded = ReceiptCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void encode_producesUrlSafeToken() {
+        String token = new ReceiptCursor(LocalDate.of(2024, 12, 31), Long.MAX_VALUE).encode();
+
+        assertThat(token).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void decode_withNullToken_throwsIllegalArgumentException() {
+        assertThatThrownBy(() -> ReceiptCursor.decode(null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void decode_withBlankToken_throwsIllegalArgumentException() {
+        assertThatThrownBy(() -> ReceiptCursor.decode("  "))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void decode_withNonBase64Token_throwsIllegalArgumentException() {
+        assertThatThrownBy(() -> ReceiptCursor.decode("not base64!"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void decode_withMissingSeparator_throwsIllegalArgumentException() {
+        String token = encodeRaw("2025-01-01");
+
+        assertThatThrownBy(() -> ReceiptCursor.decode(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void decode_withInvalidDate_throwsIllegalArgumentException() {
+        String token = encodeRaw("2025-13-45:10");
+
+        assertThatThrownBy(() -> ReceiptCursor.decode(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void decode_withNonNumericId_throwsIllegalArgumentException() {
+        String token = encodeRaw("2025-01-01:abc");
+
+        assertThatThrownBy(() -> ReceiptCursor.decode(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package PersonalCPI.PersonalCPI.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SyncTokenTest {
+
+    @Test
+    void encodeThenDecode_returnsSameInstant() {
+        SyncToken token = new SyncToken(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000));
+
+        assertThat(SyncToken.decode(token.encode())).isEqualTo(token);
+    }
+
+    @Test
+    void encode_producesUrlSafeToken() {
+        String token = new SyncToken(LocalDateTime.of(2024, 12, 31, 23, 59, 59)).encode();
+
+        assertThat(token).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void decode_withBlankToken_throwsIllegalArgumentException() {
+        assertThatThrownBy(() -> SyncToken.decode(" "))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid sync token");
+    }
+
+    @Test
+    void decode_withReceiptCursor_throwsIllegalArgumentException() {
+        String cursor = new ReceiptCursor(LocalDate.of(2025, 1, 1), 10L).encode();
+
+        assertThatThrownBy(() -> SyncToken.decode(cursor))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid sync token");
+    }
+
+    @Test
+    void decode_withInvalidTimestamp_throwsIllegalArgumentException() {
+        String token = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("v1:2025-13-45T00:00".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> SyncToken.decode(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid sync token");
+    }
+}